@@ -0,0 +1,173 @@
+package org.ezze.games.storekeeper;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+
+/**
+ * This class reads levels from compact binary source.
+ * 
+ * Look at {@link BinaryLevelsWriter} for source's format. Levels' items
+ * are decoded straight into {@link LevelBoard}, no text is parsed.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ * @see LevelsSet#loadFromBinaryFile(java.lang.String)
+ */
+public class BinaryLevelsReader implements Closeable {
+    
+    /**
+     * Signature of binary source.
+     */
+    public static final int SIGNATURE = 0x534B4253;
+    
+    /**
+     * Version of binary source's format.
+     */
+    public static final int VERSION = 1;
+    
+    /**
+     * Maximal count of equal items encoded by a single run.
+     */
+    protected static final int MAXIMAL_RUN_LENGTH = 32;
+    
+    /**
+     * Items' codes indexed by their 3 bit codes of runs.
+     */
+    protected static final byte[] RUN_ITEMS = new byte[] {
+        LevelBoard.ITEM_SPACE,
+        LevelBoard.ITEM_BRICK,
+        LevelBoard.ITEM_GOAL,
+        LevelBoard.ITEM_BOX,
+        LevelBoard.ITEM_BOX_ON_GOAL,
+        LevelBoard.ITEM_WORKER,
+        LevelBoard.ITEM_WORKER_ON_GOAL,
+        LevelBoard.ITEM_SPACE
+    };
+    
+    /**
+     * Source's stream.
+     */
+    protected final DataInputStream inputStream;
+    
+    /**
+     * Set's name.
+     */
+    protected final String name;
+    
+    /**
+     * Count of levels in the source.
+     */
+    protected final int levelsCount;
+    
+    /**
+     * Count of levels which are still to be read.
+     */
+    protected int pendingLevelsCount = 0;
+    
+    /**
+     * Buffer of level's runs being read.
+     */
+    protected byte[] runs = new byte[0];
+    
+    /**
+     * Creates binary reader and reads source's header.
+     * 
+     * @param inputStream
+     *      Source's stream.
+     * @throws IOException
+     *      If the source is invalid or can't be read.
+     */
+    public BinaryLevelsReader(InputStream inputStream) throws IOException {
+        
+        this.inputStream = new DataInputStream(inputStream instanceof BufferedInputStream ?
+                inputStream : new BufferedInputStream(inputStream));
+        if (this.inputStream.readInt() != SIGNATURE || this.inputStream.readInt() != VERSION)
+            throw new IOException("Unknown format of binary levels' set");
+        name = this.inputStream.readUTF();
+        levelsCount = this.inputStream.readInt();
+        pendingLevelsCount = levelsCount;
+    }
+    
+    /**
+     * Retrieves set's name.
+     * 
+     * @return
+     *      Set's name.
+     */
+    public String getName() {
+        
+        return name;
+    }
+    
+    /**
+     * Retrieves count of levels in the source.
+     * 
+     * @return
+     *      Levels' count.
+     */
+    public int getLevelsCount() {
+        
+        return levelsCount;
+    }
+    
+    /**
+     * Reads next level of the source.
+     * 
+     * @return
+     *      Level's instance or {@code null} if there are no more levels.
+     * @throws IOException
+     *      If the source is invalid or can't be read.
+     */
+    public Level readLevel() throws IOException {
+        
+        if (pendingLevelsCount == 0)
+            return null;
+        pendingLevelsCount--;
+        
+        HashMap<String, Object> levelInfo = new HashMap<String, Object>();
+        String levelName = inputStream.readUTF();
+        if (!levelName.isEmpty())
+            levelInfo.put("name", levelName);
+        String levelAuthor = inputStream.readUTF();
+        if (!levelAuthor.isEmpty())
+            levelInfo.put("author", levelAuthor);
+        int levelWidth = inputStream.readUnsignedShort();
+        int levelHeight = inputStream.readUnsignedShort();
+        if (levelWidth == 0 || levelHeight == 0)
+            return Level.createFromBoard(null, levelInfo);
+        
+        int runsLength = inputStream.readInt();
+        if (runsLength > runs.length)
+            runs = new byte[runsLength];
+        inputStream.readFully(runs, 0, runsLength);
+        
+        // Decoding runs of level's items
+        LevelBoard levelBoard = new LevelBoard(levelWidth, levelHeight);
+        byte[] levelItems = levelBoard.getItems();
+        int itemIndex = 0;
+        for (int runIndex = 0; runIndex < runsLength; runIndex++) {
+            
+            int run = runs[runIndex] & 0xFF;
+            int runLength = (run & (MAXIMAL_RUN_LENGTH - 1)) + 1;
+            if (itemIndex + runLength > levelItems.length)
+                throw new IOException("Invalid level's items of binary levels' set");
+            byte levelItem = RUN_ITEMS[run >>> 5];
+            for (int runEnd = itemIndex + runLength; itemIndex < runEnd; itemIndex++)
+                levelItems[itemIndex] = levelItem;
+        }
+        if (itemIndex != levelItems.length)
+            throw new IOException("Invalid level's items of binary levels' set");
+        
+        return Level.createFromBoard(levelBoard, levelInfo);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        
+        inputStream.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,139 @@
+package org.ezze.games.storekeeper;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * This class writes levels to compact binary source.
+ * 
+ * The source starts with a header ({@link BinaryLevelsReader#SIGNATURE},
+ * {@link BinaryLevelsReader#VERSION}, set's name and levels' count) followed
+ * by levels. Each level is stored as its name, author, width, height and
+ * run-length encoded items of its rows: a run is a single byte keeping
+ * item's code in its higher 3 bits and run's length decreased by one
+ * in its lower 5 bits (see {@link BinaryLevelsReader#RUN_ITEMS}). Level's width
+ * and height are stored as unsigned 16-bit values, so they can't exceed {@link #MAXIMAL_LEVEL_SIZE}.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.2
+ * @see BinaryLevelsReader
+ * @see LevelsSet#saveToBinaryFile(java.lang.String)
+ */
+public class BinaryLevelsWriter implements Closeable {
+    
+    /**
+     * Maximal width and height of a level.
+     */
+    public static final int MAXIMAL_LEVEL_SIZE = 0xFFFF;
+    
+    /**
+     * Indices of items' codes in {@link BinaryLevelsReader#RUN_ITEMS}.
+     */
+    protected static final int[] RUN_ITEM_INDICES = new int[16];
+    static {
+        
+        for (int runItemIndex = 0; runItemIndex < BinaryLevelsReader.RUN_ITEMS.length; runItemIndex++)
+            RUN_ITEM_INDICES[BinaryLevelsReader.RUN_ITEMS[runItemIndex]] = runItemIndex;
+    }
+    
+    /**
+     * Source's stream.
+     */
+    protected final DataOutputStream outputStream;
+    
+    /**
+     * Buffer of level's runs being written.
+     */
+    protected final ByteArrayOutputStream runs = new ByteArrayOutputStream();
+    
+    /**
+     * Count of levels which are still to be written.
+     */
+    protected int pendingLevelsCount = 0;
+    
+    /**
+     * Creates binary writer and writes source's header.
+     * 
+     * @param outputStream
+     *      Source's stream.
+     * @param name
+     *      Set's name.
+     * @param levelsCount
+     *      Count of levels to write.
+     * @throws IOException
+     *      If writing of the source fails.
+     */
+    public BinaryLevelsWriter(OutputStream outputStream, String name, int levelsCount) throws IOException {
+        
+        this.outputStream = new DataOutputStream(outputStream instanceof BufferedOutputStream ?
+                outputStream : new BufferedOutputStream(outputStream));
+        this.outputStream.writeInt(BinaryLevelsReader.SIGNATURE);
+        this.outputStream.writeInt(BinaryLevelsReader.VERSION);
+        this.outputStream.writeUTF(name != null ? name : "");
+        this.outputStream.writeInt(levelsCount);
+        pendingLevelsCount = levelsCount;
+    }
+    
+    /**
+     * Writes next level.
+     * 
+     * Empty levels are written without rows.
+     * 
+     * @param level
+     *      Level's instance.
+     * @throws IOException
+     *      If writing of the source fails, all declared levels are written
+     *      or level's width or height exceeds {@link #MAXIMAL_LEVEL_SIZE}.
+     */
+    public void writeLevel(Level level) throws IOException {
+        
+        if (pendingLevelsCount == 0)
+            throw new IOException("Levels' count is exceeded");
+        pendingLevelsCount--;
+        
+        LevelBoard levelBoard = level.getInitialBoard();
+        if (levelBoard != null && (levelBoard.getWidth() > MAXIMAL_LEVEL_SIZE || levelBoard.getHeight() > MAXIMAL_LEVEL_SIZE)) {
+            
+            throw new IOException(String.format("Level %dx%d is too large to be written",
+                    levelBoard.getWidth(), levelBoard.getHeight()));
+        }
+        outputStream.writeUTF(level.getName() != null ? level.getName() : "");
+        outputStream.writeUTF(level.getAuthor());
+        outputStream.writeShort(levelBoard != null ? levelBoard.getWidth() : 0);
+        outputStream.writeShort(levelBoard != null ? levelBoard.getHeight() : 0);
+        if (levelBoard == null)
+            return;
+        
+        // Encoding level's items row by row, runs never cross rows
+        runs.reset();
+        byte[] levelItems = levelBoard.getItems();
+        int levelWidth = levelBoard.getWidth();
+        for (int rowOffset = 0; rowOffset < levelItems.length; rowOffset += levelWidth) {
+            
+            int itemIndex = rowOffset;
+            int rowEnd = rowOffset + levelWidth;
+            while (itemIndex < rowEnd) {
+                
+                byte levelItem = levelItems[itemIndex];
+                int runLength = 1;
+                while (itemIndex + runLength < rowEnd && runLength < BinaryLevelsReader.MAXIMAL_RUN_LENGTH &&
+                        levelItems[itemIndex + runLength] == levelItem)
+                    runLength++;
+                runs.write(RUN_ITEM_INDICES[levelItem] << 5 | (runLength - 1));
+                itemIndex += runLength;
+            }
+        }
+        outputStream.writeInt(runs.size());
+        runs.writeTo(outputStream);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        
+        outputStream.close();
+    }
+}
\ No newline at end of file
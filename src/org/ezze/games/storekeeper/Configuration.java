@@ -13,13 +13,15 @@ import org.w3c.dom.Element;
  * from the game.
  * 
  * @author Dmitriy Pushkov
- * @version 0.0.4
+ * @version 0.0.6
  */
 public class Configuration {
     
     public static final String CONFIGURATION_XML_TAG_ROOT = "configuration";
     public static final String CONFIGURATION_XML_TAG_GAMEPLAY = "gameplay";
     public static final String CONFIGURATION_XML_TAG_GAME_CYCLE_TIME = "game_cycle_time";
+    public static final String CONFIGURATION_XML_TAG_ACTIVE_RENDERING = "active_rendering";
+    public static final String CONFIGURATION_XML_TAG_FIT_TO_SCREEN = "fit_to_screen";
     
     public static final String OPTION_GAME_CYCLE_TIME = String.format("%s.%s",
             CONFIGURATION_XML_TAG_GAMEPLAY, CONFIGURATION_XML_TAG_GAME_CYCLE_TIME);
@@ -27,6 +29,14 @@ public class Configuration {
     public static final Integer MIN_OPTION_GAME_CYCLE_TIME = new Integer(20);
     public static final Integer MAX_OPTION_GAME_CYCLE_TIME = new Integer(80);
     
+    public static final String OPTION_ACTIVE_RENDERING = String.format("%s.%s",
+            CONFIGURATION_XML_TAG_GAMEPLAY, CONFIGURATION_XML_TAG_ACTIVE_RENDERING);
+    public static final Boolean DEFAULT_OPTION_ACTIVE_RENDERING = Boolean.FALSE;
+    
+    public static final String OPTION_FIT_TO_SCREEN = String.format("%s.%s",
+            CONFIGURATION_XML_TAG_GAMEPLAY, CONFIGURATION_XML_TAG_FIT_TO_SCREEN);
+    public static final Boolean DEFAULT_OPTION_FIT_TO_SCREEN = Boolean.FALSE;
+    
     /**
      * Stores a path to configuration XML file.
      */
@@ -67,6 +77,14 @@ public class Configuration {
         Element xmlGameCycleTimeElement = XMLHelper.getChildElement(xmlGameplayElement, CONFIGURATION_XML_TAG_GAME_CYCLE_TIME);        
         setOption(OPTION_GAME_CYCLE_TIME, adjustOptionByRange(XMLHelper.getElementInteger(xmlGameCycleTimeElement,
                 DEFAULT_OPTION_GAME_CYCLE_TIME), MIN_OPTION_GAME_CYCLE_TIME, MAX_OPTION_GAME_CYCLE_TIME));
+        
+        Element xmlActiveRenderingElement = XMLHelper.getChildElement(xmlGameplayElement, CONFIGURATION_XML_TAG_ACTIVE_RENDERING);
+        setOption(OPTION_ACTIVE_RENDERING, parseBooleanOption(XMLHelper.getElementText(xmlActiveRenderingElement),
+                DEFAULT_OPTION_ACTIVE_RENDERING));
+        
+        Element xmlFitToScreenElement = XMLHelper.getChildElement(xmlGameplayElement, CONFIGURATION_XML_TAG_FIT_TO_SCREEN);
+        setOption(OPTION_FIT_TO_SCREEN, parseBooleanOption(XMLHelper.getElementText(xmlFitToScreenElement),
+                DEFAULT_OPTION_FIT_TO_SCREEN));
     }
     
     /**
@@ -209,6 +227,16 @@ public class Configuration {
             xmlGameCycleTimeElement = XMLHelper.addChildElement(xmlDocument, xmlGameplayElement, CONFIGURATION_XML_TAG_GAME_CYCLE_TIME);
         XMLHelper.setElementText(xmlGameCycleTimeElement, getOption(OPTION_GAME_CYCLE_TIME, DEFAULT_OPTION_GAME_CYCLE_TIME));
         
+        Element xmlActiveRenderingElement = XMLHelper.getChildElement(xmlGameplayElement, CONFIGURATION_XML_TAG_ACTIVE_RENDERING);
+        if (xmlActiveRenderingElement == null)
+            xmlActiveRenderingElement = XMLHelper.addChildElement(xmlDocument, xmlGameplayElement, CONFIGURATION_XML_TAG_ACTIVE_RENDERING);
+        XMLHelper.setElementText(xmlActiveRenderingElement, getOption(OPTION_ACTIVE_RENDERING, DEFAULT_OPTION_ACTIVE_RENDERING));
+        
+        Element xmlFitToScreenElement = XMLHelper.getChildElement(xmlGameplayElement, CONFIGURATION_XML_TAG_FIT_TO_SCREEN);
+        if (xmlFitToScreenElement == null)
+            xmlFitToScreenElement = XMLHelper.addChildElement(xmlDocument, xmlGameplayElement, CONFIGURATION_XML_TAG_FIT_TO_SCREEN);
+        XMLHelper.setElementText(xmlFitToScreenElement, getOption(OPTION_FIT_TO_SCREEN, DEFAULT_OPTION_FIT_TO_SCREEN));
+        
         return XMLHelper.writeXMLDocument(xmlDocument, configurationFileName);
     }
 }
\ No newline at end of file
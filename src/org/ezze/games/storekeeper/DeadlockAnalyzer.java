@@ -0,0 +1,580 @@
+package org.ezze.games.storekeeper;
+
+import java.util.Arrays;
+
+/**
+ * This class detects positions which can't be solved anymore.
+ * 
+ * Dead squares (positions from which a box can't be pushed to any goal) are
+ * precomputed from bricks' and goals' layout on analyzer's creation by pulling
+ * a box from every goal. Positions are checked then for the following deadlocks:
+ * <ul>
+ * <li>a box not on goal stays on a dead square;</li>
+ * <li>freeze deadlock: a group of boxes which can't be moved anymore
+ * contains a box not on goal;</li>
+ * <li>closed corral deadlock: an area unreachable by the worker contains a goal
+ * while all boxes bounding the area can't be moved anymore.</li>
+ * </ul>
+ * 
+ * Positions are addressed like in {@link LevelBoard}, boxes are taken from
+ * {@link LevelBoard#FLAG_BOX} flags of checked items. Direction codes {@code 0},
+ * {@code 1}, {@code 2} and {@code 3} stand for up, right, down and left respectively.
+ * 
+ * Boxes' count is expected to be equal to goals' count.
+ * 
+ * Analyzer keeps temporary data of the checks so one instance
+ * must be confined to a single thread.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ * @see LevelEngine
+ */
+public class DeadlockAnalyzer {
+    
+    /**
+     * Pushes distance of a dead square.
+     */
+    public static final int INFINITE_DISTANCE = Integer.MAX_VALUE / 4;
+    
+    /**
+     * Indicates that a box can be moved.
+     */
+    protected static final int NOT_FROZEN = 0;
+    
+    /**
+     * Indicates that a box can't be moved and all boxes blocking it stay on goals.
+     */
+    protected static final int FROZEN_ON_GOALS = 1;
+    
+    /**
+     * Indicates that a box can't be moved and it or some box blocking it stays not on goal.
+     */
+    protected static final int FROZEN_NOT_ON_GOAL = 2;
+    
+    /**
+     * Board's width.
+     */
+    protected final int width;
+    
+    /**
+     * Positions' count.
+     */
+    protected final int cellsCount;
+    
+    /**
+     * Brick flags indexed by position.
+     */
+    protected final boolean[] walls;
+    
+    /**
+     * Goal flags indexed by position.
+     */
+    protected final boolean[] goals;
+    
+    /**
+     * Neighbour positions indexed by {@code position * 4 + direction}, {@code -1} stands for board's edge.
+     */
+    protected final int[] neighbours;
+    
+    /**
+     * Minimal pushes count required to bring a box from a position to any goal.
+     */
+    protected final int[] pushDistances;
+    
+    /**
+     * Marks of boxes treated as bricks during freeze check.
+     */
+    protected final int[] frozenMarks;
+    
+    /**
+     * Positions marked by freeze check in order of marking.
+     */
+    protected final int[] frozenStack;
+    
+    /**
+     * Size of {@link #frozenStack}.
+     */
+    protected int frozenStackSize = 0;
+    
+    /**
+     * Current mark of freeze check.
+     */
+    protected int frozenMark = 0;
+    
+    /**
+     * Marks of positions reachable by the worker.
+     */
+    protected final int[] reachMarks;
+    
+    /**
+     * Current mark of worker's reachability search.
+     */
+    protected int reachMark = 0;
+    
+    /**
+     * Marks of corrals' positions.
+     */
+    protected final int[] corralMarks;
+    
+    /**
+     * Current mark of corrals' search.
+     */
+    protected int corralMark = 0;
+    
+    /**
+     * Marks of boxes bounding currently checked corral.
+     */
+    protected final int[] corralBoxesMarks;
+    
+    /**
+     * Current mark of boxes bounding a corral.
+     */
+    protected int corralBoxesMark = 0;
+    
+    /**
+     * Queue of positions' searches.
+     */
+    protected final int[] queue;
+    
+    /**
+     * Boxes bounding currently checked corral.
+     */
+    protected final int[] corralBoxes;
+    
+    /**
+     * Creates an analyzer for bricks' and goals' layout of specified board.
+     * 
+     * @param board
+     *      Level's board, boxes and worker are ignored.
+     */
+    public DeadlockAnalyzer(LevelBoard board) {
+        
+        width = board.getWidth();
+        int height = board.getHeight();
+        cellsCount = width * height;
+        byte[] items = board.getItems();
+        
+        walls = new boolean[cellsCount];
+        goals = new boolean[cellsCount];
+        for (int position = 0; position < cellsCount; position++) {
+            
+            walls[position] = (items[position] & LevelBoard.FLAG_BRICK) != 0;
+            goals[position] = (items[position] & LevelBoard.FLAG_GOAL) != 0;
+        }
+        
+        neighbours = new int[cellsCount * 4];
+        for (int position = 0; position < cellsCount; position++) {
+            
+            int line = position / width;
+            int column = position % width;
+            neighbours[position * 4] = line > 0 ? position - width : -1;
+            neighbours[position * 4 + 1] = column < width - 1 ? position + 1 : -1;
+            neighbours[position * 4 + 2] = line < height - 1 ? position + width : -1;
+            neighbours[position * 4 + 3] = column > 0 ? position - 1 : -1;
+        }
+        
+        frozenMarks = new int[cellsCount];
+        frozenStack = new int[cellsCount];
+        reachMarks = new int[cellsCount];
+        corralMarks = new int[cellsCount];
+        corralBoxesMarks = new int[cellsCount];
+        queue = new int[cellsCount];
+        corralBoxes = new int[cellsCount];
+        
+        // Pulling a box from all goals to find minimal pushes counts
+        pushDistances = new int[cellsCount];
+        Arrays.fill(pushDistances, INFINITE_DISTANCE);
+        int queueHead = 0;
+        int queueTail = 0;
+        for (int position = 0; position < cellsCount; position++) {
+            
+            if (goals[position] && !walls[position]) {
+                
+                pushDistances[position] = 0;
+                queue[queueTail++] = position;
+            }
+        }
+        while (queueHead < queueTail) {
+            
+            int position = queue[queueHead++];
+            for (int direction = 0; direction < 4; direction++) {
+                
+                int opposite = (direction + 2) % 4;
+                int boxPosition = neighbours[position * 4 + opposite];
+                if (boxPosition < 0 || walls[boxPosition])
+                    continue;
+                int workerPosition = neighbours[boxPosition * 4 + opposite];
+                if (workerPosition < 0 || walls[workerPosition])
+                    continue;
+                if (pushDistances[boxPosition] > pushDistances[position] + 1) {
+                    
+                    pushDistances[boxPosition] = pushDistances[position] + 1;
+                    queue[queueTail++] = boxPosition;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Creates a copy of specified analyzer sharing its precomputed information.
+     * 
+     * Copies are intended to check positions of the same board in different threads.
+     * 
+     * @param analyzer
+     *      Analyzer to copy.
+     */
+    public DeadlockAnalyzer(DeadlockAnalyzer analyzer) {
+        
+        width = analyzer.width;
+        cellsCount = analyzer.cellsCount;
+        walls = analyzer.walls;
+        goals = analyzer.goals;
+        neighbours = analyzer.neighbours;
+        pushDistances = analyzer.pushDistances;
+        frozenMarks = new int[cellsCount];
+        frozenStack = new int[cellsCount];
+        reachMarks = new int[cellsCount];
+        corralMarks = new int[cellsCount];
+        corralBoxesMarks = new int[cellsCount];
+        queue = new int[cellsCount];
+        corralBoxes = new int[cellsCount];
+    }
+    
+    /**
+     * Retrieves a direct reference to neighbour positions.
+     * 
+     * A neighbour of {@code position} in {@code direction} has index
+     * {@code position * 4 + direction}, {@code -1} stands for board's edge.
+     * 
+     * @return
+     *      Neighbour positions.
+     */
+    public int[] getNeighbours() {
+        
+        return neighbours;
+    }
+    
+    /**
+     * Retrieves a direct reference to minimal pushes counts required
+     * to bring a box from each position to any goal.
+     * 
+     * @return
+     *      Pushes counts indexed by position, {@link #INFINITE_DISTANCE} stands for a dead square.
+     */
+    public int[] getPushDistances() {
+        
+        return pushDistances;
+    }
+    
+    /**
+     * Checks whether a box placed at specified position can't be pushed to any goal.
+     * 
+     * @param position
+     *      Position's index.
+     * @return
+     *      {@code true} if position is a dead square, {@code false} otherwise.
+     */
+    public boolean isDeadSquare(int position) {
+        
+        return pushDistances[position] >= INFINITE_DISTANCE;
+    }
+    
+    /**
+     * Checks whether a box placed at specified position can't be pushed to any goal.
+     * 
+     * @param line
+     *      Line's index.
+     * @param column
+     *      Column's index.
+     * @return
+     *      {@code true} if position is a dead square or is out of the board, {@code false} otherwise.
+     */
+    public boolean isDeadSquare(int line, int column) {
+        
+        if (line < 0 || line >= cellsCount / width || column < 0 || column >= width)
+            return true;
+        return isDeadSquare(line * width + column);
+    }
+    
+    /**
+     * Checks whether a position is deadlocked after a push.
+     * 
+     * Only deadlocks caused by pushed box are detected.
+     * 
+     * @param items
+     *      Board's items after the push.
+     * @param boxPosition
+     *      Pushed box' position.
+     * @param workerPosition
+     *      Worker's position.
+     * @return
+     *      {@code true} if position can't be solved, {@code false} otherwise.
+     */
+    public boolean isDeadlocked(byte[] items, int boxPosition, int workerPosition) {
+        
+        if (!goals[boxPosition] && isDeadSquare(boxPosition))
+            return true;
+        if (getFrozenState(items, boxPosition) == FROZEN_NOT_ON_GOAL)
+            return true;
+        return isCorralDeadlock(items, workerPosition, boxPosition);
+    }
+    
+    /**
+     * Checks whether a position is deadlocked.
+     * 
+     * @param items
+     *      Board's items.
+     * @param workerPosition
+     *      Worker's position.
+     * @return
+     *      {@code true} if position can't be solved, {@code false} otherwise.
+     */
+    public boolean isDeadlocked(byte[] items, int workerPosition) {
+        
+        if (isAllBoxesOnGoals(items))
+            return false;
+        for (int position = 0; position < cellsCount; position++) {
+            
+            if ((items[position] & LevelBoard.FLAG_BOX) == 0 || goals[position])
+                continue;
+            if (isDeadSquare(position) || getFrozenState(items, position) == FROZEN_NOT_ON_GOAL)
+                return true;
+        }
+        return isCorralDeadlock(items, workerPosition, -1);
+    }
+    
+    /**
+     * Checks whether all boxes stay on goals.
+     * 
+     * @param items
+     *      Board's items.
+     * @return
+     *      {@code true} if position is solved, {@code false} otherwise.
+     */
+    protected boolean isAllBoxesOnGoals(byte[] items) {
+        
+        for (int position = 0; position < cellsCount; position++) {
+            
+            if ((items[position] & LevelBoard.FLAG_BOX) != 0 && !goals[position])
+                return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Checks whether a box can't be moved anymore.
+     * 
+     * @param items
+     *      Board's items.
+     * @param boxPosition
+     *      Box' position.
+     * @return
+     *      One of {@link #NOT_FROZEN}, {@link #FROZEN_ON_GOALS} or {@link #FROZEN_NOT_ON_GOAL}.
+     */
+    protected int getFrozenState(byte[] items, int boxPosition) {
+        
+        frozenMark++;
+        frozenStackSize = 0;
+        return checkFrozen(items, boxPosition);
+    }
+    
+    /**
+     * Recursively checks whether a box can't be moved anymore.
+     * 
+     * The box is treated as a brick while its neighbour boxes are checked,
+     * marks of a box which turns out to be movable are withdrawn together
+     * with marks of the boxes checked on its behalf.
+     * 
+     * @param items
+     *      Board's items.
+     * @param boxPosition
+     *      Box' position.
+     * @return
+     *      One of {@link #NOT_FROZEN}, {@link #FROZEN_ON_GOALS} or {@link #FROZEN_NOT_ON_GOAL}.
+     */
+    protected int checkFrozen(byte[] items, int boxPosition) {
+        
+        int stackSize = frozenStackSize;
+        frozenMarks[boxPosition] = frozenMark;
+        frozenStack[frozenStackSize++] = boxPosition;
+        
+        int verticalState = checkBlocked(items, boxPosition, 0);
+        int horizontalState = verticalState != NOT_FROZEN ? checkBlocked(items, boxPosition, 1) : NOT_FROZEN;
+        if (horizontalState == NOT_FROZEN) {
+            
+            while (frozenStackSize > stackSize)
+                frozenMarks[frozenStack[--frozenStackSize]] = 0;
+            return NOT_FROZEN;
+        }
+        
+        if (!goals[boxPosition] || verticalState == FROZEN_NOT_ON_GOAL || horizontalState == FROZEN_NOT_ON_GOAL)
+            return FROZEN_NOT_ON_GOAL;
+        return FROZEN_ON_GOALS;
+    }
+    
+    /**
+     * Checks whether a box can't be moved along specified axis.
+     * 
+     * @param items
+     *      Board's items.
+     * @param boxPosition
+     *      Box' position.
+     * @param direction
+     *      Code of axis' direction, {@code 0} for vertical and {@code 1} for horizontal axis.
+     * @return
+     *      One of {@link #NOT_FROZEN}, {@link #FROZEN_ON_GOALS} or {@link #FROZEN_NOT_ON_GOAL}.
+     */
+    protected int checkBlocked(byte[] items, int boxPosition, int direction) {
+        
+        int firstPosition = neighbours[boxPosition * 4 + direction];
+        int secondPosition = neighbours[boxPosition * 4 + direction + 2];
+        
+        // Bricks and boxes being checked
+        if (isBlocking(firstPosition) || isBlocking(secondPosition))
+            return FROZEN_ON_GOALS;
+        
+        // Pushing the box to any side leads to a dead square
+        if (isDeadSquare(firstPosition) && isDeadSquare(secondPosition))
+            return FROZEN_ON_GOALS;
+        
+        // Neighbour boxes which can't be moved
+        int state = NOT_FROZEN;
+        if ((items[firstPosition] & LevelBoard.FLAG_BOX) != 0)
+            state = checkFrozen(items, firstPosition);
+        if (state == NOT_FROZEN && (items[secondPosition] & LevelBoard.FLAG_BOX) != 0)
+            state = checkFrozen(items, secondPosition);
+        return state;
+    }
+    
+    /**
+     * Checks whether a position is a brick, a board's edge or a box
+     * treated as a brick during freeze check.
+     * 
+     * @param position
+     *      Position's index or {@code -1}.
+     * @return
+     *      {@code true} if position blocks a box, {@code false} otherwise.
+     */
+    protected boolean isBlocking(int position) {
+        
+        return position < 0 || walls[position] || frozenMarks[position] == frozenMark;
+    }
+    
+    /**
+     * Checks for closed corrals: areas unreachable by the worker containing
+     * a goal while all their bounding boxes can't be moved anymore.
+     * 
+     * @param items
+     *      Board's items.
+     * @param workerPosition
+     *      Worker's position.
+     * @param boxPosition
+     *      Pushed box' position to check only the corrals it bounds or {@code -1} to check all corrals.
+     * @return
+     *      {@code true} if a closed corral is found, {@code false} otherwise.
+     */
+    protected boolean isCorralDeadlock(byte[] items, int workerPosition, int boxPosition) {
+        
+        // Marking positions reachable by the worker
+        reachMark++;
+        int queueHead = 0;
+        int queueTail = 0;
+        queue[queueTail++] = workerPosition;
+        reachMarks[workerPosition] = reachMark;
+        while (queueHead < queueTail) {
+            
+            int position = queue[queueHead++];
+            for (int direction = 0; direction < 4; direction++) {
+                
+                int nextPosition = neighbours[position * 4 + direction];
+                if (nextPosition < 0 || walls[nextPosition] || (items[nextPosition] & LevelBoard.FLAG_BOX) != 0 ||
+                        reachMarks[nextPosition] == reachMark) {
+                    
+                    continue;
+                }
+                reachMarks[nextPosition] = reachMark;
+                queue[queueTail++] = nextPosition;
+            }
+        }
+        
+        corralMark++;
+        if (boxPosition >= 0) {
+            
+            for (int direction = 0; direction < 4; direction++) {
+                
+                if (isClosedCorral(items, neighbours[boxPosition * 4 + direction]))
+                    return true;
+            }
+            return false;
+        }
+        
+        for (int position = 0; position < cellsCount; position++) {
+            
+            if (isClosedCorral(items, position))
+                return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Checks whether a corral containing specified position is closed.
+     * 
+     * @param items
+     *      Board's items.
+     * @param position
+     *      Corral's position or {@code -1}.
+     * @return
+     *      {@code true} if the corral is closed and contains a goal, {@code false} otherwise.
+     */
+    protected boolean isClosedCorral(byte[] items, int position) {
+        
+        if (position < 0 || walls[position] || (items[position] & LevelBoard.FLAG_BOX) != 0 ||
+                reachMarks[position] == reachMark || corralMarks[position] == corralMark) {
+            
+            return false;
+        }
+        
+        // Collecting corral's positions and bounding boxes
+        corralBoxesMark++;
+        boolean isGoalFound = false;
+        int boxesCount = 0;
+        int queueHead = 0;
+        int queueTail = 0;
+        queue[queueTail++] = position;
+        corralMarks[position] = corralMark;
+        while (queueHead < queueTail) {
+            
+            int corralPosition = queue[queueHead++];
+            if (goals[corralPosition])
+                isGoalFound = true;
+            for (int direction = 0; direction < 4; direction++) {
+                
+                int nextPosition = neighbours[corralPosition * 4 + direction];
+                if (nextPosition < 0 || walls[nextPosition])
+                    continue;
+                if ((items[nextPosition] & LevelBoard.FLAG_BOX) != 0) {
+                    
+                    if (corralBoxesMarks[nextPosition] != corralBoxesMark) {
+                        
+                        corralBoxesMarks[nextPosition] = corralBoxesMark;
+                        corralBoxes[boxesCount++] = nextPosition;
+                    }
+                }
+                else if (corralMarks[nextPosition] != corralMark) {
+                    
+                    corralMarks[nextPosition] = corralMark;
+                    queue[queueTail++] = nextPosition;
+                }
+            }
+        }
+        
+        if (!isGoalFound)
+            return false;
+        for (int boxIndex = 0; boxIndex < boxesCount; boxIndex++) {
+            
+            if (getFrozenState(items, corralBoxes[boxIndex]) == NOT_FROZEN)
+                return false;
+        }
+        return true;
+    }
+}
\ No newline at end of file
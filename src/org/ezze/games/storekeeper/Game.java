@@ -1,10 +1,17 @@
 package org.ezze.games.storekeeper;
 
 import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.awt.font.FontRenderContext;
 import java.awt.font.TextAttribute;
+import java.awt.font.TextLayout;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
 import java.io.InputStream;
 import java.text.AttributedString;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import org.ezze.games.storekeeper.GameGraphics.SpriteSize;
 import org.ezze.games.storekeeper.Level.LevelSize;
 import org.ezze.games.storekeeper.Level.MoveInformation;
 import org.ezze.games.storekeeper.Level.MoveType;
@@ -16,8 +23,12 @@ import org.w3c.dom.Document;
  * This class is the main part of the game implementing graphics,
  * animation and user actions' handling.
  * 
+ * By default the play field is painted passively by Swing on repaint requests
+ * of the game loop. In active rendering mode (see {@link #setActiveRendering(boolean)})
+ * the loop presents whole frames itself on a canvas covering the panel.
+ * 
  * @author Dmitriy Pushkov
- * @version 0.0.8
+ * @version 0.0.19
  */
 public class Game extends JPanel implements Runnable {
     
@@ -46,6 +57,36 @@ public class Game extends JPanel implements Runnable {
      */
     public static final String TIME = "time";
     
+    /**
+     * Level's deadlock property.
+     */
+    public static final String DEADLOCK = "deadlock";
+    
+    /**
+     * Color of level information's values.
+     */
+    protected static final Color LEVEL_INFO_TEXT_COLOR = new Color(240, 240, 240);
+    
+    /**
+     * Color of level name's title.
+     */
+    protected static final Color LEVEL_NAME_TITLE_COLOR = new Color(255, 220, 0);
+    
+    /**
+     * Color of moves and pushes counts' titles.
+     */
+    protected static final Color LEVEL_COUNT_TITLE_COLOR = new Color(220, 190, 0);
+    
+    /**
+     * Color of level time's title.
+     */
+    protected static final Color LEVEL_TIME_TITLE_COLOR = new Color(50, 230, 0);
+    
+    /**
+     * Color of selected box' frame.
+     */
+    protected static final Color SELECTED_BOX_COLOR = new Color(255, 220, 0);
+    
     /**
      * Game's state, can be equal to one of the following values:
      * <ul>
@@ -172,7 +213,7 @@ public class Game extends JPanel implements Runnable {
      * Keeps worker's destination X coordinate of {@link Level} field
      * and is used for animation purporses only.
      * 
-     * This variable is a local copy of the current {@link Level#workerX}.
+     * This variable is a local copy of the current {@link Level#getWorkerX()}.
      * Default value -1 means that worker is idle and no animation is in progress.
      */
     protected int workerAnimDestX = -1;
@@ -181,7 +222,7 @@ public class Game extends JPanel implements Runnable {
      * Keeps worker's destination Y coordinate of {@link Level} field
      * and is used for animation purporses only.
      * 
-     * This variable is a local copy of the current {@link Level#workerY}.
+     * This variable is a local copy of the current {@link Level#getWorkerY()}.
      * Default value -1 means that worker is idle and no animation is in progress.
      */
     protected int workerAnimDestY = -1;
@@ -190,7 +231,7 @@ public class Game extends JPanel implements Runnable {
      * Keeps worker's current X animation coordinate of {@link Level} field.
      * 
      * Please note that this variable is used for animation purporses only
-     * while X coordinate {@link Level#workerX} of worker's real position
+     * while X coordinate {@link Level#getWorkerX()} of worker's real position
      * is always integer.
      */
     protected double workerAnimCurrX = 0.0;
@@ -199,7 +240,7 @@ public class Game extends JPanel implements Runnable {
      * Keeps worker's current Y animation coordinate of {@link Level} field.
      * 
      * Please note that this variable is used for animation purporses only
-     * while Y coordinate {@link Level#workerY} of worker's real position
+     * while Y coordinate {@link Level#getWorkerY()} of worker's real position
      * is always integer.
      */
     protected double workerAnimCurrY = 0.0;
@@ -279,6 +320,224 @@ public class Game extends JPanel implements Runnable {
      */
     protected boolean displayLevelInfo = true;
     
+    /**
+     * Knows whether a deadlock has been detected in current level's position.
+     */
+    protected boolean isLevelDeadlocked = false;
+    
+    /**
+     * Pre-rendered static items of the play field (background, bricks and goals).
+     * 
+     * It's rendered again only if a level or sprites' size is changed.
+     * 
+     * @see #getBackgroundLayer(org.ezze.games.storekeeper.Level)
+     */
+    protected BufferedImage backgroundLayer = null;
+    
+    /**
+     * Level {@link #backgroundLayer} is rendered for.
+     */
+    protected Level backgroundLayerLevel = null;
+    
+    /**
+     * Sprites' size {@link #backgroundLayer} is rendered with.
+     */
+    protected SpriteSize backgroundLayerSpriteSize = null;
+    
+    /**
+     * Tiles' size {@link #backgroundLayer} is rendered with.
+     */
+    protected int backgroundLayerTileSize = -1;
+    
+    /**
+     * Positions of boxes to paint retrieved by {@link Level#getBoxesPositions(int[])}.
+     */
+    protected int[] boxesPositions = null;
+    
+    /**
+     * Line index of a box highlighted as selected or {@code -1}.
+     * 
+     * @see #setSelectedBox(int, int)
+     */
+    protected int selectedBoxLine = -1;
+    
+    /**
+     * Column index of a box highlighted as selected or {@code -1}.
+     * 
+     * @see #setSelectedBox(int, int)
+     */
+    protected int selectedBoxColumn = -1;
+    
+    /**
+     * Stroke of selected box' frame.
+     * 
+     * The stroke is created again only if sprites' size is changed.
+     * 
+     * @see #getSelectedBoxStroke(java.awt.Dimension)
+     */
+    protected BasicStroke selectedBoxStroke = null;
+    
+    /**
+     * Font of level information.
+     * 
+     * Level information's font and text layouts are created again
+     * only if sprites' size, rendering context or background is changed.
+     * 
+     * @see #validateLevelInfoLayouts(java.awt.Graphics2D)
+     */
+    protected Font levelInfoFont = null;
+    
+    /**
+     * Metrics of {@link #levelInfoFont}.
+     */
+    protected FontMetrics levelInfoFontMetrics = null;
+    
+    /**
+     * Rendering context level information's text layouts are created for.
+     */
+    protected FontRenderContext levelInfoFontRenderContext = null;
+    
+    /**
+     * Background color of level information.
+     */
+    protected Color levelInfoBackground = null;
+    
+    /**
+     * Width of a space in {@link #levelInfoFont} used as information lines' horizontal offset.
+     */
+    protected int levelInfoSpaceWidth = 0;
+    
+    /**
+     * Text layout of level's name label, it's created again only if the level is changed.
+     */
+    protected TextLayout levelNameLayout = null;
+    
+    /**
+     * Level {@link #levelNameLayout} is created for.
+     */
+    protected Level levelNameLayoutLevel = null;
+    
+    /**
+     * Level's index {@link #levelNameLayout} is created for.
+     */
+    protected int levelNameLayoutIndex = -1;
+    
+    /**
+     * Text layout of moves and pushes counts' label, it's created again only if a count is changed.
+     */
+    protected TextLayout levelCountLayout = null;
+    
+    /**
+     * Moves count {@link #levelCountLayout} is created for.
+     */
+    protected int levelCountLayoutMoves = -1;
+    
+    /**
+     * Pushes count {@link #levelCountLayout} is created for.
+     */
+    protected int levelCountLayoutPushes = -1;
+    
+    /**
+     * Text layout of level time's label, it's created again only if the time is changed.
+     */
+    protected TextLayout levelTimeLayout = null;
+    
+    /**
+     * Level's time in seconds {@link #levelTimeLayout} is created for.
+     */
+    protected int levelTimeLayoutSeconds = -1;
+    
+    /**
+     * Width of {@link #levelTimeLayout}'s label.
+     */
+    protected int levelTimeLayoutWidth = 0;
+    
+    /**
+     * Canvas the game loop presents frames on in active rendering mode,
+     * {@code null} in passive mode.
+     * 
+     * @see #setActiveRendering(boolean)
+     */
+    protected ActiveRenderingCanvas activeRenderingCanvas = null;
+    
+    /**
+     * Canvas of active rendering mode.
+     * 
+     * Canvas' buffer strategy keeps back buffers in accelerated (volatile) images
+     * when the platform supports them. The canvas presents a frame when it's to be repainted
+     * and passes mouse events to the game so game's mouse listeners keep working.
+     */
+    protected class ActiveRenderingCanvas extends Canvas {
+        
+        /**
+         * Serialization's version of the canvas.
+         */
+        private static final long serialVersionUID = 1L;
+        
+        /**
+         * Lock of frames' presentation which is done by both game's loop and event dispatch thread.
+         */
+        protected final Object frameLock = new Object();
+        
+        /**
+         * Creates active rendering's canvas.
+         */
+        public ActiveRenderingCanvas() {
+            
+            super();
+            
+            // Keyboard focus is left to game's window
+            setFocusable(false);
+            enableEvents(AWTEvent.MOUSE_EVENT_MASK | AWTEvent.MOUSE_MOTION_EVENT_MASK);
+        }
+        
+        /**
+         * {@inheritDoc}
+         * 
+         * Canvas' background is not cleared since a frame covers the whole canvas.
+         */
+        @Override
+        public void update(Graphics g) {
+            
+            paint(g);
+        }
+        
+        /**
+         * {@inheritDoc}
+         * 
+         * The canvas is painted by presenting a frame.
+         */
+        @Override
+        public void paint(Graphics g) {
+            
+            presentFrame();
+        }
+        
+        /**
+         * Passes mouse event to the game.
+         * 
+         * @param e
+         *      Mouse event.
+         */
+        @Override
+        protected void processMouseEvent(MouseEvent e) {
+            
+            Game.this.dispatchEvent(SwingUtilities.convertMouseEvent(this, e, Game.this));
+        }
+        
+        /**
+         * Passes mouse motion event to the game.
+         * 
+         * @param e
+         *      Mouse motion event.
+         */
+        @Override
+        protected void processMouseMotionEvent(MouseEvent e) {
+            
+            Game.this.dispatchEvent(SwingUtilities.convertMouseEvent(this, e, Game.this));
+        }
+    }
+    
     /**
      * Game's simple constructor.
      * 
@@ -332,6 +591,10 @@ public class Game extends JPanel implements Runnable {
         
         // Setting field's background color
         setBackground(gameGraphics.getBackground());
+        
+        // Choosing rendering mode
+        setActiveRendering(Configuration.parseBooleanOption(gameConfiguration.getOption(Configuration.OPTION_ACTIVE_RENDERING,
+                Configuration.DEFAULT_OPTION_ACTIVE_RENDERING), Configuration.DEFAULT_OPTION_ACTIVE_RENDERING));
     }
    
     /**
@@ -548,6 +811,9 @@ public class Game extends JPanel implements Runnable {
         boxAnimCurrY = 0.0;
         boxAnimDeltaX = 0.0;
         boxAnimDeltaY = 0.0;
+        isLevelDeadlocked = gameLevel.isDeadlocked();
+        selectedBoxLine = -1;
+        selectedBoxColumn = -1;
         
         // Starting game loop thread
         setGameState(GameState.PLAY);
@@ -742,8 +1008,11 @@ public class Game extends JPanel implements Runnable {
         
         int oldMovesCount = getLevelsSet().getCurrentLevel().getMovesCount();
         int newMovesCount = gameLevel.takeBack(takeBackMovesCount);
-        if (oldMovesCount != newMovesCount)
+        if (oldMovesCount != newMovesCount) {
+            
             firePropertyChange(MOVES_COUNT, oldMovesCount, newMovesCount);
+            updateDeadlockState(gameLevel);
+        }
         repaint();
         return newMovesCount;
     }
@@ -796,12 +1065,115 @@ public class Game extends JPanel implements Runnable {
         
         int oldMovesCount = getLevelsSet().getCurrentLevel().getMovesCount();
         int newMovesCount = gameLevel.repeatMoves(repeatMovesCount);
-        if (oldMovesCount != newMovesCount)
+        if (oldMovesCount != newMovesCount) {
+            
             firePropertyChange(MOVES_COUNT, oldMovesCount, newMovesCount);
+            updateDeadlockState(gameLevel);
+        }
         repaint();
         return newMovesCount;
     }
     
+    /**
+     * Walks the worker to specified position of current game level by the shortest path.
+     * 
+     * The walk is performed at once without animation.
+     * 
+     * @param line
+     *      Destination's line index.
+     * @param column
+     *      Destination's column index.
+     * @return 
+     *      Overall count of performed moves after the walk or {@code -1}
+     *      if the walk cannot be performed for some reasons.
+     * @see #pushBoxTo(int, int, int, int)
+     * @see Level#moveWorkerTo(int, int)
+     */
+    public int moveWorkerTo(int line, int column) {
+        
+        // Checking whether game is in play state
+        if (!gameState.equals(GameState.PLAY))
+            return -1;
+        
+        // Retrieving a reference to current game level
+        Level gameLevel = levelsSet.getCurrentLevel();
+        if (gameLevel == null)
+            return -1;
+        
+        // Preventing from walking when the worker is moving
+        if (!isWorkerIdle)
+            return -1;
+        
+        int oldMovesCount = gameLevel.getMovesCount();
+        int newMovesCount = gameLevel.moveWorkerTo(line, column);
+        if (newMovesCount >= 0 && oldMovesCount != newMovesCount) {
+            
+            firePropertyChange(MOVES_COUNT, oldMovesCount, newMovesCount);
+            repaint();
+        }
+        return newMovesCount;
+    }
+    
+    /**
+     * Pushes a box of current game level to specified position by the least pushes count.
+     * 
+     * The pushes are performed at once without animation.
+     * 
+     * @param boxLine
+     *      Box' line index.
+     * @param boxColumn
+     *      Box' column index.
+     * @param line
+     *      Destination's line index.
+     * @param column
+     *      Destination's column index.
+     * @return 
+     *      Overall count of performed moves after the pushes or {@code -1}
+     *      if the pushes cannot be performed for some reasons.
+     * @see #moveWorkerTo(int, int)
+     * @see Level#pushBoxTo(int, int, int, int)
+     */
+    public int pushBoxTo(int boxLine, int boxColumn, int line, int column) {
+        
+        // Checking whether game is in play state
+        if (!gameState.equals(GameState.PLAY))
+            return -1;
+        
+        // Retrieving a reference to current game level
+        Level gameLevel = levelsSet.getCurrentLevel();
+        if (gameLevel == null)
+            return -1;
+        
+        // Preventing from pushing when the worker is moving
+        if (!isWorkerIdle)
+            return -1;
+        
+        int oldMovesCount = gameLevel.getMovesCount();
+        int newMovesCount = gameLevel.pushBoxTo(boxLine, boxColumn, line, column);
+        if (newMovesCount >= 0 && oldMovesCount != newMovesCount) {
+            
+            firePropertyChange(MOVES_COUNT, oldMovesCount, newMovesCount);
+            updateDeadlockState(gameLevel);
+            repaint();
+        }
+        return newMovesCount;
+    }
+    
+    /**
+     * Fires {@link #DEADLOCK} property change if level's deadlock state has been changed.
+     * 
+     * @param gameLevel
+     *      A reference to current game level.
+     * @see Level#isDeadlocked()
+     */
+    protected void updateDeadlockState(Level gameLevel) {
+        
+        boolean wasLevelDeadlocked = isLevelDeadlocked;
+        isLevelDeadlocked = gameLevel.isDeadlocked();
+        if (wasLevelDeadlocked != isLevelDeadlocked)
+            firePropertyChange(DEADLOCK, wasLevelDeadlocked, isLevelDeadlocked);
+    }
+    
     /**
      * Sets worker's horizontal shift to the left.
      * 
@@ -928,6 +1300,69 @@ public class Game extends JPanel implements Runnable {
         this.displayLevelInfo = displayLevelInfo;
     }
     
+    /**
+     * Highlights a box of current game level as selected.
+     * 
+     * The highlight is painted only while specified cell contains a box
+     * and is removed when a level is started.
+     * 
+     * @param line
+     *      Box' line index or {@code -1} to remove the highlight.
+     * @param column
+     *      Box' column index or {@code -1} to remove the highlight.
+     * @see #getSelectedBoxLine()
+     * @see #getSelectedBoxColumn()
+     */
+    public void setSelectedBox(int line, int column) {
+        
+        if (line < 0 || column < 0) {
+            
+            line = -1;
+            column = -1;
+        }
+        if (line == selectedBoxLine && column == selectedBoxColumn)
+            return;
+        
+        // Repainting previously and newly selected cells only
+        Dimension spriteDimension = gameGraphics.getSpriteDimension();
+        if (selectedBoxLine >= 0) {
+            
+            repaint(0, selectedBoxColumn * spriteDimension.width, selectedBoxLine * spriteDimension.height,
+                    spriteDimension.width, spriteDimension.height);
+        }
+        selectedBoxLine = line;
+        selectedBoxColumn = column;
+        if (selectedBoxLine >= 0) {
+            
+            repaint(0, selectedBoxColumn * spriteDimension.width, selectedBoxLine * spriteDimension.height,
+                    spriteDimension.width, spriteDimension.height);
+        }
+    }
+    
+    /**
+     * Retrieves line index of the box highlighted as selected.
+     * 
+     * @return
+     *      Box' line index or {@code -1} if no box is selected.
+     * @see #setSelectedBox(int, int)
+     */
+    public int getSelectedBoxLine() {
+        
+        return selectedBoxLine;
+    }
+    
+    /**
+     * Retrieves column index of the box highlighted as selected.
+     * 
+     * @return
+     *      Box' column index or {@code -1} if no box is selected.
+     * @see #setSelectedBox(int, int)
+     */
+    public int getSelectedBoxColumn() {
+        
+        return selectedBoxColumn;
+    }
+    
     /**
      * Retrieves current level's elapsed time in milliseconds.
      * 
@@ -973,13 +1408,40 @@ public class Game extends JPanel implements Runnable {
 
         super.paint(g);
 
-        Graphics2D g2d = (Graphics2D)g;
+        // The panel is covered by the canvas in active rendering mode
+        if (activeRenderingCanvas != null)
+            return;
         
-        int fontSize = (int)((double)gameGraphics.getSpriteDimension().width / 2) + 4;
-        Font gameFont = new Font("Monospaced", Font.BOLD, fontSize);
+        paintGame((Graphics2D)g);
+        Toolkit.getDefaultToolkit().sync();
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * In active rendering mode the request is passed to the canvas.
+     */
+    @Override
+    public void repaint(long tm, int x, int y, int width, int height) {
+        
+        Canvas canvas = activeRenderingCanvas;
+        if (canvas != null)
+            canvas.repaint(tm, x, y, width, height);
+        else
+            super.repaint(tm, x, y, width, height);
+    }
+    
+    /**
+     * Paints game's play field and level specific information.
+     * 
+     * @param g2d
+     *      Graphics to paint with, the background is expected to be cleared already.
+     * @see #paint(java.awt.Graphics)
+     * @see #presentFrame()
+     */
+    protected void paintGame(Graphics2D g2d) {
         
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        FontMetrics fontMetrics = g2d.getFontMetrics(gameFont);
         
         // Retrieving a reference to current game level
         Level gameLevel = levelsSet == null ? null : levelsSet.getCurrentLevel();
@@ -1007,42 +1469,39 @@ public class Game extends JPanel implements Runnable {
             // Retrieving sprites' dimension
             Dimension spriteDimension = gameGraphics.getSpriteDimension();
             
-            // Drawing game level's current state
-            for (int lineIndex = 0; lineIndex < maximalLevelSize.getHeight(); lineIndex++) {
-
-                for (int columnIndex = 0; columnIndex < maximalLevelSize.getWidth(); columnIndex++) {
-
-                    Character levelItem = gameLevel.getItemAt(lineIndex, columnIndex);
-                    Image levelItemSprite = null;
-
-                    if (levelItem.equals(Level.LEVEL_ITEM_GOAL)) {
-
-                        levelItemSprite = gameGraphics.getGoalSprite();
-                    }
-                    else if (levelItem.equals(Level.LEVEL_ITEM_BOX)) {
-
-                        if (!isWorkerIdle && boxAnimDestX == columnIndex && boxAnimDestY == lineIndex)
-                            levelItemSprite = null;
-                        else
-                            levelItemSprite = gameGraphics.getBoxSprite();
-                    }
-                    else if (levelItem.equals(Level.LEVEL_ITEM_BOX_ON_GOAL)) {
-
-                        if (!isWorkerIdle && boxAnimDestX == columnIndex && boxAnimDestY == lineIndex)
-                            levelItemSprite = gameGraphics.getGoalSprite();
-                        else
-                            levelItemSprite = gameGraphics.getBoxOnGoalSprite();
-                    }
-                    else if(levelItem.equals(Level.LEVEL_ITEM_BRICK)) {
-
-                        levelItemSprite = gameGraphics.getBrickSprite();
-                    }
-
-                    if (levelItemSprite != null) {
-
-                        g2d.drawImage(levelItemSprite, columnIndex * spriteDimension.width, lineIndex * spriteDimension.height, this);
-                    }
-                }
+            // Drawing static items at once
+            g2d.drawImage(getBackgroundLayer(gameLevel), 0, 0, this);
+            
+            // Drawing boxes except the one being moved, a goal under it is drawn already
+            int maximalLevelWidth = maximalLevelSize.getWidth();
+            int boxesCount = gameLevel.getBoxesPositions(boxesPositions);
+            for (int boxIndex = 0; boxIndex < boxesCount; boxIndex++) {
+                
+                int lineIndex = boxesPositions[boxIndex] / maximalLevelWidth;
+                int columnIndex = boxesPositions[boxIndex] % maximalLevelWidth;
+                if (!isWorkerIdle && boxAnimDestX == columnIndex && boxAnimDestY == lineIndex)
+                    continue;
+                
+                Image levelItemSprite = gameLevel.getItemCodeAt(lineIndex, columnIndex) == LevelBoard.ITEM_BOX_ON_GOAL ?
+                        gameGraphics.getBoxOnGoalSprite() : gameGraphics.getBoxSprite();
+                if (levelItemSprite != null)
+                    g2d.drawImage(levelItemSprite, columnIndex * spriteDimension.width, lineIndex * spriteDimension.height, this);
+            }
+            
+            // Framing selected box unless it has been moved meanwhile
+            int boxLine = selectedBoxLine;
+            int boxColumn = selectedBoxColumn;
+            byte selectedItem = boxLine >= 0 && isWorkerIdle ? gameLevel.getItemCodeAt(boxLine, boxColumn) : -1;
+            if (selectedItem > 0 && (selectedItem & LevelBoard.FLAG_BOX) != 0) {
+                
+                BasicStroke frameStroke = getSelectedBoxStroke(spriteDimension);
+                int frameWidth = (int)frameStroke.getLineWidth();
+                Stroke stroke = g2d.getStroke();
+                g2d.setColor(SELECTED_BOX_COLOR);
+                g2d.setStroke(frameStroke);
+                g2d.drawRect(boxColumn * spriteDimension.width + frameWidth / 2, boxLine * spriteDimension.height + frameWidth / 2,
+                        spriteDimension.width - frameWidth, spriteDimension.height - frameWidth);
+                g2d.setStroke(stroke);
             }
 
             // Drawing the worker
@@ -1081,77 +1540,365 @@ public class Game extends JPanel implements Runnable {
         if (displayLevelInfo && (gameState == GameState.INTRODUCTION || gameState == GameState.PLAY ||
                 gameState == GameState.COMPLETED) && gameLevel != null) {
             
+            // Text layouts are reused while rendering context is the same
+            validateLevelInfoLayouts(g2d);
+            
             // Defining information lines' offsets
-            int infoLineHorizontalOffset = fontMetrics.stringWidth(" ");
+            int infoLineHorizontalOffset = levelInfoSpaceWidth;
             int topInfoLineOffset = gameGraphics.getSpriteDimension().height -
-                    (gameGraphics.getSpriteDimension().height - gameFont.getSize()) / 2 - 1;
+                    (gameGraphics.getSpriteDimension().height - levelInfoFont.getSize()) / 2 - 1;
             int bottomInfoLineOffset = topInfoLineOffset +
                     gameGraphics.getSpriteDimension().height * (gameLevel.getMaximalHeight() - 1);
             
             // Printing level information
-            String levelNameTitle = "Level: ";
-            String gameLevelName = gameLevel.getName();
-            String levelNameText = String.format("%03d", levelsSet.getCurrentLevelIndex() + 1);
-            if (levelsSet != null && !levelsSet.getName().isEmpty()) {
-
-                if (gameLevelName != null && !gameLevelName.isEmpty())
-                    levelNameText += String.format(" (\"%s\" of %s)", gameLevelName, levelsSet.getName());
-                else
-                    levelNameText += String.format(" (%s)", levelsSet.getName());
-            }
-            else if (gameLevelName != null && !gameLevelName.isEmpty())
-                levelNameText += String.format(" (\"%s\")", gameLevelName);
-            String levelNameLabel = String.format(" %s%s ", levelNameTitle, levelNameText);
-            AttributedString levelNameString = new AttributedString(levelNameLabel);
-            levelNameString.addAttribute(TextAttribute.FONT, gameFont);
-            levelNameString.addAttribute(TextAttribute.FOREGROUND, new Color(240, 240, 240));
-            levelNameString.addAttribute(TextAttribute.FOREGROUND, new Color(255, 220, 0), 0, levelNameTitle.length());
-            levelNameString.addAttribute(TextAttribute.BACKGROUND, gameGraphics.getBackground());
-            g2d.drawString(levelNameString.getIterator(), infoLineHorizontalOffset, bottomInfoLineOffset);
+            getLevelNameLayout(gameLevel).draw(g2d, infoLineHorizontalOffset, bottomInfoLineOffset);
             
-            if ((gameState == GameState.PLAY || gameState == GameState.COMPLETED) && gameLevel != null) {
-                
-                // Retrieving level's maximal width
-                int maximalLevelWidth = gameLevel.getMaximalWidth();
+            if (gameState == GameState.PLAY || gameState == GameState.COMPLETED) {
                 
                 // Printing worker's moves count and pushes count
-                String movesCountTitle = "Moves:";
-                String pushesCountTitle = "Pushes:";
-                String movesCountText = String.format("%05d", gameLevel.getMovesCount());
-                String pushesCountText = String.format("%05d", gameLevel.getPushesCount());
-                String countLabel = String.format(" %s %s %s %s",
-                        movesCountTitle, movesCountText, pushesCountTitle, pushesCountText);
-                AttributedString countString = new AttributedString(countLabel);
-                countString.addAttribute(TextAttribute.FONT, gameFont);
-                countString.addAttribute(TextAttribute.FOREGROUND, new Color(240, 240, 240));
-                countString.addAttribute(TextAttribute.FOREGROUND, new Color(220, 190, 0),
-                        countLabel.indexOf(movesCountTitle), countLabel.indexOf(movesCountTitle) + movesCountTitle.length());
-                countString.addAttribute(TextAttribute.FOREGROUND, new Color(220, 190, 0),
-                        countLabel.indexOf(pushesCountTitle), countLabel.indexOf(pushesCountTitle) + pushesCountTitle.length());
-                countString.addAttribute(TextAttribute.BACKGROUND, gameGraphics.getBackground());
-                g2d.drawString(countString.getIterator(), infoLineHorizontalOffset, topInfoLineOffset);
+                getLevelCountLayout(gameLevel.getMovesCount(), gameLevel.getPushesCount()).draw(g2d,
+                        infoLineHorizontalOffset, topInfoLineOffset);
                 
                 // Printing level's elapsed time
-                String levelTimeTitle = "Time: ";
-                int levelTimeSeconds = levelTime % 60;
-                int levelTimeMinutes = ((levelTime - levelTimeSeconds) / 60) % 60;
-                int levelTimeHours = (levelTime - levelTimeSeconds - levelTimeMinutes * 60) / (60 * 60);
-                String levelTimeText = String.format("%02d:%02d:%02d", levelTimeHours, levelTimeMinutes, levelTimeSeconds);
-                String levelTimeLabel = String.format(" %s%s ", levelTimeTitle, levelTimeText);
-                AttributedString levelTimeString = new AttributedString(levelTimeLabel);
-                levelTimeString.addAttribute(TextAttribute.FONT, gameFont);
-                levelTimeString.addAttribute(TextAttribute.FOREGROUND, new Color(240, 240, 240));
-                levelTimeString.addAttribute(TextAttribute.FOREGROUND, new Color(50, 230, 0), 0, levelTimeTitle.length());
-                levelTimeString.addAttribute(TextAttribute.BACKGROUND, gameGraphics.getBackground());
-                int levelTimeStringLeftOffset = gameGraphics.getSpriteDimension().width * maximalLevelWidth -
-                        fontMetrics.stringWidth(levelTimeLabel) - infoLineHorizontalOffset;
-                g2d.drawString(levelTimeString.getIterator(), levelTimeStringLeftOffset, topInfoLineOffset);
+                TextLayout timeLayout = getLevelTimeLayout(levelTime);
+                int levelTimeStringLeftOffset = gameGraphics.getSpriteDimension().width * gameLevel.getMaximalWidth() -
+                        levelTimeLayoutWidth - infoLineHorizontalOffset;
+                timeLayout.draw(g2d, levelTimeStringLeftOffset, topInfoLineOffset);
             }
         }
+    }
+    
+    /**
+     * Retrieves stroke of selected box' frame suiting sprites' size.
+     * 
+     * @param spriteDimension
+     *      Sprites' dimension.
+     * @return
+     *      Frame's stroke.
+     * @see #selectedBoxStroke
+     */
+    protected BasicStroke getSelectedBoxStroke(Dimension spriteDimension) {
+        
+        // The frame's width is the only stroke's property depending on sprites' size
+        int frameWidth = Math.max(2, spriteDimension.width / 16);
+        BasicStroke frameStroke = selectedBoxStroke;
+        if (frameStroke == null || frameStroke.getLineWidth() != frameWidth) {
+            
+            frameStroke = new BasicStroke(frameWidth);
+            selectedBoxStroke = frameStroke;
+        }
+        return frameStroke;
+    }
+    
+    /**
+     * Checks whether level information's font and text layouts suit graphics' rendering context.
+     * 
+     * The font is created again and the layouts are dropped if sprites' size,
+     * graphics' rendering context or game's background has been changed.
+     * 
+     * @param g2d
+     *      Graphics level information is to be painted with.
+     */
+    protected void validateLevelInfoLayouts(Graphics2D g2d) {
+        
+        int fontSize = (int)((double)gameGraphics.getSpriteDimension().width / 2) + 4;
+        FontRenderContext fontRenderContext = g2d.getFontRenderContext();
+        Color background = gameGraphics.getBackground();
+        if (levelInfoFont != null && levelInfoFont.getSize() == fontSize &&
+                fontRenderContext.equals(levelInfoFontRenderContext) && background.equals(levelInfoBackground)) {
+            
+            return;
+        }
+        
+        levelInfoFont = new Font("Monospaced", Font.BOLD, fontSize);
+        levelInfoFontMetrics = g2d.getFontMetrics(levelInfoFont);
+        levelInfoFontRenderContext = fontRenderContext;
+        levelInfoBackground = background;
+        levelInfoSpaceWidth = levelInfoFontMetrics.stringWidth(" ");
+        levelNameLayout = null;
+        levelCountLayout = null;
+        levelTimeLayout = null;
+    }
+    
+    /**
+     * Creates a text layout of level information's label.
+     * 
+     * @param label
+     *      Label's text.
+     * @param titleColor
+     *      Color of label's titles.
+     * @param titles
+     *      Titles contained by the label.
+     * @return
+     *      Label's text layout.
+     */
+    protected TextLayout createLevelInfoLayout(String label, Color titleColor, String... titles) {
+        
+        AttributedString labelString = new AttributedString(label);
+        labelString.addAttribute(TextAttribute.FONT, levelInfoFont);
+        labelString.addAttribute(TextAttribute.FOREGROUND, LEVEL_INFO_TEXT_COLOR);
+        for (String title : titles) {
+            
+            int titleIndex = label.indexOf(title);
+            labelString.addAttribute(TextAttribute.FOREGROUND, titleColor, titleIndex, titleIndex + title.length());
+        }
+        labelString.addAttribute(TextAttribute.BACKGROUND, levelInfoBackground);
+        return new TextLayout(labelString.getIterator(), levelInfoFontRenderContext);
+    }
+    
+    /**
+     * Retrieves a text layout of level's name label.
+     * 
+     * @param gameLevel
+     *      A reference to current game level.
+     * @return
+     *      Label's text layout.
+     */
+    protected TextLayout getLevelNameLayout(Level gameLevel) {
+        
+        int levelIndex = levelsSet.getCurrentLevelIndex();
+        if (levelNameLayout != null && levelNameLayoutLevel == gameLevel && levelNameLayoutIndex == levelIndex)
+            return levelNameLayout;
+        
+        String levelNameTitle = "Level: ";
+        String gameLevelName = gameLevel.getName();
+        String levelNameText = String.format("%03d", levelIndex + 1);
+        if (!levelsSet.getName().isEmpty()) {
+
+            if (gameLevelName != null && !gameLevelName.isEmpty())
+                levelNameText += String.format(" (\"%s\" of %s)", gameLevelName, levelsSet.getName());
+            else
+                levelNameText += String.format(" (%s)", levelsSet.getName());
+        }
+        else if (gameLevelName != null && !gameLevelName.isEmpty())
+            levelNameText += String.format(" (\"%s\")", gameLevelName);
+        String levelNameLabel = String.format(" %s%s ", levelNameTitle, levelNameText);
+        
+        levelNameLayout = createLevelInfoLayout(levelNameLabel, LEVEL_NAME_TITLE_COLOR, levelNameTitle);
+        levelNameLayoutLevel = gameLevel;
+        levelNameLayoutIndex = levelIndex;
+        return levelNameLayout;
+    }
+    
+    /**
+     * Retrieves a text layout of moves and pushes counts' label.
+     * 
+     * @param movesCount
+     *      Worker's moves count.
+     * @param pushesCount
+     *      Worker's pushes count.
+     * @return
+     *      Label's text layout.
+     */
+    protected TextLayout getLevelCountLayout(int movesCount, int pushesCount) {
+        
+        if (levelCountLayout != null && levelCountLayoutMoves == movesCount && levelCountLayoutPushes == pushesCount)
+            return levelCountLayout;
+        
+        String movesCountTitle = "Moves:";
+        String pushesCountTitle = "Pushes:";
+        String countLabel = String.format(" %s %05d %s %05d", movesCountTitle, movesCount, pushesCountTitle, pushesCount);
+        
+        levelCountLayout = createLevelInfoLayout(countLabel, LEVEL_COUNT_TITLE_COLOR, movesCountTitle, pushesCountTitle);
+        levelCountLayoutMoves = movesCount;
+        levelCountLayoutPushes = pushesCount;
+        return levelCountLayout;
+    }
+    
+    /**
+     * Retrieves a text layout of level time's label.
+     * 
+     * Label's width is stored to {@link #levelTimeLayoutWidth}.
+     * 
+     * @param levelTime
+     *      Level's elapsed time in seconds.
+     * @return
+     *      Label's text layout.
+     */
+    protected TextLayout getLevelTimeLayout(int levelTime) {
+        
+        if (levelTimeLayout != null && levelTimeLayoutSeconds == levelTime)
+            return levelTimeLayout;
+        
+        String levelTimeTitle = "Time: ";
+        int levelTimeSeconds = levelTime % 60;
+        int levelTimeMinutes = ((levelTime - levelTimeSeconds) / 60) % 60;
+        int levelTimeHours = (levelTime - levelTimeSeconds - levelTimeMinutes * 60) / (60 * 60);
+        String levelTimeLabel = String.format(" %s%02d:%02d:%02d ", levelTimeTitle,
+                levelTimeHours, levelTimeMinutes, levelTimeSeconds);
+        
+        levelTimeLayout = createLevelInfoLayout(levelTimeLabel, LEVEL_TIME_TITLE_COLOR, levelTimeTitle);
+        levelTimeLayoutSeconds = levelTime;
+        levelTimeLayoutWidth = levelInfoFontMetrics.stringWidth(levelTimeLabel);
+        return levelTimeLayout;
+    }
+    
+    /**
+     * Sets whether the play field is rendered actively.
+     * 
+     * In active rendering mode the game loop presents frames synchronously
+     * by {@link #presentFrame()} instead of queuing repaint requests
+     * to event dispatch thread. This method must be invoked from event dispatch thread.
+     * 
+     * @param activeRendering
+     *      Must be {@code true} to render actively, {@code false} to render by Swing's repaint requests.
+     * @see #isActiveRendering()
+     */
+    public final void setActiveRendering(boolean activeRendering) {
+        
+        if (activeRendering == (activeRenderingCanvas != null))
+            return;
+        
+        if (activeRendering) {
+            
+            activeRenderingCanvas = new ActiveRenderingCanvas();
+            setLayout(new BorderLayout());
+            add(activeRenderingCanvas, BorderLayout.CENTER);
+        }
+        else {
+            
+            // Canvas' buffer strategy is disposed along with canvas' peer
+            remove(activeRenderingCanvas);
+            activeRenderingCanvas = null;
+        }
+        
+        revalidate();
+        repaint();
+    }
+    
+    /**
+     * Checks whether the play field is rendered actively.
+     * 
+     * @return
+     *      {@code true} in active rendering mode, {@code false} otherwise.
+     * @see #setActiveRendering(boolean)
+     */
+    public boolean isActiveRendering() {
+        
+        return activeRenderingCanvas != null;
+    }
+    
+    /**
+     * Renders and shows a whole frame on the canvas of active rendering mode.
+     * 
+     * The frame is rendered again if canvas' back buffer has been lost meanwhile.
+     * Nothing is done in passive rendering mode or if the canvas is not displayable yet.
+     */
+    protected void presentFrame() {
+        
+        ActiveRenderingCanvas canvas = activeRenderingCanvas;
+        if (canvas == null || !canvas.isDisplayable() || canvas.getWidth() <= 0 || canvas.getHeight() <= 0)
+            return;
+        
+        synchronized (canvas.frameLock) {
+            
+            BufferStrategy bufferStrategy = canvas.getBufferStrategy();
+            if (bufferStrategy == null) {
+                
+                try {
+                    
+                    canvas.createBufferStrategy(2, new BufferCapabilities(new ImageCapabilities(true),
+                            new ImageCapabilities(true), null));
+                }
+                catch (AWTException ex) {
+                    
+                    canvas.createBufferStrategy(2);
+                }
+                bufferStrategy = canvas.getBufferStrategy();
+            }
+            
+            do {
+                
+                do {
+                    
+                    Graphics2D g2d = (Graphics2D)bufferStrategy.getDrawGraphics();
+                    try {
+                        
+                        g2d.setColor(getBackground());
+                        g2d.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+                        paintGame(g2d);
+                    }
+                    finally {
+                        
+                        g2d.dispose();
+                    }
+                }
+                while (bufferStrategy.contentsRestored());
+                
+                bufferStrategy.show();
+            }
+            while (bufferStrategy.contentsLost());
+        }
 
         Toolkit.getDefaultToolkit().sync();
     }
     
+    /**
+     * Retrieves pre-rendered static items of current level's play field.
+     * 
+     * The layer is rendered again only if the level, its maximal size,
+     * sprites' or tiles' size has been changed since the last call.
+     * 
+     * @param gameLevel
+     *      A reference to current game level.
+     * @return 
+     *      Layer's image.
+     */
+    protected BufferedImage getBackgroundLayer(Level gameLevel) {
+        
+        LevelSize maximalLevelSize = gameLevel.getMaximalSize();
+        Dimension spriteDimension = gameGraphics.getSpriteDimension();
+        int layerWidth = spriteDimension.width * maximalLevelSize.getWidth();
+        int layerHeight = spriteDimension.height * maximalLevelSize.getHeight();
+        if (backgroundLayer != null && backgroundLayerLevel == gameLevel &&
+                backgroundLayerSpriteSize == gameGraphics.getSpriteSize() &&
+                backgroundLayerTileSize == gameGraphics.getTileSize() &&
+                backgroundLayer.getWidth() == layerWidth && backgroundLayer.getHeight() == layerHeight) {
+            
+            return backgroundLayer;
+        }
+        
+        GraphicsConfiguration graphicsConfiguration = getGraphicsConfiguration();
+        backgroundLayer = graphicsConfiguration != null ?
+                graphicsConfiguration.createCompatibleImage(layerWidth, layerHeight) :
+                new BufferedImage(layerWidth, layerHeight, BufferedImage.TYPE_INT_RGB);
+        backgroundLayerLevel = gameLevel;
+        backgroundLayerSpriteSize = gameGraphics.getSpriteSize();
+        backgroundLayerTileSize = gameGraphics.getTileSize();
+        boxesPositions = new int[maximalLevelSize.getWidth() * maximalLevelSize.getHeight()];
+        
+        Graphics2D layerGraphics = backgroundLayer.createGraphics();
+        try {
+            
+            layerGraphics.setColor(gameGraphics.getBackground());
+            layerGraphics.fillRect(0, 0, layerWidth, layerHeight);
+            for (int lineIndex = 0; lineIndex < maximalLevelSize.getHeight(); lineIndex++) {
+                
+                for (int columnIndex = 0; columnIndex < maximalLevelSize.getWidth(); columnIndex++) {
+                    
+                    byte levelItem = gameLevel.getItemCodeAt(lineIndex, columnIndex);
+                    Image levelItemSprite = null;
+                    if (levelItem == LevelBoard.ITEM_BRICK)
+                        levelItemSprite = gameGraphics.getBrickSprite();
+                    else if (levelItem >= 0 && (levelItem & LevelBoard.FLAG_GOAL) != 0)
+                        levelItemSprite = gameGraphics.getGoalSprite();
+                    
+                    if (levelItemSprite != null) {
+                        
+                        layerGraphics.drawImage(levelItemSprite, columnIndex * spriteDimension.width,
+                                lineIndex * spriteDimension.height, null);
+                    }
+                }
+            }
+        }
+        finally {
+            
+            layerGraphics.dispose();
+        }
+        
+        return backgroundLayer;
+    }
+    
     /**
      * Implements game loop.
      * 
@@ -1178,6 +1925,21 @@ public class Game extends JPanel implements Runnable {
         
         // Retrieving a reference to current gameLevel
         Level gameLevel = levelsSet == null ? null : levelsSet.getCurrentLevel();
+        
+        // Sprites' dimension is retrieved again only if sprites' or tiles' size is changed
+        SpriteSize cycleSpriteSizeType = null;
+        int cycleTileSize = -1;
+        Dimension cycleSpriteSize = null;
+        
+        // Cells changed by the level and cells covered by animated sprites (in columns and lines)
+        Rectangle cycleDirtyCells = new Rectangle();
+        Rectangle previousMoveCells = new Rectangle();
+        Rectangle animatedCells = new Rectangle();
+        
+        // Values of the previous cycle to detect changes requiring a repaint
+        boolean cycleWorkerIdle = isWorkerIdle;
+        int cycleMovesCount = -1;
+        int cycleLevelTime = -1;
 
         while (gameState == GameState.PLAY && !Thread.interrupted()) {
             
@@ -1211,6 +1973,8 @@ public class Game extends JPanel implements Runnable {
                         // Firing level position property change
                         int movesCount = gameLevel.getMovesCount();
                         firePropertyChange(MOVES_COUNT, movesCount - 1, movesCount);
+                        if (moveInformation.getType().equals(MoveType.WORKER_AND_BOX))
+                            updateDeadlockState(gameLevel);
                         
                         // Setting animation state
                         isAnimationInProgress = true;
@@ -1303,25 +2067,59 @@ public class Game extends JPanel implements Runnable {
                 }
             }
 
-            // Repainting the play field
-            Dimension spriteSize = getGameGraphics().getSpriteDimension();
-            int repaintRectangleWidth = Math.abs(workerAnimDeltaX) > 0 ? spriteSize.width * 5: spriteSize.width * 3;
-            int repaintRectangleHeight = Math.abs(workerAnimDeltaY) > 0 ? spriteSize.height * 5 : spriteSize.height * 3;
-            int repaintX = spriteSize.width * (gameLevel.getWorkerX() - (Math.abs(workerAnimDeltaX) > 0 ? 2 : 1));
-            int repaintY = spriteSize.height * (gameLevel.getWorkerY() - (Math.abs(workerAnimDeltaY) > 0 ? 2 : 1));
-            Rectangle rectangle = new Rectangle(repaintX, repaintY, repaintRectangleWidth, repaintRectangleHeight);
-            repaint(rectangle);
+            // Repainting the play field, regions are passed by coordinates to avoid allocations per cycle
+            if (gameGraphics.getSpriteSize() != cycleSpriteSizeType || gameGraphics.getTileSize() != cycleTileSize) {
+                
+                cycleSpriteSizeType = gameGraphics.getSpriteSize();
+                cycleTileSize = gameGraphics.getTileSize();
+                cycleSpriteSize = gameGraphics.getSpriteDimension();
+            }
+            Dimension spriteSize = cycleSpriteSize;
+            
+            // Animated sprites never leave cells changed by the move being animated,
+            // previous move's cells are kept to erase its last partially moved frame
+            boolean isFieldChanged = gameLevel.takeDirtyRegion(cycleDirtyCells);
+            if (isFieldChanged) {
+                
+                animatedCells.setBounds(cycleDirtyCells);
+                if (!previousMoveCells.isEmpty())
+                    animatedCells.add(previousMoveCells);
+                previousMoveCells.setBounds(cycleDirtyCells);
+            }
+            
+            // Nothing is repainted on idle cycles
+            boolean isFieldRepaintRequired = !animatedCells.isEmpty() &&
+                    (isFieldChanged || isAnimationInProgress || isWorkerIdle != cycleWorkerIdle);
+                
+            // Level information is repainted only if it has been changed
+            int movesCount = gameLevel.getMovesCount();
+            boolean isInfoRepaintRequired = displayLevelInfo && (movesCount != cycleMovesCount || levelTime != cycleLevelTime);
+            
+            if (activeRenderingCanvas != null) {
+                
+                // Presenting a whole frame right from the loop
+                if (isFieldRepaintRequired || isInfoRepaintRequired)
+                    presentFrame();
+            }
+            else {
+                
+                if (isFieldRepaintRequired) {
+                    
+                    repaint(0, spriteSize.width * animatedCells.x, spriteSize.height * animatedCells.y,
+                            spriteSize.width * animatedCells.width, spriteSize.height * animatedCells.height);
+                }
+                if (isInfoRepaintRequired)
+                    repaint(0, 0, 0, spriteSize.width * gameLevel.getMaximalWidth(), spriteSize.height);
+            }
             
-            // Repainting level information
-            if (displayLevelInfo) {
+            if (isWorkerIdle && !isAnimationInProgress) {
                 
-                Rectangle topRectangle = new Rectangle(0, 0,
-                        spriteSize.width * gameLevel.getMaximalWidth(), spriteSize.height);
-                repaint(topRectangle);
-                Rectangle bottomRectangle = new Rectangle(0, spriteSize.height * (gameLevel.getSize().getHeight() - 1),
-                        spriteSize.width * gameLevel.getMaximalWidth(), spriteSize.height);
-                repaint(bottomRectangle);
+                animatedCells.setSize(0, 0);
+                previousMoveCells.setSize(0, 0);
             }
+            cycleWorkerIdle = isWorkerIdle;
+            cycleMovesCount = movesCount;
+            cycleLevelTime = levelTime;
                     
             if (isAnimationInProgress) {
 
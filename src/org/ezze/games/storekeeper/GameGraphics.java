@@ -2,8 +2,10 @@ package org.ezze.games.storekeeper;
 
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.Insets;
+import java.awt.RenderingHints;
 import java.awt.Toolkit;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
@@ -17,8 +19,12 @@ import org.ezze.games.storekeeper.Level.WorkerDirection;
 /**
  * Abstract class required to implement game's visual representation.
  * 
+ * Besides fixed sprite sizes {@link SpriteSize} sprites can be scaled to
+ * an arbitrary tile size set by {@link #setTileSize(int)}. Scaled sprites
+ * are created from the nearest larger sprite size once per tile size.
+ * 
  * @author Dmitriy Pushkov
- * @version 0.0.5
+ * @version 0.0.6
  */
 abstract public class GameGraphics {
 
@@ -104,6 +110,18 @@ abstract public class GameGraphics {
     protected EnumMap<SpriteSize, HashMap<String, ArrayList<Image>>> spriteImages =
             new EnumMap<SpriteSize, HashMap<String, ArrayList<Image>>>(SpriteSize.class);
     
+    /**
+     * Side of square tiles in pixels sprites are scaled to or {@code 0}
+     * if sprites of {@link #spriteSize} are used as they are.
+     */
+    protected int tileSize = 0;
+    
+    /**
+     * A hash to keep sprites scaled to arbitrary tile sizes.
+     */
+    protected HashMap<Integer, HashMap<String, ArrayList<Image>>> scaledSpriteImages =
+            new HashMap<Integer, HashMap<String, ArrayList<Image>>>();
+    
     /**
      * Game graphics' default constructor.
      * 
@@ -162,6 +180,32 @@ abstract public class GameGraphics {
         return spriteSize;
     }
     
+    /**
+     * Sets an arbitrary side of square tiles sprites are to be scaled to.
+     * 
+     * @param tileSize
+     *      Tile's side in pixels or {@code 0} to use sprites of current sprite's size as they are.
+     * @see #getTileSize()
+     * @see #determineOptimalTileSize(org.ezze.games.storekeeper.Level.LevelSize, int, int)
+     */
+    public final void setTileSize(int tileSize) {
+        
+        if (tileSize >= 0)
+            this.tileSize = tileSize;
+    }
+    
+    /**
+     * Retrieves currently set tile's side.
+     * 
+     * @return
+     *      Tile's side in pixels or {@code 0} if sprites are not scaled.
+     * @see #setTileSize(int)
+     */
+    public int getTileSize() {
+        
+        return tileSize;
+    }
+    
     /**
      * Determines maximal possible sprite size for specified level's
      * width and height and current screen's resolution.
@@ -208,6 +252,37 @@ abstract public class GameGraphics {
         return null;
     }
 
+    /**
+     * Determines maximal possible tile's side for specified level's
+     * width and height and current screen's resolution.
+     * 
+     * Unlike {@link #determineOptimalSpriteSize(org.ezze.games.storekeeper.Level.LevelSize, int, int)}
+     * the result is not limited by fixed sprite sizes so the play field can fill the screen.
+     * 
+     * @param levelSize
+     *      Level's maximal size.
+     * @param minimalFreeWidth
+     *      Additional width of a screen in pixels that must be left free.
+     * @param minimalFreeHeight
+     *      Additional height of a screen in pixels that must be left free.
+     * @return
+     *      Maximal possible tile's side in pixels or {@code 0} if the level doesn't fit the screen.
+     * @see #setTileSize(int)
+     */
+    public int determineOptimalTileSize(LevelSize levelSize, int minimalFreeWidth, int minimalFreeHeight) {
+        
+        // Checking screen resolution
+        Dimension screenDimension = Toolkit.getDefaultToolkit().getScreenSize();
+        Insets dialogInsets = new JFrame().getInsets();
+        
+        int freeWidth = screenDimension.width - dialogInsets.left - dialogInsets.right - minimalFreeWidth - 1;
+        int freeHeight = screenDimension.height - dialogInsets.top - dialogInsets.bottom - minimalFreeHeight - 1;
+        if (freeWidth <= 0 || freeHeight <= 0)
+            return 0;
+        
+        return Math.min(freeWidth / levelSize.getWidth(), freeHeight / levelSize.getHeight());
+    }
+
     /**
      * Retrieves sprite's dimension in pixels for desired sprite size.
      * 
@@ -222,10 +297,12 @@ abstract public class GameGraphics {
      * Retrieves currently set sprite's dimension in pixels.
      * 
      * @return 
-     *      Sprite dimension.
+     *      Sprite dimension, tile's dimension if tile's side is set.
      */
     public Dimension getSpriteDimension() {
         
+        if (tileSize > 0)
+            return new Dimension(tileSize, tileSize);
         return getSpriteDimension(spriteSize);
     }
     
@@ -339,8 +416,8 @@ abstract public class GameGraphics {
         ArrayList<Image> emptySpritesGroup = spriteSizeGroup.get(SPRITE_ID_EMPTY);
         if (emptySpritesGroup.isEmpty()) {
             
-            emptySpritesGroup.add(new BufferedImage(getSpriteDimension().width,
-                    getSpriteDimension().height, BufferedImage.TYPE_INT_ARGB));
+            emptySpritesGroup.add(new BufferedImage(getSpriteDimension(spriteSize).width,
+                    getSpriteDimension(spriteSize).height, BufferedImage.TYPE_INT_ARGB));
         }
         
         return emptySpritesGroup.get(0);
@@ -374,6 +451,109 @@ abstract public class GameGraphics {
      */
     abstract protected Image getSpriteFromSource(SpriteSize spriteSize, String imageID, int animationIndex);
     
+    /**
+     * Retrieves a sprite of current tile's size.
+     * 
+     * If no tile's side is set the sprite of current sprite's size is retrieved.
+     * Otherwise the sprite of the least sprite size no smaller than the tile
+     * (or of the largest one) is scaled to the tile by {@link #scaleSprite(java.awt.Image, int, int)}
+     * and is kept in {@link #scaledSpriteImages}.
+     * 
+     * @param imageID
+     *      Desired sprite's string identifier.
+     * @param animationIndex
+     *      Animation position for animated sprite or {@code 0} for static sprite.
+     * @return
+     *      Desired sprite image or empty image if desired image is not found.
+     * @see #getSprite(org.ezze.games.storekeeper.GameGraphics.SpriteSize, java.lang.String, int)
+     */
+    protected Image getTileSprite(String imageID, int animationIndex) {
+        
+        int fixedTileSize = tileSize;
+        if (fixedTileSize <= 0)
+            return getSprite(spriteSize, imageID, animationIndex);
+        if (imageID == null || animationIndex < 0)
+            return null;
+        
+        // Retrieving scaled sprite images group
+        HashMap<String, ArrayList<Image>> tileSizeGroup = scaledSpriteImages.get(fixedTileSize);
+        if (tileSizeGroup == null) {
+            
+            tileSizeGroup = new HashMap<String, ArrayList<Image>>();
+            scaledSpriteImages.put(fixedTileSize, tileSizeGroup);
+        }
+        ArrayList<Image> imageSpritesGroup = tileSizeGroup.get(imageID);
+        if (imageSpritesGroup == null) {
+            
+            imageSpritesGroup = new ArrayList<Image>();
+            tileSizeGroup.put(imageID, imageSpritesGroup);
+        }
+        while (imageSpritesGroup.size() <= animationIndex)
+            imageSpritesGroup.add(null);
+        
+        Image spriteImage = imageSpritesGroup.get(animationIndex);
+        if (spriteImage != null)
+            return spriteImage;
+        
+        // Looking for the least sprite size no smaller than the tile, sizes go from the largest one
+        SpriteSize sourceSpriteSize = SpriteSize.LARGE;
+        for (SpriteSize candidateSpriteSize : SpriteSize.values()) {
+            
+            if (getSpriteDimension(candidateSpriteSize).width >= fixedTileSize)
+                sourceSpriteSize = candidateSpriteSize;
+        }
+        
+        spriteImage = getSprite(sourceSpriteSize, imageID, animationIndex);
+        if (spriteImage == null)
+            return null;
+        if (spriteImage.getWidth(null) != fixedTileSize || spriteImage.getHeight(null) != fixedTileSize)
+            spriteImage = scaleSprite(spriteImage, fixedTileSize, fixedTileSize);
+        
+        imageSpritesGroup.set(animationIndex, spriteImage);
+        return spriteImage;
+    }
+    
+    /**
+     * Scales a sprite with interpolation.
+     * 
+     * Downscaling is done by steps of no more than a half of the size
+     * so bilinear interpolation doesn't skip source pixels,
+     * upscaling is done by bicubic interpolation at once.
+     * 
+     * @param sprite
+     *      Sprite to scale.
+     * @param width
+     *      Scaled sprite's width.
+     * @param height
+     *      Scaled sprite's height.
+     * @return
+     *      Scaled sprite.
+     */
+    protected BufferedImage scaleSprite(Image sprite, int width, int height) {
+        
+        Image stepImage = sprite;
+        int stepWidth = sprite.getWidth(null);
+        int stepHeight = sprite.getHeight(null);
+        do {
+            
+            Object interpolation = width > stepWidth || height > stepHeight ?
+                    RenderingHints.VALUE_INTERPOLATION_BICUBIC : RenderingHints.VALUE_INTERPOLATION_BILINEAR;
+            stepWidth = stepWidth > width ? Math.max(width, stepWidth / 2) : width;
+            stepHeight = stepHeight > height ? Math.max(height, stepHeight / 2) : height;
+            
+            BufferedImage scaledImage = new BufferedImage(stepWidth, stepHeight, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g2d = scaledImage.createGraphics();
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g2d.drawImage(stepImage, 0, 0, stepWidth, stepHeight, null);
+            g2d.dispose();
+            stepImage = scaledImage;
+        }
+        while (stepWidth != width || stepHeight != height);
+        
+        return (BufferedImage)stepImage;
+    }
+    
     /**
      * Retrieves game's introduction image.
      * 
@@ -410,7 +590,7 @@ abstract public class GameGraphics {
         
         int actionSpritesCount = getActionSpritesCount(direction);
         if (spriteIndex < 0 || spriteIndex >= actionSpritesCount)
-            return getSprite(spriteSize, SPRITE_ID_EMPTY);
+            return getTileSprite(SPRITE_ID_EMPTY, 0);
         
         String spriteID = null;
         if (direction.get() == Direction.LEFT)
@@ -422,7 +602,7 @@ abstract public class GameGraphics {
         else if (direction.get() == Direction.DOWN)
             spriteID = SPRITE_ID_WORKER_DOWN;
         
-        return getSprite(spriteSize, spriteID, spriteIndex);
+        return getTileSprite(spriteID, spriteIndex);
     }
     
     /**
@@ -433,7 +613,7 @@ abstract public class GameGraphics {
      */
     public Image getBrickSprite() {
         
-        return getSprite(spriteSize, SPRITE_ID_BRICK);
+        return getTileSprite(SPRITE_ID_BRICK, 0);
     }
     
     /**
@@ -444,7 +624,7 @@ abstract public class GameGraphics {
      */
     public Image getGoalSprite() {
         
-        return getSprite(spriteSize, SPRITE_ID_GOAL);
+        return getTileSprite(SPRITE_ID_GOAL, 0);
     }
     
     /**
@@ -455,7 +635,7 @@ abstract public class GameGraphics {
      */
     public Image getBoxSprite() {
         
-        return getSprite(spriteSize, SPRITE_ID_BOX);
+        return getTileSprite(SPRITE_ID_BOX, 0);
     }
     
     /**
@@ -466,6 +646,6 @@ abstract public class GameGraphics {
      */
     public Image getBoxOnGoalSprite() {
         
-        return getSprite(spriteSize, SPRITE_ID_BOX_ON_GOAL);
+        return getTileSprite(SPRITE_ID_BOX_ON_GOAL, 0);
     }
 }
\ No newline at end of file
@@ -1,14 +1,16 @@
 package org.ezze.games.storekeeper;
 
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 /**
  * This class stores an inner representation of storekeeper's level.
  * 
  * @author Dmitriy Pushkov
- * @version 0.0.7
+ * @version 0.0.16
  */
 public class Level {
     
@@ -168,27 +170,98 @@ public class Level {
          * 
          * This value is linked with {@link MoveType#NOTHING}.
          */
-        NONE,
+        NONE(0, 0),
         
         /**
          * Worker moved up.
          */
-        UP,
+        UP(0, -1),
         
         /**
          * Worker moved right.
          */
-        RIGHT,
+        RIGHT(1, 0),
         
         /**
          * Worker moved down.
          */
-        DOWN,
+        DOWN(0, 1),
         
         /**
          * Worker moved left.
          */
-        LEFT
+        LEFT(-1, 0);
+        
+        /**
+         * Worker's horizontal shift.
+         */
+        private final int deltaX;
+        
+        /**
+         * Worker's vertical shift.
+         */
+        private final int deltaY;
+        
+        /**
+         * Creates a direction with specified worker's shifts.
+         * 
+         * @param deltaX
+         *      Worker's horizontal shift.
+         * @param deltaY
+         *      Worker's vertical shift.
+         */
+        private Direction(int deltaX, int deltaY) {
+            
+            this.deltaX = deltaX;
+            this.deltaY = deltaY;
+        }
+        
+        /**
+         * Retrieves worker's horizontal shift.
+         * 
+         * @return
+         *      {@code -1}, {@code 0} or {@code 1}.
+         */
+        public int getDeltaX() {
+            
+            return deltaX;
+        }
+        
+        /**
+         * Retrieves worker's vertical shift.
+         * 
+         * @return
+         *      {@code -1}, {@code 0} or {@code 1}.
+         */
+        public int getDeltaY() {
+            
+            return deltaY;
+        }
+        
+        /**
+         * Retrieves a direction of worker's shifts.
+         * 
+         * Horizontal shift takes precedence over vertical one.
+         * 
+         * @param deltaX
+         *      Worker's horizontal shift.
+         * @param deltaY
+         *      Worker's vertical shift.
+         * @return
+         *      Shifts' direction or {@link #NONE} if both shifts are zero.
+         */
+        public static Direction valueOf(int deltaX, int deltaY) {
+            
+            if (deltaX > 0)
+                return RIGHT;
+            if (deltaX < 0)
+                return LEFT;
+            if (deltaY > 0)
+                return DOWN;
+            if (deltaY < 0)
+                return UP;
+            return NONE;
+        }
     }
     
     /**
@@ -217,9 +290,36 @@ public class Level {
     /**
      * This class accumulates the information about a move
      * performed by the worker.
+     * 
+     * Instances are immutable, so shared ones retrieved by
+     * {@link #valueOf(org.ezze.games.storekeeper.Level.MoveType, org.ezze.games.storekeeper.Level.Direction)}
+     * are used by game's rules to avoid an allocation per move.
      */
     public static class MoveInformation {
         
+        /**
+         * Information of an empty move.
+         */
+        public static final MoveInformation NOTHING = new MoveInformation();
+        
+        /**
+         * Shared instances indexed by move's type and direction.
+         */
+        private static final MoveInformation[][] INSTANCES =
+                new MoveInformation[MoveType.values().length][Direction.values().length];
+        static {
+            
+            for (MoveType moveType : MoveType.values()) {
+                
+                for (Direction moveDirection : Direction.values()) {
+                    
+                    INSTANCES[moveType.ordinal()][moveDirection.ordinal()] =
+                            moveType == MoveType.NOTHING || moveDirection == Direction.NONE ?
+                            NOTHING : new MoveInformation(moveType, moveDirection);
+                }
+            }
+        }
+        
         /**
          * Describes performed move's type.
          */
@@ -256,6 +356,24 @@ public class Level {
             this.moveDirection = moveDirection;
         }
         
+        /**
+         * Retrieves shared information of a move with specified type and direction.
+         * 
+         * @param moveType
+         *      Performed move's type.
+         * @param moveDirection
+         *      Performed move's direction.
+         * @return
+         *      Move's information, {@link #NOTHING} if either type or direction is empty.
+         */
+        public static MoveInformation valueOf(MoveType moveType, Direction moveDirection) {
+            
+            if (moveType == null || moveDirection == null)
+                return NOTHING;
+            
+            return INSTANCES[moveType.ordinal()][moveDirection.ordinal()];
+        }
+        
         /**
          * Retrieves performed move's type.
          * 
@@ -463,15 +581,15 @@ public class Level {
     protected LevelState levelState = LevelState.EMPTY;
     
     /**
-     * Stores level's initial state characters.
+     * Stores level's initial state items.
      */
-    protected ArrayList<ArrayList<Character>> levelInitial = null;
+    protected LevelBoard levelInitial = null;
     
     /**
      * Stores level's current state with empty lines and columns appended
      * to make level's size equal to {@link #maximalSize}.
      */
-    protected ArrayList<ArrayList<Character>> level = null;
+    protected LevelBoard level = null;
     
     /**
      * Keeps level's information.
@@ -499,39 +617,22 @@ public class Level {
     protected int boxesCount = 0;
     
     /**
-     * Traces boxes count placed on the goals.
-     */
-    protected int boxesOnGoalsCount = 0;
-    
-    /**
-     * Keeps current worker position's horizontal index within the range [0; {@link #getMaximalWidth()} - 1].
+     * Keeps workers count of the level.
      */
-    protected int workerX = 0;
+    protected int workersCount = 0;
     
     /**
-     * Keeps current worker position's vertical index within the range [0; {@link #getMaximalHeight()} - 1].
-     */
-    protected int workerY = 0;
-    
-    /**
-     * Represents worker's actual compound look direction.
-     */
-    protected WorkerDirection workerDirection = new WorkerDirection();
-    
-    /**
-     * Traces worker's moves count.
-     */
-    protected int movesCount = 0;
-    
-    /**
-     * Traces worker's pushes count.
+     * Keeps an engine implementing game's rules over {@link #level}.
+     * 
+     * This one is created by {@link #initialize(org.ezze.games.storekeeper.Level.LevelSize)}
+     * for playable levels only and is always accessed under level's monitor.
      */
-    protected int pushesCount = 0;
+    protected LevelEngine engine = null;
     
     /**
-     * Keeps an information about performed moves.
+     * Bounds of changed cells retrieved from {@link #engine}.
      */
-    protected ArrayList<MoveInformation> movesHistory = new ArrayList<MoveInformation>();
+    protected final int[] dirtyRegionBounds = new int[4];
     
     /**
      * Level's default constructor.
@@ -548,29 +649,26 @@ public class Level {
         if (levelLines == null || levelLines.size() < 1)
             return;
         
-        levelInitial = new ArrayList<ArrayList<Character>>();
-        int levelLineIndex = 0;
-        
         int levelWidth = 0;
         int levelHeight = levelLines.size();
+        for (String levelLine : levelLines) {
+            
+            if (levelWidth < levelLine.length())
+                levelWidth = levelLine.length();
+        }
         
+        // Shorter lines are padded by empty space
+        levelInitial = new LevelBoard(levelWidth, levelHeight);
+        int levelLineIndex = 0;
         while (levelLineIndex < levelLines.size()) {
             
             String levelLine = levelLines.get(levelLineIndex);
-            
-            if (levelWidth < levelLine.length())
-                levelWidth = levelLine.length();
-                
-            ArrayList<Character> levelRow = new ArrayList<Character>();
             for (int levelLineCharacterIndex = 0; levelLineCharacterIndex < levelLine.length(); levelLineCharacterIndex++) {
                 
-                Character levelLineCharacter = levelLine.charAt(levelLineCharacterIndex);
-                if (allowedLevelItems.contains(levelLineCharacter))
-                    levelRow.add(levelLineCharacter);
-                else
-                    levelRow.add(LEVEL_ITEM_SPACE);
+                byte levelItem = LevelBoard.toItemCode(levelLine.charAt(levelLineCharacterIndex));
+                levelInitial.setItemAt(levelItem < 0 ? LevelBoard.ITEM_SPACE : levelItem,
+                        levelLineIndex, levelLineCharacterIndex);
             }
-            levelInitial.add(levelRow);
             
             levelLineIndex++;
         }
@@ -579,6 +677,70 @@ public class Level {
         
         // Defining level's size
         size = new LevelSize(levelWidth, levelHeight);
+        
+        countItems();
+    }
+    
+    /**
+     * Creates a level from its initial items.
+     * 
+     * The board is taken by the level as is, so it must not be changed afterwards.
+     * 
+     * @param levelInitial
+     *      Level's initial items of level's real size.
+     * @param levelInfo
+     *      Level's information.
+     * @return
+     *      Level's instance which is not initialized.
+     * @see BinaryLevelsReader
+     */
+    public static Level createFromBoard(LevelBoard levelInitial, HashMap<String, Object> levelInfo) {
+        
+        Level level = new Level(null, levelInfo);
+        level.levelInfo = levelInfo;
+        if (levelInitial == null || levelInitial.getHeight() == 0)
+            return level;
+        
+        level.levelInitial = levelInitial;
+        level.size = new LevelSize(levelInitial.getWidth(), levelInitial.getHeight());
+        level.countItems();
+        return level;
+    }
+    
+    /**
+     * Counts workers, goals and boxes of level's initial items.
+     * 
+     * These counts define level's validity without initialization.
+     * 
+     * @see #getState(org.ezze.games.storekeeper.Level.LevelSize)
+     */
+    protected final void countItems() {
+        
+        workersCount = 0;
+        goalsCount = 0;
+        boxesCount = 0;
+        byte[] levelInitialItems = levelInitial.getItems();
+        for (int itemIndex = 0; itemIndex < levelInitialItems.length; itemIndex++) {
+            
+            byte levelItem = levelInitialItems[itemIndex];
+            if ((levelItem & LevelBoard.FLAG_WORKER) != 0)
+                workersCount++;
+            if ((levelItem & LevelBoard.FLAG_GOAL) != 0)
+                goalsCount++;
+            if ((levelItem & LevelBoard.FLAG_BOX) != 0)
+                boxesCount++;
+        }
+    }
+    
+    /**
+     * Retrieves level's initial items of level's real size.
+     * 
+     * @return
+     *      Level's initial items or {@code null} if level is empty.
+     */
+    LevelBoard getInitialBoard() {
+        
+        return levelInitial;
     }
     
     /**
@@ -701,147 +863,43 @@ public class Level {
      */
     synchronized public final boolean initialize(LevelSize maximalSize) {
 
-        levelState = LevelState.EMPTY;
-        
-        goalsCount = 0;
-        boxesCount = 0;
-        boxesOnGoalsCount = 0;
-        int workersCount = 0;
-        workerX = 0;
-        workerY = 0;
-        movesCount = 0;
-        pushesCount = 0;
-        movesHistory = new ArrayList<MoveInformation>();
+        engine = null;
         
         this.maximalSize = maximalSize == null ? new LevelSize(DEFAULT_LEVEL_WIDTH, DEFAULT_LEVEL_HEIGHT) : maximalSize;
         
-        if (levelInitial == null || levelInitial.isEmpty())
-            return false;        
+        // Checking whether level is valid and fits maximal level's size
+        levelState = getState(this.maximalSize);
+        if (levelState != LevelState.PLAYABLE)
+            return false;
         
-        int maxLineWidth = 0;
-        int lineIndex = 0;
-        while (lineIndex < levelInitial.size()) {
-
-            ArrayList<Character> line = levelInitial.get(lineIndex);
-            if (line.size() > maxLineWidth)
-                maxLineWidth = line.size();
-            for (int lineCharacterIndex = 0; lineCharacterIndex < line.size(); lineCharacterIndex++) {
-
-                Character lineCharacter = line.get(lineCharacterIndex);
-                if (lineCharacter.equals(LEVEL_ITEM_WORKER)) {
-
-                    workersCount++;
-                    workerX = lineCharacterIndex;
-                    workerY = lineIndex;
-                }
-                else if (lineCharacter.equals(LEVEL_ITEM_WORKER_ON_GOAL)) {
-
-                    workersCount++;
-                    goalsCount++;
-                    workerX = lineCharacterIndex;
-                    workerY = lineIndex;
-                }
-                else if (lineCharacter.equals(LEVEL_ITEM_GOAL)) {
-
-                    goalsCount++;
-                }
-                else if(lineCharacter.equals(LEVEL_ITEM_BOX)) {
-
-                    boxesCount++;
-                }
-                else if (lineCharacter.equals(LEVEL_ITEM_BOX_ON_GOAL)) {
-
-                    boxesCount++;
-                    goalsCount++;
-                    boxesOnGoalsCount++;
-                }
-            }
-
-            lineIndex++;
-        }        
+        int levelWidth = levelInitial.getWidth();
+        int levelHeight = levelInitial.getHeight();
+        byte[] levelInitialItems = levelInitial.getItems();
         
-        // Checking whether level is valid
-        if (boxesCount != goalsCount || workersCount != 1) {
-         
-            levelState = LevelState.CORRUPTED;
-            return false;
-        }
+        // Centering the level in a box of maximal level's size
+        int leadingEmptyLinesCount = (this.maximalSize.getHeight() - levelHeight) / 2;
+        int leadingEmptyCharactersCount = (this.maximalSize.getWidth() - levelWidth) / 2;
         
-        // Checking whether level fits maximal level's size
-        if (maxLineWidth > this.maximalSize.getWidth() || levelInitial.size() > this.maximalSize.getHeight()) {
+        // Cloning level's items for playing
+        level = new LevelBoard(this.maximalSize.getWidth(), this.maximalSize.getHeight());
+        byte[] levelItems = level.getItems();
+        for (int lineIndex = 0; lineIndex < levelHeight; lineIndex++) {
             
-            levelState = LevelState.OUT_OF_BOUNDS;
-            return false;
+            int levelInitialOffset = lineIndex * levelWidth;
+            int levelOffset = (lineIndex + leadingEmptyLinesCount) * level.getWidth() + leadingEmptyCharactersCount;
+            for (int columnIndex = 0; columnIndex < levelWidth; columnIndex++)
+                levelItems[levelOffset + columnIndex] = levelInitialItems[levelInitialOffset + columnIndex];
         }
         
-        // Cloning level's instance for playing
-        level = new ArrayList<ArrayList<Character>>();
-        for (ArrayList<Character> levelInitialRow : levelInitial) {
-            
-            ArrayList<Character> levelRow = new ArrayList<Character>();
-            for (Character levelInitialRowCharacter : levelInitialRow) {
-         
-                if (levelInitialRowCharacter.equals(LEVEL_ITEM_WORKER_ON_GOAL))
-                    levelRow.add(new Character(LEVEL_ITEM_GOAL));
-                else if (levelInitialRowCharacter.equals(LEVEL_ITEM_WORKER))
-                    levelRow.add(new Character(LEVEL_ITEM_SPACE));
-                else
-                    levelRow.add(new Character(levelInitialRowCharacter));
-            }
-            level.add(levelRow);
-        }        
-
-        // Level's vertical normalization
-        int leadingEmptyLinesCount = (int)(Math.floor((double)this.maximalSize.getHeight() - (double)level.size()) / 2);
-        int trailingEmptyLinesCount = this.maximalSize.getHeight() - level.size() - leadingEmptyLinesCount;
-
-        // Shifting worker's vertical location
-        workerY += leadingEmptyLinesCount;
-
-        // Adding leading empty rows
-        int leadingEmptyLineIndex = 0;
-        while (leadingEmptyLineIndex < leadingEmptyLinesCount) {
-
-            ArrayList<Character> emptyLine = new ArrayList<Character>();
-            for (int emptyLineCharacterIndex = 0; emptyLineCharacterIndex < this.maximalSize.getWidth(); emptyLineCharacterIndex++)
-                emptyLine.add(LEVEL_ITEM_SPACE);
-            level.add(0, emptyLine);
-            leadingEmptyLineIndex++;
-        }
-
-        // Adding trailing empty rows
-        int trailingEmptyLineIndex = 0;
-        while (trailingEmptyLineIndex < trailingEmptyLinesCount) {
-
-            ArrayList<Character> emptyLine = new ArrayList<Character>();
-            for (int emptyLineCharacterIndex = 0; emptyLineCharacterIndex < this.maximalSize.getWidth(); emptyLineCharacterIndex++)
-                emptyLine.add(LEVEL_ITEM_SPACE);
-            level.add(emptyLine);
-            trailingEmptyLineIndex++;
-        }
-
-        // Level's horizontal normalization
-        int leadingEmptyCharactersCount = (int)(Math.floor((double)this.maximalSize.getWidth() - (double)maxLineWidth) / 2);
-
-        // Shifting worker's horizontal location
-        workerX += leadingEmptyCharactersCount;
-
-        lineIndex = leadingEmptyLinesCount;
-        while (lineIndex < this.maximalSize.getHeight() - trailingEmptyLinesCount) {
-
-            ArrayList<Character> line = level.get(lineIndex);
-            int emptyCharacterIndex = 0;
-            while (emptyCharacterIndex < leadingEmptyCharactersCount) {
-
-                line.add(0, LEVEL_ITEM_SPACE);
-                emptyCharacterIndex++;
-            }
-
-            while (line.size() < this.maximalSize.getWidth())
-                line.add(LEVEL_ITEM_SPACE);
-
-            lineIndex++;
-        }
+        // Engine takes the worker off the board
+        engine = new LevelEngine(level);
+        
+        // Hashing positions relative to level's origin
+        engine.setZobristKeys(new ZobristKeys(level.getWidth(), level.getHeight(),
+                leadingEmptyLinesCount, leadingEmptyCharactersCount));
+        
+        // Precomputing dead squares to detect deadlocks after each push
+        engine.setDeadlockAnalyzer(new DeadlockAnalyzer(level));
         
         levelState = LevelState.PLAYABLE;
         return true;
@@ -858,6 +916,35 @@ public class Level {
         return levelState;
     }
     
+    /**
+     * Retrieves a state level will have after its initialization with specified bounds.
+     * 
+     * Level is not initialized here, its validity is known from items' counts
+     * taken by the constructor, so this one is cheap for levels which are not
+     * initialized yet.
+     * 
+     * @param maximalSize
+     *      Level's bounds.
+     * @return
+     *      Level's state.
+     * @see #initialize(org.ezze.games.storekeeper.Level.LevelSize)
+     */
+    public LevelState getState(LevelSize maximalSize) {
+        
+        if (levelInitial == null || levelInitial.getHeight() == 0)
+            return LevelState.EMPTY;
+        
+        if (boxesCount != goalsCount || workersCount != 1)
+            return LevelState.CORRUPTED;
+        
+        if (maximalSize == null)
+            maximalSize = new LevelSize(DEFAULT_LEVEL_WIDTH, DEFAULT_LEVEL_HEIGHT);
+        if (size.getWidth() > maximalSize.getWidth() || size.getHeight() > maximalSize.getHeight())
+            return LevelState.OUT_OF_BOUNDS;
+        
+        return LevelState.PLAYABLE;
+    }
+    
     /**
      * Checks whether level is playable.
      * 
@@ -869,6 +956,26 @@ public class Level {
         return levelState == LevelState.PLAYABLE;
     }
     
+    /**
+     * Creates a headless engine at level's initial position.
+     * 
+     * The engine gets its own copy of level's items of level's real size
+     * (no empty lines and columns are added) so it can be used by any single
+     * thread independently on this level's instance, e.g. to replay or validate moves
+     * in batch jobs.
+     * 
+     * @return 
+     *      New engine's instance or {@code null} if level is not playable.
+     * @see LevelEngine
+     */
+    public LevelEngine createEngine() {
+        
+        if (levelState != LevelState.PLAYABLE)
+            return null;
+        
+        return new LevelEngine(new LevelBoard(levelInitial));
+    }
+    
     /**
      * Retrieves level's name.
      * 
@@ -891,6 +998,18 @@ public class Level {
         return "";
     }
     
+    /**
+     * Retrieves level's author.
+     * 
+     * @return
+     *      Level's author or empty string if it's not determined.
+     */
+    public String getAuthor() {
+        
+        Object levelAuthor = levelInfo != null ? levelInfo.get("author") : null;
+        return levelAuthor instanceof String ? (String)levelAuthor : "";
+    }
+    
     /**
      * Retrieves current item character at specified position.
      * 
@@ -910,14 +1029,57 @@ public class Level {
         if (levelState == LevelState.EMPTY || levelState == LevelState.OUT_OF_BOUNDS)
             return null;
 
-        if (line < 0 || line >= level.size())
-            return LEVEL_ITEM_BRICK;
+        return LevelBoard.toItemCharacter(level.getItemAt(line, column));
+    }
+    
+    /**
+     * Retrieves current item's code at specified position.
+     * 
+     * This one is a primitive counterpart of {@link #getItemAt(int, int)},
+     * look at {@link LevelBoard} for possible code values.
+     * 
+     * @param line
+     *      Level's line index within the range [0; {@link #getMaximalHeight()} - 1].
+     * @param column
+     *      Level's column index within the range [0; {@link #getMaximalWidth()} - 1].
+     * @return 
+     *      Code of the item or {@code -1} if level is not initialized.
+     * @see #getItemAt(int, int)
+     */
+    public byte getItemCodeAt(int line, int column) {
         
-        ArrayList<Character> levelLine = level.get(line);
-        if (column < 0 || column >= levelLine.size())
-            return LEVEL_ITEM_BRICK;
+        LevelBoard currentLevel = level;
+        if (currentLevel == null || levelState == LevelState.EMPTY || levelState == LevelState.OUT_OF_BOUNDS)
+            return -1;
         
-        return levelLine.get(column);
+        return currentLevel.getItemAt(line, column);
+    }
+    
+    /**
+     * Retrieves positions of boxes.
+     * 
+     * A position is {@code line * width + column} where {@code width}
+     * is {@link #getMaximalWidth()}.
+     * 
+     * @param boxesPositions
+     *      Array to store positions to, it must be large enough to keep all boxes.
+     * @return 
+     *      Count of stored positions, it's {@code 0} if level is not initialized.
+     */
+    synchronized public int getBoxesPositions(int[] boxesPositions) {
+        
+        if (engine == null)
+            return 0;
+        
+        byte[] items = level.getItems();
+        int boxesCount = 0;
+        for (int position = 0; position < items.length; position++) {
+            
+            if ((items[position] & LevelBoard.FLAG_BOX) != 0)
+                boxesPositions[boxesCount++] = position;
+        }
+        
+        return boxesCount;
     }
     
     /**
@@ -941,10 +1103,41 @@ public class Level {
         if (levelState == LevelState.EMPTY || levelState == LevelState.OUT_OF_BOUNDS)
             return false;
         
-        if (!allowedLevelItems.contains(levelItem))
+        if (levelItem == null)
+            return false;
+        
+        byte levelItemCode = LevelBoard.toItemCode(levelItem);
+        if (levelItemCode < 0)
             return false;
 
-        level.get(line).set(column, levelItem);
+        if (!level.setItemAt(levelItemCode, line, column))
+            return false;
+        
+        if (engine != null)
+            engine.markDirty(line, column);
+        return true;
+    }
+    
+    /**
+     * Retrieves and resets the region of cells changed since the previous call.
+     * 
+     * Cells are changed by worker's moves, take-backs and repeats of moves
+     * and by {@link #setItemAt(java.lang.Character, int, int)}.
+     * 
+     * @param region
+     *      Rectangle to store the least region containing all changed cells to,
+     *      its coordinates are columns and lines.
+     * @return 
+     *      {@code true} if any cell has been changed, {@code false} otherwise
+     *      and {@code region} is left untouched.
+     */
+    synchronized public boolean takeDirtyRegion(Rectangle region) {
+        
+        if (engine == null || !engine.takeDirtyRegion(dirtyRegionBounds))
+            return false;
+        
+        region.setBounds(dirtyRegionBounds[0], dirtyRegionBounds[1],
+                dirtyRegionBounds[2] - dirtyRegionBounds[0] + 1, dirtyRegionBounds[3] - dirtyRegionBounds[1] + 1);
         return true;
     }
 
@@ -956,9 +1149,9 @@ public class Level {
      * @see #getWorkerY()
      * @see #getWorkerLocation()
      */
-    public int getWorkerX() {
+    synchronized public int getWorkerX() {
 
-        return workerX;
+        return engine == null ? 0 : engine.getWorkerX();
     }
 
     /**
@@ -969,9 +1162,9 @@ public class Level {
      * @see #getWorkerX()
      * @see #getWorkerLocation()
      */
-    public int getWorkerY() {
+    synchronized public int getWorkerY() {
 
-        return workerY;
+        return engine == null ? 0 : engine.getWorkerY();
     }
     
     /**
@@ -980,9 +1173,9 @@ public class Level {
      * @return 
      *      Worker's compound look direction.
      */
-    public WorkerDirection getWorkerDirection() {
+    synchronized public WorkerDirection getWorkerDirection() {
         
-        return workerDirection;
+        return engine == null ? new WorkerDirection() : engine.getWorkerDirection();
     }
 
     /**
@@ -993,9 +1186,9 @@ public class Level {
      * @see #getWorkerX()
      * @see #getWorkerY()
      */
-    public Point getWorkerLocation() {
+    synchronized public Point getWorkerLocation() {
 
-        return new Point(workerX, workerY);
+        return new Point(getWorkerX(), getWorkerY());
     }
     
     /**
@@ -1004,9 +1197,9 @@ public class Level {
      * @return 
      *      Moves count.
      */
-    public int getMovesCount() {
+    synchronized public int getMovesCount() {
 
-        return movesCount;
+        return engine == null ? 0 : engine.getMovesCount();
     }
     
     /**
@@ -1015,9 +1208,9 @@ public class Level {
      * @return
      *      Pushes count.
      */
-    public int getPushesCount() {
+    synchronized public int getPushesCount() {
         
-        return pushesCount;
+        return engine == null ? 0 : engine.getPushesCount();
     }
     
     /**
@@ -1028,45 +1221,7 @@ public class Level {
      */
     synchronized public int getMovesHistoryCount() {
         
-        return movesHistory.size();
-    }
-    
-    /**
-     * Adds a move to history and increments {@link #movesCount} and {@link #pushesCount}
-     * if it's necessary.
-     * 
-     * If one want to take level's position back he or she may use {@link #takeBack()}
-     * or {@link #takeBack(int)} methods.
-     * 
-     * @param moveInformation
-     *      An instance with information about recently performed move.
-     * @param repeatMove
-     *      Shows whether method's call was produced during move's repeat.
-     * @see #takeBack()
-     * @see #takeBack(int)
-     * @see #repeatMove()
-     * @see #repeatMoves(int)
-     */
-    synchronized protected void addMoveToHistory(MoveInformation moveInformation, boolean repeatMove) {
-        
-        if (moveInformation == null || moveInformation.getType().equals(MoveType.NOTHING) ||
-                moveInformation.getDirection().equals(Direction.NONE)) {
-
-            return;
-        }
-
-        if (!repeatMove) {
-            
-            while (movesHistory.size() > movesCount)
-                movesHistory.remove(movesHistory.size() - 1);
-        }
-
-        movesCount++;
-        if (moveInformation.getType().equals(MoveType.WORKER_AND_BOX))
-            pushesCount++;
-
-        if (!repeatMove)
-            movesHistory.add(moveInformation);
+        return engine == null ? 0 : engine.getMovesHistoryCount();
     }
     
     /**
@@ -1078,7 +1233,6 @@ public class Level {
      * @see #takeBack(int)
      * @see #repeatMove()
      * @see #repeatMoves(int)
-     * @see #addMoveToHistory(org.ezze.games.storekeeper.Level.MoveInformation, boolean)
      */
     public int takeBack() {
         
@@ -1097,95 +1251,13 @@ public class Level {
      * @see #takeBack()
      * @see #repeatMove()
      * @see #repeatMoves(int)
-     * @see #addMoveToHistory(org.ezze.games.storekeeper.Level.MoveInformation, boolean)
      */
     synchronized public int takeBack(int takeBackMovesCount) {
         
         if (levelState != LevelState.PLAYABLE || takeBackMovesCount <= 0 || takeBackMovesCount > getMovesCount())
             return -1;
 
-        int lastRemovingMoveIndex = getMovesCount() - 1;
-        int firstRemovingMoveIndex = lastRemovingMoveIndex - takeBackMovesCount + 1;
-        int removingMoveIndex = lastRemovingMoveIndex;
-        while (removingMoveIndex >= firstRemovingMoveIndex) {
-
-            // Retrieving information of a move to be removed
-            MoveInformation moveInformation = movesHistory.get(removingMoveIndex);
-            if (!moveInformation.getType().equals(MoveType.NOTHING)) {
-
-                Direction moveDirection = moveInformation.getDirection();                                
-
-                if (moveInformation.getType().equals(MoveType.WORKER_AND_BOX)) {
-
-                    // Retrieving box' current coordinates
-                    int boxX = workerX;
-                    int boxY = workerY;
-                    if (moveDirection == Direction.LEFT)
-                        boxX -= 1;
-                    else if (moveDirection == Direction.RIGHT)
-                        boxX += 1;
-                    else if (moveDirection == Direction.UP)
-                        boxY -= 1;
-                    else if (moveDirection == Direction.DOWN)
-                        boxY += 1;
-
-                    // Restoring previous item at box' current position
-                    Character levelItem = getItemAt(boxY, boxX);
-                    if (levelItem.equals(LEVEL_ITEM_BOX_ON_GOAL)) {
-                        
-                        setItemAt(LEVEL_ITEM_GOAL, boxY, boxX);
-                        boxesOnGoalsCount--;
-                    }
-                    else if (levelItem.equals(LEVEL_ITEM_BOX)) {
-                        
-                        setItemAt(LEVEL_ITEM_SPACE, boxY, boxX);
-                    }
-
-                    // Retrieving box' previous coordinates (it's where the worker right now)
-                    boxX = workerX;
-                    boxY = workerY;
-
-                    // Retrieving box' destination item
-                    levelItem = getItemAt(boxY, boxX);
-                    if (levelItem.equals(LEVEL_ITEM_GOAL)) {
-                        
-                        setItemAt(LEVEL_ITEM_BOX_ON_GOAL, boxY, boxX);
-                        boxesOnGoalsCount++;
-                    }
-                    else if (levelItem.equals(LEVEL_ITEM_SPACE)) {
-                        
-                        setItemAt(LEVEL_ITEM_BOX, boxY, boxX);
-                    }
-
-                    // Decreasing pushes count
-                    pushesCount--;
-                }
-
-                // Moving worker back
-                if (moveDirection == Direction.LEFT)
-                    workerX += 1;
-                else if (moveDirection == Direction.RIGHT)
-                    workerX -= 1;
-                else if (moveDirection == Direction.UP)
-                    workerY += 1;
-                else if (moveDirection == Direction.DOWN)
-                    workerY -= 1;
-                
-                // Restoring worker's direction
-                MoveInformation previousMoveInformation = null;
-                if (removingMoveIndex >= 1)
-                    previousMoveInformation = movesHistory.get(removingMoveIndex - 1);
-                Direction previousDirection = previousMoveInformation != null ?
-                        previousMoveInformation.getDirection() : new WorkerDirection().get();
-                workerDirection.update(previousDirection);
-                
-                movesCount--;
-            }
-
-            removingMoveIndex--;
-        }
-
-        return movesCount;
+        return engine.takeBack(takeBackMovesCount);
     }
     
     /**
@@ -1197,7 +1269,6 @@ public class Level {
      * @see #repeatMoves(int)
      * @see #takeBack()
      * @see #takeBack(int)
-     * @see #addMoveToHistory(org.ezze.games.storekeeper.Level.MoveInformation, boolean) 
      */
     public int repeatMove() {
         
@@ -1216,7 +1287,6 @@ public class Level {
      * @see #takeBack()
      * @see #takeBack(int)
      * @see #repeatMove()
-     * @see #addMoveToHistory(org.ezze.games.storekeeper.Level.MoveInformation, boolean)
      */
     synchronized public int repeatMoves(int repeatMovesCount) {
         
@@ -1226,45 +1296,198 @@ public class Level {
             return -1;
         }
 
-        int firstRepeatingMoveIndex = getMovesCount();
-        int lastRepeatingMoveIndex = firstRepeatingMoveIndex + repeatMovesCount - 1;
-        int repeatingMoveIndex = firstRepeatingMoveIndex;
-        while (repeatingMoveIndex <= lastRepeatingMoveIndex) {
-
-            // Retrieving information of a move to be repeated
-            MoveInformation moveInformation = movesHistory.get(repeatingMoveIndex);
-            if (!moveInformation.getType().equals(MoveType.NOTHING)) {
-
-                int workerDeltaX = 0;
-                int workerDeltaY = 0;
-                Direction moveDirection = moveInformation.getDirection();
-                if (moveDirection == Direction.LEFT)
-                    workerDeltaX = -1;
-                else if (moveDirection == Direction.RIGHT)
-                    workerDeltaX = 1;
-                else if (moveDirection == Direction.UP)
-                    workerDeltaY = -1;
-                else if (moveDirection == Direction.DOWN)
-                    workerDeltaY = 1;
+        return engine.repeatMoves(repeatMovesCount);
+    }
+    
+    /**
+     * Brings game level's position to the one after specified count of history moves.
+     * 
+     * The jump costs no more than {@link LevelEngine#CHECKPOINT_INTERVAL} moves
+     * whatever the distance is.
+     * 
+     * @param moveIndex
+     *      Count of history moves to be performed.
+     * @return
+     *      A number of performed moves after the jump or {@code -1}
+     *      if level is not initialized or {@code moveIndex} is out of history's range.
+     * @see #takeBack(int)
+     * @see #repeatMoves(int)
+     */
+    synchronized public int goToMove(int moveIndex) {
+        
+        if (levelState != LevelState.PLAYABLE)
+            return -1;
+        
+        return engine.goToMove(moveIndex);
+    }
 
-                move(workerDeltaX, workerDeltaY, true);
+    /**
+     * Restarts the level and loads specified moves to history so they
+     * can be played by {@link #repeatMove()} or {@link #repeatMoves(int)}.
+     * 
+     * Moves are checked against game's rules before level's restart, e.g.
+     * a solution found by {@link org.ezze.games.storekeeper.solver.Solver}
+     * can be loaded this way.
+     * 
+     * @param moves
+     *      Moves to load starting from level's initial position.
+     * @return 
+     *      {@code true} if moves have been loaded, {@code false} if level is not
+     *      playable or moves don't conform to game's rules.
+     * @see #repeatMoves(int)
+     */
+    synchronized public boolean loadMovesHistory(List<MoveInformation> moves) {
+        
+        if (levelState != LevelState.PLAYABLE || moves == null)
+            return false;
+        
+        // Checking moves on a separate engine
+        LevelEngine checkingEngine = createEngine();
+        for (MoveInformation moveInformation : moves) {
+            
+            // Empty moves are never stored in history
+            if (moveInformation == null || moveInformation.getType() == MoveType.NOTHING ||
+                    moveInformation.getDirection() == null || moveInformation.getDirection() == Direction.NONE ||
+                    checkingEngine.move(moveInformation.getDirection(), true).getType() != moveInformation.getType()) {
+                
+                return false;
             }
-
-            repeatingMoveIndex++;
         }
-
-        return movesCount;
+        
+        if (!initialize(maximalSize))
+            return false;
+        
+        engine.setFutureMoves(moves);
+        return true;
+    }
+    
+    /**
+     * Restarts the level and loads moves of LURD notation to history.
+     * 
+     * @param lurd
+     *      Moves in LURD notation starting from level's initial position.
+     * @return 
+     *      {@code true} if moves have been loaded, {@code false} if level is not
+     *      playable or moves can't be parsed or don't conform to game's rules.
+     * @see #loadMovesHistory(java.util.List)
+     * @see LurdNotation
+     */
+    public boolean loadLurd(String lurd) {
+        
+        List<MoveInformation> moves = LurdNotation.parse(lurd);
+        return moves != null && loadMovesHistory(moves);
+    }
+    
+    /**
+     * Retrieves performed moves in LURD notation.
+     * 
+     * @return 
+     *      Notation's string, it's empty if level is not initialized.
+     * @see LurdNotation
+     */
+    synchronized public String getLurd() {
+        
+        if (engine == null)
+            return "";
+        
+        int movesCount = engine.getMovesCount();
+        StringBuilder lurd = new StringBuilder(movesCount);
+        for (int moveIndex = 0; moveIndex < movesCount; moveIndex++)
+            lurd.append(LurdNotation.toCharacter(engine.getHistoryMove(moveIndex)));
+        
+        return lurd.toString();
     }
 
+    /**
+     * Walks the worker to specified position by the shortest path.
+     * 
+     * All path's moves are performed at once.
+     * 
+     * @param line
+     *      Destination's line index.
+     * @param column
+     *      Destination's column index.
+     * @return
+     *      A number of performed moves after the walk or {@code -1}
+     *      if level is not initialized or the position can't be reached.
+     * @see PathFinder#findWorkerPath(int, int)
+     */
+    synchronized public int moveWorkerTo(int line, int column) {
+        
+        if (levelState != LevelState.PLAYABLE || !engine.getPathFinder().findWorkerPath(line, column))
+            return -1;
+        
+        return engine.movePath();
+    }
+    
+    /**
+     * Pushes a box to specified position by the least pushes count.
+     * 
+     * All path's moves are performed at once.
+     * 
+     * @param boxLine
+     *      Box' line index.
+     * @param boxColumn
+     *      Box' column index.
+     * @param line
+     *      Destination's line index.
+     * @param column
+     *      Destination's column index.
+     * @return
+     *      A number of performed moves after the pushes or {@code -1}
+     *      if level is not initialized or the box can't be pushed to the position.
+     * @see PathFinder#findBoxPath(int, int, int, int)
+     */
+    synchronized public int pushBoxTo(int boxLine, int boxColumn, int line, int column) {
+        
+        if (levelState != LevelState.PLAYABLE ||
+                !engine.getPathFinder().findBoxPath(boxLine, boxColumn, line, column)) {
+            
+            return -1;
+        }
+        
+        return engine.movePath();
+    }
+    
     /**
      * Checks whether level is completed.
      *
      * @return
      *      {@code true} if level is completed, {@code false} otherwise
      */
-    public boolean isCompleted() {
+    synchronized public boolean isCompleted() {
 
-        return boxesCount == boxesOnGoalsCount;
+        return engine != null && engine.isCompleted();
+    }
+    
+    /**
+     * Retrieves a hash of current level's position.
+     * 
+     * Positions with equal boxes' locations and worker's reachable area
+     * have equal hashes, these are not affected by level's centering.
+     * 
+     * @return 
+     *      Position's hash or {@code 0} if level is not initialized.
+     * @see ZobristKeys
+     */
+    synchronized public long getPositionHash() {
+        
+        return engine != null ? engine.getPositionHash() : 0;
+    }
+    
+    /**
+     * Checks whether level can't be completed anymore from current position.
+     * 
+     * Dead squares, freeze and closed corral deadlocks are detected
+     * by {@link DeadlockAnalyzer} after each push and take-back.
+     * 
+     * @return 
+     *      {@code true} if a deadlock has been detected, {@code false} otherwise.
+     * @see #takeBack(int)
+     */
+    synchronized public boolean isDeadlocked() {
+        
+        return engine != null && engine.isDeadlocked();
     }
     
     /**
@@ -1299,81 +1522,9 @@ public class Level {
      */
     synchronized protected MoveInformation move(int workerDeltaX, int workerDeltaY, boolean repeatMove) {
 
-        if (workerDeltaX == 0 && workerDeltaY == 0)
-            return new MoveInformation(MoveType.NOTHING, Direction.NONE);
-
-        // Calculating worker's destination location
-        int workerDestinationX = workerX + workerDeltaX;
-        int workerDestinationY = workerY + workerDeltaY;
-
-        // Checking that worker's destination position is not a wall
-        Character workerDestinationLevelItem = getItemAt(workerDestinationY, workerDestinationX);
-        if (workerDestinationLevelItem.equals(LEVEL_ITEM_BRICK))
-            return new MoveInformation(MoveType.NOTHING, Direction.NONE);
-        
-        // Defining worker's move direction
-        Direction moveDirection = Direction.NONE;
-        if (workerDeltaX > 0)
-            moveDirection = Direction.RIGHT;
-        else if (workerDeltaX < 0)
-            moveDirection = Direction.LEFT;
-        else if (workerDeltaY > 0)
-            moveDirection = Direction.DOWN;
-        else if (workerDeltaY < 0)
-            moveDirection = Direction.UP;
-
-        // Checking whether worker's destination position is a box
-        if (workerDestinationLevelItem.equals(LEVEL_ITEM_BOX) || workerDestinationLevelItem.equals(LEVEL_ITEM_BOX_ON_GOAL)) {
-
-            // Looking for possibility to move the box
-            int boxDestinationX = workerDestinationX + workerDeltaX;
-            int boxDestinationY = workerDestinationY + workerDeltaY;
-
-            // Checking whether the box' destination position is not a wall or another box
-            Character boxDestinationLevelItem = getItemAt(boxDestinationY, boxDestinationX);
-            if (!boxDestinationLevelItem.equals(LEVEL_ITEM_SPACE) && !boxDestinationLevelItem.equals(LEVEL_ITEM_GOAL))
-                return new MoveInformation(MoveType.NOTHING, Direction.NONE);
-
-            // Removing the box from old location
-            if (workerDestinationLevelItem.equals(LEVEL_ITEM_BOX))
-                setItemAt(LEVEL_ITEM_SPACE, workerDestinationY, workerDestinationX);
-            else if (workerDestinationLevelItem.equals(LEVEL_ITEM_BOX_ON_GOAL)) {
-
-                setItemAt(LEVEL_ITEM_GOAL, workerDestinationY, workerDestinationX);
-                boxesOnGoalsCount--;
-            }
-
-            // Placing the box in new location
-            if (boxDestinationLevelItem.equals(LEVEL_ITEM_SPACE))
-                setItemAt(LEVEL_ITEM_BOX, boxDestinationY, boxDestinationX);
-            else if (boxDestinationLevelItem.equals(LEVEL_ITEM_GOAL)) {
-
-                setItemAt(LEVEL_ITEM_BOX_ON_GOAL, boxDestinationY, boxDestinationX);
-                boxesOnGoalsCount++;
-            }
-
-            workerX = workerDestinationX;
-            workerY = workerDestinationY;
-            
-            workerDirection.update(moveDirection);
-
-            // Adding the move to moves' history
-            MoveInformation moveInformation = new MoveInformation(MoveType.WORKER_AND_BOX, moveDirection);
-            addMoveToHistory(moveInformation, repeatMove);
-            
-
-            return moveInformation;
-        }
-
-        workerX = workerDestinationX;
-        workerY = workerDestinationY;
-        
-        workerDirection.update(moveDirection);
-        
-        // Adding the move to moves' history
-        MoveInformation moveInformation = new MoveInformation(MoveType.WORKER, moveDirection);
-        addMoveToHistory(moveInformation, repeatMove);
+        if (engine == null)
+            return MoveInformation.NOTHING;
         
-        return moveInformation;
+        return engine.move(Direction.valueOf(workerDeltaX, workerDeltaY), repeatMove);
     }
 }
\ No newline at end of file
@@ -0,0 +1,259 @@
+package org.ezze.games.storekeeper;
+
+/**
+ * This class stores level's items in a flat primitive array.
+ * 
+ * Each item is represented by a single byte composed of {@link #FLAG_BRICK},
+ * {@link #FLAG_GOAL}, {@link #FLAG_BOX} and {@link #FLAG_WORKER} flags
+ * and is addressed by index {@code line * width + column}.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ * @see Level
+ */
+public class LevelBoard {
+    
+    /**
+     * Flag of brick's item.
+     */
+    public static final byte FLAG_BRICK = 1;
+    
+    /**
+     * Flag of goal's item.
+     */
+    public static final byte FLAG_GOAL = 2;
+    
+    /**
+     * Flag of box' item.
+     */
+    public static final byte FLAG_BOX = 4;
+    
+    /**
+     * Flag of worker's item.
+     */
+    public static final byte FLAG_WORKER = 8;
+    
+    /**
+     * Code of empty space's item.
+     */
+    public static final byte ITEM_SPACE = 0;
+    
+    /**
+     * Code of brick's item.
+     */
+    public static final byte ITEM_BRICK = FLAG_BRICK;
+    
+    /**
+     * Code of goal's item.
+     */
+    public static final byte ITEM_GOAL = FLAG_GOAL;
+    
+    /**
+     * Code of box' item.
+     */
+    public static final byte ITEM_BOX = FLAG_BOX;
+    
+    /**
+     * Code of staying on goal box' item.
+     */
+    public static final byte ITEM_BOX_ON_GOAL = FLAG_BOX | FLAG_GOAL;
+    
+    /**
+     * Code of worker's item.
+     */
+    public static final byte ITEM_WORKER = FLAG_WORKER;
+    
+    /**
+     * Code of staying on goal worker's item.
+     */
+    public static final byte ITEM_WORKER_ON_GOAL = FLAG_WORKER | FLAG_GOAL;
+    
+    /**
+     * Maps item codes to item characters, {@code null} stands for an invalid code.
+     */
+    private static final Character[] ITEM_CHARACTERS = new Character[16];
+    static {
+        
+        ITEM_CHARACTERS[ITEM_SPACE] = Level.LEVEL_ITEM_SPACE;
+        ITEM_CHARACTERS[ITEM_BRICK] = Level.LEVEL_ITEM_BRICK;
+        ITEM_CHARACTERS[ITEM_GOAL] = Level.LEVEL_ITEM_GOAL;
+        ITEM_CHARACTERS[ITEM_BOX] = Level.LEVEL_ITEM_BOX;
+        ITEM_CHARACTERS[ITEM_BOX_ON_GOAL] = Level.LEVEL_ITEM_BOX_ON_GOAL;
+        ITEM_CHARACTERS[ITEM_WORKER] = Level.LEVEL_ITEM_WORKER;
+        ITEM_CHARACTERS[ITEM_WORKER_ON_GOAL] = Level.LEVEL_ITEM_WORKER_ON_GOAL;
+    }
+    
+    /**
+     * Board's width (items per row).
+     */
+    protected final int width;
+    
+    /**
+     * Board's height (items per column).
+     */
+    protected final int height;
+    
+    /**
+     * Board's items stored row by row.
+     */
+    protected final byte[] items;
+    
+    /**
+     * Creates empty board of specified size filled by {@link #ITEM_SPACE}.
+     * 
+     * @param width
+     *      Board's width in items per row.
+     * @param height
+     *      Board's height in items per column.
+     */
+    public LevelBoard(int width, int height) {
+        
+        this.width = width;
+        this.height = height;
+        items = new byte[width * height];
+    }
+    
+    /**
+     * Creates a copy of specified board.
+     * 
+     * @param board
+     *      Board to copy.
+     */
+    public LevelBoard(LevelBoard board) {
+        
+        width = board.width;
+        height = board.height;
+        items = board.items.clone();
+    }
+    
+    /**
+     * Converts item's character to item's code.
+     * 
+     * @param levelItem
+     *      Item's character.
+     * @return
+     *      Item's code or {@code -1} if character is not allowed.
+     * @see #toItemCharacter(byte)
+     */
+    public static byte toItemCode(char levelItem) {
+        
+        switch (levelItem) {
+            
+            case ' ': return ITEM_SPACE;
+            case '#': return ITEM_BRICK;
+            case '.': return ITEM_GOAL;
+            case '$': return ITEM_BOX;
+            case '*': return ITEM_BOX_ON_GOAL;
+            case '@': return ITEM_WORKER;
+            case '+': return ITEM_WORKER_ON_GOAL;
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Converts item's code to item's character.
+     * 
+     * @param itemCode
+     *      Item's code.
+     * @return
+     *      Item's character or {@code null} if code is invalid.
+     * @see #toItemCode(char)
+     */
+    public static Character toItemCharacter(byte itemCode) {
+        
+        if (itemCode < 0 || itemCode >= ITEM_CHARACTERS.length)
+            return null;
+        return ITEM_CHARACTERS[itemCode];
+    }
+    
+    /**
+     * Retrieves board's width.
+     * 
+     * @return
+     *      Board's width.
+     */
+    public int getWidth() {
+        
+        return width;
+    }
+    
+    /**
+     * Retrieves board's height.
+     * 
+     * @return
+     *      Board's height.
+     */
+    public int getHeight() {
+        
+        return height;
+    }
+    
+    /**
+     * Retrieves a direct reference to board's items.
+     * 
+     * This one is intended for performance critical code only,
+     * an item at {@code (line, column)} has index {@code line * getWidth() + column}.
+     * 
+     * @return
+     *      Board's items.
+     */
+    public byte[] getItems() {
+        
+        return items;
+    }
+    
+    /**
+     * Checks whether specified position lays within the board.
+     * 
+     * @param line
+     *      Line's index.
+     * @param column
+     *      Column's index.
+     * @return
+     *      {@code true} if position is inside the board, {@code false} otherwise.
+     */
+    public boolean contains(int line, int column) {
+        
+        return line >= 0 && line < height && column >= 0 && column < width;
+    }
+    
+    /**
+     * Retrieves item's code at specified position.
+     * 
+     * @param line
+     *      Line's index.
+     * @param column
+     *      Column's index.
+     * @return
+     *      Item's code or {@link #ITEM_BRICK} if position is out of the board.
+     * @see #setItemAt(byte, int, int)
+     */
+    public byte getItemAt(int line, int column) {
+        
+        if (!contains(line, column))
+            return ITEM_BRICK;
+        return items[line * width + column];
+    }
+    
+    /**
+     * Sets item's code at specified position.
+     * 
+     * @param itemCode
+     *      Item's code.
+     * @param line
+     *      Line's index.
+     * @param column
+     *      Column's index.
+     * @return
+     *      {@code true} if item has been set, {@code false} if position is out of the board.
+     * @see #getItemAt(int, int)
+     */
+    public boolean setItemAt(byte itemCode, int line, int column) {
+        
+        if (!contains(line, column))
+            return false;
+        items[line * width + column] = itemCode;
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,979 @@
+package org.ezze.games.storekeeper;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.ezze.games.storekeeper.Level.Direction;
+import org.ezze.games.storekeeper.Level.MoveInformation;
+import org.ezze.games.storekeeper.Level.MoveType;
+import org.ezze.games.storekeeper.Level.WorkerDirection;
+
+/**
+ * Headless implementation of game's rules over {@link LevelBoard}.
+ * 
+ * This class performs worker's moves, take-backs and repeats of moves
+ * without any dependency on user interface. It's not synchronized
+ * so one instance must be confined to a single thread. {@link Level}
+ * wraps an engine's instance to be shared between game's loop and
+ * event dispatch threads while batch jobs may use engines directly
+ * (see {@link Level#createEngine()}).
+ * 
+ * Every {@link #CHECKPOINT_INTERVAL} moves of history a snapshot of the position
+ * is kept so a jump to any move of history (see {@link #goToMove(int)}) replays
+ * no more than {@link #CHECKPOINT_INTERVAL} moves.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.6
+ */
+public class LevelEngine {
+    
+    /**
+     * Worker's real direction before the first move.
+     */
+    protected static final Direction INITIAL_WORKER_DIRECTION = new WorkerDirection().get();
+    
+    /**
+     * Count of history moves between two consecutive checkpoints.
+     */
+    public static final int CHECKPOINT_INTERVAL = 64;
+    
+    /**
+     * Board's items the engine operates on.
+     */
+    protected final LevelBoard board;
+    
+    /**
+     * A direct reference to board's items.
+     */
+    protected final byte[] items;
+    
+    /**
+     * Board's width.
+     */
+    protected final int width;
+    
+    /**
+     * Board's height.
+     */
+    protected final int height;
+    
+    /**
+     * Keeps boxes count of the board.
+     */
+    protected int boxesCount = 0;
+    
+    /**
+     * Traces boxes count placed on the goals.
+     */
+    protected int boxesOnGoalsCount = 0;
+    
+    /**
+     * Keeps current worker position's horizontal index.
+     */
+    protected int workerX = 0;
+    
+    /**
+     * Keeps current worker position's vertical index.
+     */
+    protected int workerY = 0;
+    
+    /**
+     * Represents worker's actual compound look direction.
+     */
+    protected WorkerDirection workerDirection = new WorkerDirection();
+    
+    /**
+     * Traces worker's moves count.
+     */
+    protected int movesCount = 0;
+    
+    /**
+     * Traces worker's pushes count.
+     */
+    protected int pushesCount = 0;
+    
+    /**
+     * Keeps an information about performed moves.
+     */
+    protected final MovesHistory movesHistory = new MovesHistory();
+    
+    /**
+     * Snapshots of positions after each {@link #CHECKPOINT_INTERVAL} moves of history.
+     * 
+     * Checkpoint with index {@code i} represents position after {@code i * CHECKPOINT_INTERVAL}
+     * moves, the first one is the initial position.
+     */
+    protected final ArrayList<Checkpoint> checkpoints = new ArrayList<Checkpoint>();
+    
+    /**
+     * Analyzer checking positions for deadlocks or {@code null} if deadlocks are not detected.
+     */
+    protected DeadlockAnalyzer deadlockAnalyzer = null;
+    
+    /**
+     * Shows whether current position can't be solved anymore.
+     */
+    protected boolean deadlocked = false;
+    
+    /**
+     * Keys to hash engine's positions.
+     */
+    protected ZobristKeys zobristKeys;
+    
+    /**
+     * Hash of current boxes' positions.
+     */
+    protected long boxesHash = 0;
+    
+    /**
+     * The least position reachable by the worker or {@code -1} if it's to be recalculated.
+     * 
+     * Worker's walking doesn't change the area he can reach so the position
+     * is reset by pushes only.
+     */
+    protected int normalizedWorkerPosition = -1;
+    
+    /**
+     * Marks of positions visited while looking for {@link #normalizedWorkerPosition}.
+     */
+    protected int[] reachMarks = null;
+    
+    /**
+     * Queue of positions visited while looking for {@link #normalizedWorkerPosition}.
+     */
+    protected int[] reachQueue = null;
+    
+    /**
+     * Current mark of {@link #reachMarks}.
+     */
+    protected int reachMark = 0;
+    
+    /**
+     * Path finder of the engine or {@code null} if it's not created yet.
+     */
+    protected PathFinder pathFinder = null;
+    
+    /**
+     * The leftmost column of cells changed since the last {@link #takeDirtyRegion(int[])} call.
+     * 
+     * The region is empty if it's greater than {@link #dirtyRight}.
+     */
+    protected int dirtyLeft = 0;
+    
+    /**
+     * The topmost line of cells changed since the last {@link #takeDirtyRegion(int[])} call.
+     */
+    protected int dirtyTop = 0;
+    
+    /**
+     * The rightmost column of cells changed since the last {@link #takeDirtyRegion(int[])} call.
+     */
+    protected int dirtyRight = -1;
+    
+    /**
+     * The bottommost line of cells changed since the last {@link #takeDirtyRegion(int[])} call.
+     */
+    protected int dirtyBottom = -1;
+    
+    /**
+     * Creates an engine operating on specified board.
+     * 
+     * The board is used directly (not copied) and is expected to contain
+     * exactly one worker's item which is removed from the board
+     * and is kept as worker's position.
+     * 
+     * @param board
+     *      Board to operate on.
+     * @throws IllegalArgumentException
+     *      If board doesn't contain exactly one worker.
+     */
+    public LevelEngine(LevelBoard board) {
+        
+        this.board = board;
+        items = board.getItems();
+        width = board.getWidth();
+        height = board.getHeight();
+        
+        int workersCount = 0;
+        for (int itemIndex = 0; itemIndex < items.length; itemIndex++) {
+            
+            byte item = items[itemIndex];
+            if ((item & LevelBoard.FLAG_WORKER) != 0) {
+                
+                workersCount++;
+                workerX = itemIndex % width;
+                workerY = itemIndex / width;
+                items[itemIndex] = (byte)(item & ~LevelBoard.FLAG_WORKER);
+            }
+            
+            if ((item & LevelBoard.FLAG_BOX) != 0) {
+                
+                boxesCount++;
+                if ((item & LevelBoard.FLAG_GOAL) != 0)
+                    boxesOnGoalsCount++;
+            }
+        }
+        
+        if (workersCount != 1)
+            throw new IllegalArgumentException("Board must contain exactly one worker.");
+        
+        zobristKeys = new ZobristKeys(width, height);
+        boxesHash = zobristKeys.getBoxesHash(items);
+        checkpoints.add(new Checkpoint());
+        markAllDirty();
+    }
+    
+    /**
+     * Retrieves engine's board.
+     * 
+     * @return
+     *      Board's instance.
+     */
+    public LevelBoard getBoard() {
+        
+        return board;
+    }
+    
+    /**
+     * Retrieves worker's current horizontal position.
+     * 
+     * @return
+     *      Worker's horizontal position.
+     */
+    public int getWorkerX() {
+        
+        return workerX;
+    }
+    
+    /**
+     * Retrieves worker's current vertical position.
+     * 
+     * @return
+     *      Worker's vertical position.
+     */
+    public int getWorkerY() {
+        
+        return workerY;
+    }
+    
+    /**
+     * Retrieves worker's compound look direction.
+     * 
+     * @return
+     *      Worker's compound look direction.
+     */
+    public WorkerDirection getWorkerDirection() {
+        
+        return workerDirection;
+    }
+    
+    /**
+     * Retrieves moves count performed by the worker.
+     * 
+     * @return
+     *      Moves count.
+     */
+    public int getMovesCount() {
+        
+        return movesCount;
+    }
+    
+    /**
+     * Retrieves pushes count performed by the worker.
+     * 
+     * @return
+     *      Pushes count.
+     */
+    public int getPushesCount() {
+        
+        return pushesCount;
+    }
+    
+    /**
+     * Retrieves count of moves stored in history.
+     * 
+     * @return
+     *      Count of history moves.
+     */
+    public int getMovesHistoryCount() {
+        
+        return movesHistory.size();
+    }
+    
+    /**
+     * Retrieves a move stored in history.
+     * 
+     * @param moveIndex
+     *      Move's index within the range [0; {@link #getMovesHistoryCount()} - 1].
+     * @return
+     *      Move's information.
+     */
+    public MoveInformation getHistoryMove(int moveIndex) {
+        
+        return movesHistory.get(moveIndex);
+    }
+    
+    /**
+     * Retrieves boxes count.
+     * 
+     * @return
+     *      Boxes count.
+     */
+    public int getBoxesCount() {
+        
+        return boxesCount;
+    }
+    
+    /**
+     * Retrieves count of boxes placed on the goals.
+     * 
+     * @return
+     *      Boxes on goals count.
+     */
+    public int getBoxesOnGoalsCount() {
+        
+        return boxesOnGoalsCount;
+    }
+    
+    /**
+     * Checks whether all boxes are placed on the goals.
+     * 
+     * @return
+     *      {@code true} if level is completed, {@code false} otherwise.
+     */
+    public boolean isCompleted() {
+        
+        return boxesCount == boxesOnGoalsCount;
+    }
+    
+    /**
+     * Retrieves deadlocks' analyzer.
+     * 
+     * @return
+     *      Analyzer's instance or {@code null} if deadlocks are not detected.
+     * @see #setDeadlockAnalyzer(org.ezze.games.storekeeper.DeadlockAnalyzer)
+     */
+    public DeadlockAnalyzer getDeadlockAnalyzer() {
+        
+        return deadlockAnalyzer;
+    }
+    
+    /**
+     * Sets deadlocks' analyzer and checks current position.
+     * 
+     * Once the analyzer is set the position is checked after each push
+     * and take-back so {@link #isDeadlocked()} is kept up to date.
+     * 
+     * @param deadlockAnalyzer
+     *      Analyzer created for engine's board or {@code null} to stop deadlocks' detection.
+     */
+    public void setDeadlockAnalyzer(DeadlockAnalyzer deadlockAnalyzer) {
+        
+        this.deadlockAnalyzer = deadlockAnalyzer;
+        updateDeadlock();
+    }
+    
+    /**
+     * Checks whether current position can't be solved anymore.
+     * 
+     * @return
+     *      {@code true} if a deadlock has been detected, {@code false} otherwise
+     *      or if deadlocks' analyzer is not set.
+     * @see #setDeadlockAnalyzer(org.ezze.games.storekeeper.DeadlockAnalyzer)
+     */
+    public boolean isDeadlocked() {
+        
+        return deadlocked;
+    }
+    
+    /**
+     * Checks whole current position for deadlocks.
+     */
+    protected void updateDeadlock() {
+        
+        deadlocked = deadlockAnalyzer != null && deadlockAnalyzer.isDeadlocked(items, workerY * width + workerX);
+    }
+    
+    /**
+     * Retrieves keys used to hash engine's positions.
+     * 
+     * @return
+     *      Zobrist keys.
+     */
+    public ZobristKeys getZobristKeys() {
+        
+        return zobristKeys;
+    }
+    
+    /**
+     * Sets keys used to hash engine's positions.
+     * 
+     * These are to be specified if engine's board contains
+     * a level shifted from board's top left corner.
+     * 
+     * @param zobristKeys
+     *      Keys created for engine's board.
+     */
+    public void setZobristKeys(ZobristKeys zobristKeys) {
+        
+        if (zobristKeys == null)
+            return;
+        
+        this.zobristKeys = zobristKeys;
+        boxesHash = zobristKeys.getBoxesHash(items);
+    }
+    
+    /**
+     * Retrieves a hash of current boxes' positions.
+     * 
+     * @return
+     *      Boxes' hash.
+     */
+    public long getBoxesHash() {
+        
+        return boxesHash;
+    }
+    
+    /**
+     * Retrieves a hash of current position.
+     * 
+     * The hash is composed of boxes' positions and the area reachable by the worker
+     * so positions differing by worker's walking only have equal hashes.
+     * 
+     * @return
+     *      Position's hash.
+     */
+    public long getPositionHash() {
+        
+        return boxesHash ^ zobristKeys.getWorkerKey(getNormalizedWorkerPosition());
+    }
+    
+    /**
+     * Retrieves the least position reachable by the worker.
+     * 
+     * @return
+     *      Position's index.
+     */
+    public int getNormalizedWorkerPosition() {
+        
+        if (normalizedWorkerPosition >= 0)
+            return normalizedWorkerPosition;
+        
+        if (reachMarks == null) {
+            
+            reachMarks = new int[items.length];
+            reachQueue = new int[items.length];
+        }
+        
+        reachMark++;
+        int workerPosition = workerY * width + workerX;
+        int queueHead = 0;
+        int queueTail = 0;
+        reachQueue[queueTail++] = workerPosition;
+        reachMarks[workerPosition] = reachMark;
+        normalizedWorkerPosition = workerPosition;
+        while (queueHead < queueTail) {
+            
+            int position = reachQueue[queueHead++];
+            if (position < normalizedWorkerPosition)
+                normalizedWorkerPosition = position;
+            
+            int line = position / width;
+            int column = position % width;
+            for (int direction = 0; direction < 4; direction++) {
+                
+                int nextLine = line + (direction == 0 ? -1 : (direction == 2 ? 1 : 0));
+                int nextColumn = column + (direction == 3 ? -1 : (direction == 1 ? 1 : 0));
+                if (nextLine < 0 || nextLine >= height || nextColumn < 0 || nextColumn >= width)
+                    continue;
+                
+                int nextPosition = nextLine * width + nextColumn;
+                if ((items[nextPosition] & (LevelBoard.FLAG_BRICK | LevelBoard.FLAG_BOX)) != 0 ||
+                        reachMarks[nextPosition] == reachMark) {
+                    
+                    continue;
+                }
+                reachMarks[nextPosition] = reachMark;
+                reachQueue[queueTail++] = nextPosition;
+            }
+        }
+        
+        return normalizedWorkerPosition;
+    }
+    
+    /**
+     * Adds a cell to the region of changed cells.
+     * 
+     * A cell is changed if its item or worker's presence is changed.
+     * 
+     * @param line
+     *      Cell's line index.
+     * @param column
+     *      Cell's column index.
+     */
+    protected void markDirty(int line, int column) {
+        
+        if (dirtyLeft > dirtyRight) {
+            
+            dirtyLeft = dirtyRight = column;
+            dirtyTop = dirtyBottom = line;
+            return;
+        }
+        
+        if (column < dirtyLeft)
+            dirtyLeft = column;
+        else if (column > dirtyRight)
+            dirtyRight = column;
+        if (line < dirtyTop)
+            dirtyTop = line;
+        else if (line > dirtyBottom)
+            dirtyBottom = line;
+    }
+    
+    /**
+     * Makes the whole board the region of changed cells.
+     */
+    protected void markAllDirty() {
+        
+        dirtyLeft = 0;
+        dirtyTop = 0;
+        dirtyRight = width - 1;
+        dirtyBottom = height - 1;
+    }
+    
+    /**
+     * Retrieves and resets the region of cells changed since the previous call.
+     * 
+     * The region is the least rectangle containing all changed cells
+     * so a renderer can repaint just it.
+     * 
+     * @param bounds
+     *      Array of four elements to store region's leftmost column, topmost line,
+     *      rightmost column and bottommost line to.
+     * @return
+     *      {@code true} if any cell has been changed, {@code false} otherwise
+     *      and {@code bounds} are left untouched.
+     */
+    public boolean takeDirtyRegion(int[] bounds) {
+        
+        if (dirtyLeft > dirtyRight)
+            return false;
+        
+        bounds[0] = dirtyLeft;
+        bounds[1] = dirtyTop;
+        bounds[2] = dirtyRight;
+        bounds[3] = dirtyBottom;
+        dirtyLeft = 0;
+        dirtyRight = -1;
+        return true;
+    }
+    
+    /**
+     * Retrieves path finder searching engine's current position.
+     * 
+     * The finder is created on the first call and is reused afterwards.
+     * 
+     * @return
+     *      Path finder's instance.
+     */
+    public PathFinder getPathFinder() {
+        
+        if (pathFinder == null)
+            pathFinder = new PathFinder(this);
+        return pathFinder;
+    }
+    
+    /**
+     * Performs moves of a path found by engine's path finder.
+     * 
+     * @return
+     *      A number of performed moves after the path.
+     * @see #getPathFinder()
+     */
+    public int movePath() {
+        
+        int pathLength = pathFinder == null ? 0 : pathFinder.getPathLength();
+        for (int moveIndex = 0; moveIndex < pathLength; moveIndex++)
+            move(pathFinder.getPathDirection(moveIndex), false);
+        
+        return movesCount;
+    }
+    
+    /**
+     * Retrieves item's code at specified position.
+     * 
+     * @param line
+     *      Line's index.
+     * @param column
+     *      Column's index.
+     * @return
+     *      Item's code or {@link LevelBoard#ITEM_BRICK} if position is out of the board.
+     */
+    public byte getItemAt(int line, int column) {
+        
+        if (line < 0 || line >= height || column < 0 || column >= width)
+            return LevelBoard.ITEM_BRICK;
+        return items[line * width + column];
+    }
+    
+    /**
+     * Adds a move to history and increments {@link #movesCount} and {@link #pushesCount}
+     * if it's necessary.
+     * 
+     * @param moveInformation
+     *      An instance with information about recently performed move.
+     * @param repeatMove
+     *      Shows whether method's call was produced during move's repeat.
+     */
+    protected void addMoveToHistory(MoveInformation moveInformation, boolean repeatMove) {
+        
+        if (!repeatMove) {
+            
+            movesHistory.truncate(movesCount);
+            truncateCheckpoints();
+        }
+        
+        movesCount++;
+        if (moveInformation.getType() == MoveType.WORKER_AND_BOX)
+            pushesCount++;
+        
+        if (!repeatMove)
+            movesHistory.add(moveInformation);
+        
+        if (movesCount % CHECKPOINT_INTERVAL == 0 && movesCount / CHECKPOINT_INTERVAL == checkpoints.size())
+            checkpoints.add(new Checkpoint());
+    }
+    
+    /**
+     * Removes checkpoints following current move.
+     * 
+     * It's called when moves following current one are replaced in history.
+     */
+    protected void truncateCheckpoints() {
+        
+        int checkpointsCount = movesCount / CHECKPOINT_INTERVAL + 1;
+        while (checkpoints.size() > checkpointsCount)
+            checkpoints.remove(checkpoints.size() - 1);
+    }
+    
+    /**
+     * Restores a position kept by specified checkpoint.
+     * 
+     * @param checkpointIndex
+     *      Checkpoint's index.
+     */
+    protected void restoreCheckpoint(int checkpointIndex) {
+        
+        Checkpoint checkpoint = checkpoints.get(checkpointIndex);
+        for (int itemIndex = 0; itemIndex < items.length; itemIndex++)
+            items[itemIndex] &= ~LevelBoard.FLAG_BOX;
+        
+        boxesOnGoalsCount = 0;
+        for (int boxIndex : checkpoint.boxes) {
+            
+            items[boxIndex] |= LevelBoard.FLAG_BOX;
+            if ((items[boxIndex] & LevelBoard.FLAG_GOAL) != 0)
+                boxesOnGoalsCount++;
+        }
+        
+        workerX = checkpoint.workerPosition % width;
+        workerY = checkpoint.workerPosition / width;
+        workerDirection = new WorkerDirection(checkpoint.workerDirection.getHorizontal(),
+                checkpoint.workerDirection.getVertical(), checkpoint.workerDirection.isVerticalReal());
+        movesCount = checkpointIndex * CHECKPOINT_INTERVAL;
+        pushesCount = checkpoint.pushesCount;
+        boxesHash = zobristKeys.getBoxesHash(items);
+        normalizedWorkerPosition = -1;
+        updateDeadlock();
+        markAllDirty();
+    }
+    
+    /**
+     * Replaces moves to be repeated by specified ones.
+     * 
+     * Moves performed so far are kept while any moves following them
+     * are removed from history and specified moves are appended instead,
+     * so they can be played by {@link #repeatMoves(int)}. Moves are not checked here.
+     * 
+     * @param moves
+     *      Moves to append.
+     */
+    public void setFutureMoves(List<MoveInformation> moves) {
+        
+        movesHistory.truncate(movesCount);
+        truncateCheckpoints();
+        for (MoveInformation moveInformation : moves)
+            movesHistory.add(moveInformation);
+    }
+    
+    /**
+     * Completes worker's move in specified direction if it's possible.
+     * 
+     * @param moveDirection
+     *      Move's direction.
+     * @param repeatMove
+     *      Shows whether move is being repeated from moves history and the result information
+     *      is not to be added to moves history.
+     * @return
+     *      Completed move's information.
+     */
+    public MoveInformation move(Direction moveDirection, boolean repeatMove) {
+        
+        if (moveDirection == null || moveDirection == Direction.NONE)
+            return MoveInformation.NOTHING;
+        int workerDeltaX = moveDirection.getDeltaX();
+        int workerDeltaY = moveDirection.getDeltaY();
+        
+        // Calculating worker's destination location
+        int workerDestinationX = workerX + workerDeltaX;
+        int workerDestinationY = workerY + workerDeltaY;
+        
+        // Checking that worker's destination position is not a wall
+        byte workerDestinationLevelItem = getItemAt(workerDestinationY, workerDestinationX);
+        if ((workerDestinationLevelItem & LevelBoard.FLAG_BRICK) != 0)
+            return MoveInformation.NOTHING;
+        
+        MoveType moveType = MoveType.WORKER;
+        
+        // Checking whether worker's destination position is a box
+        if ((workerDestinationLevelItem & LevelBoard.FLAG_BOX) != 0) {
+            
+            // Looking for possibility to move the box
+            int boxDestinationX = workerDestinationX + workerDeltaX;
+            int boxDestinationY = workerDestinationY + workerDeltaY;
+            
+            // Checking whether the box' destination position is not a wall or another box
+            byte boxDestinationLevelItem = getItemAt(boxDestinationY, boxDestinationX);
+            if ((boxDestinationLevelItem & (LevelBoard.FLAG_BRICK | LevelBoard.FLAG_BOX)) != 0)
+                return MoveInformation.NOTHING;
+            
+            // Removing the box from old location
+            items[workerDestinationY * width + workerDestinationX] = (byte)(workerDestinationLevelItem & ~LevelBoard.FLAG_BOX);
+            if ((workerDestinationLevelItem & LevelBoard.FLAG_GOAL) != 0)
+                boxesOnGoalsCount--;
+            
+            // Placing the box in new location
+            items[boxDestinationY * width + boxDestinationX] = (byte)(boxDestinationLevelItem | LevelBoard.FLAG_BOX);
+            if ((boxDestinationLevelItem & LevelBoard.FLAG_GOAL) != 0)
+                boxesOnGoalsCount++;
+            
+            // Updating position's hash
+            boxesHash ^= zobristKeys.getBoxKey(workerDestinationY * width + workerDestinationX) ^
+                    zobristKeys.getBoxKey(boxDestinationY * width + boxDestinationX);
+            normalizedWorkerPosition = -1;
+            
+            markDirty(boxDestinationY, boxDestinationX);
+            moveType = MoveType.WORKER_AND_BOX;
+        }
+        
+        markDirty(workerY, workerX);
+        markDirty(workerDestinationY, workerDestinationX);
+        workerX = workerDestinationX;
+        workerY = workerDestinationY;
+        
+        // Checking whether the push has led to a deadlock
+        if (moveType == MoveType.WORKER_AND_BOX && deadlockAnalyzer != null && !deadlocked) {
+            
+            int workerPosition = workerY * width + workerX;
+            deadlocked = deadlockAnalyzer.isDeadlocked(items,
+                    workerPosition + workerDeltaY * width + workerDeltaX, workerPosition);
+        }
+        
+        workerDirection.update(moveDirection);
+        
+        // Adding the move to moves' history
+        MoveInformation moveInformation = MoveInformation.valueOf(moveType, moveDirection);
+        addMoveToHistory(moveInformation, repeatMove);
+        
+        return moveInformation;
+    }
+    
+    /**
+     * Takes position back by specified moves' count.
+     * 
+     * @param takeBackMovesCount
+     *      Moves' count to take position back by.
+     * @return
+     *      A number of performed moves after the take-back or {@code -1}
+     *      if {@code takeBackMovesCount} is more than performed moves' count.
+     */
+    public int takeBack(int takeBackMovesCount) {
+        
+        if (takeBackMovesCount <= 0 || takeBackMovesCount > movesCount)
+            return -1;
+        
+        return goToMove(movesCount - takeBackMovesCount);
+    }
+    
+    /**
+     * Takes position back by specified moves' count one move at a time.
+     * 
+     * @param takeBackMovesCount
+     *      Moves' count to take position back by, it must not exceed performed moves' count.
+     */
+    protected void takeBackMoves(int takeBackMovesCount) {
+        
+        int initialPushesCount = pushesCount;
+        int firstRemovingMoveIndex = movesCount - takeBackMovesCount;
+        int removingMoveIndex = movesCount - 1;
+        while (removingMoveIndex >= firstRemovingMoveIndex) {
+            
+            // Retrieving information of a move to be removed
+            Direction moveDirection = movesHistory.getDirection(removingMoveIndex);
+            int workerDeltaX = moveDirection.getDeltaX();
+            int workerDeltaY = moveDirection.getDeltaY();
+            
+            if (movesHistory.isPush(removingMoveIndex)) {
+                
+                // Retrieving box' current position
+                int boxIndex = (workerY + workerDeltaY) * width + workerX + workerDeltaX;
+                boxesHash ^= zobristKeys.getBoxKey(boxIndex);
+                markDirty(workerY + workerDeltaY, workerX + workerDeltaX);
+                byte levelItem = items[boxIndex];
+                items[boxIndex] = (byte)(levelItem & ~LevelBoard.FLAG_BOX);
+                if ((levelItem & LevelBoard.FLAG_GOAL) != 0)
+                    boxesOnGoalsCount--;
+                
+                // Box' previous position is where the worker is right now
+                boxIndex = workerY * width + workerX;
+                boxesHash ^= zobristKeys.getBoxKey(boxIndex);
+                levelItem = items[boxIndex];
+                items[boxIndex] = (byte)(levelItem | LevelBoard.FLAG_BOX);
+                if ((levelItem & LevelBoard.FLAG_GOAL) != 0)
+                    boxesOnGoalsCount++;
+                
+                // Decreasing pushes count
+                pushesCount--;
+            }
+            
+            // Moving worker back
+            markDirty(workerY, workerX);
+            workerX -= workerDeltaX;
+            workerY -= workerDeltaY;
+            markDirty(workerY, workerX);
+            
+            // Restoring worker's direction
+            Direction previousDirection = removingMoveIndex >= 1 ?
+                    movesHistory.getDirection(removingMoveIndex - 1) : INITIAL_WORKER_DIRECTION;
+            workerDirection.update(previousDirection);
+            
+            movesCount--;
+            removingMoveIndex--;
+        }
+        
+        if (pushesCount != initialPushesCount) {
+            
+            normalizedWorkerPosition = -1;
+            updateDeadlock();
+        }
+    }
+    
+    /**
+     * Repeats previously taken back moves.
+     * 
+     * @param repeatMovesCount
+     *      Count of moves to repeat.
+     * @return
+     *      A number of performed moves after the repeat or {@code -1}
+     *      if {@code repeatMovesCount} is more than count of possible moves to repeat.
+     */
+    public int repeatMoves(int repeatMovesCount) {
+        
+        if (repeatMovesCount <= 0 || movesHistory.size() - movesCount < repeatMovesCount)
+            return -1;
+        
+        return goToMove(movesCount + repeatMovesCount);
+    }
+    
+    /**
+     * Repeats previously taken back moves one move at a time.
+     * 
+     * @param repeatMovesCount
+     *      Count of moves to repeat, it must not exceed count of possible moves to repeat.
+     */
+    protected void repeatHistoryMoves(int repeatMovesCount) {
+        
+        int lastRepeatingMoveIndex = movesCount + repeatMovesCount - 1;
+        int repeatingMoveIndex = movesCount;
+        while (repeatingMoveIndex <= lastRepeatingMoveIndex) {
+            
+            move(movesHistory.getDirection(repeatingMoveIndex), true);
+            repeatingMoveIndex++;
+        }
+    }
+    
+    /**
+     * Brings position to the one after specified count of history moves.
+     * 
+     * Position is restored from the nearest preceding checkpoint if it's
+     * closer to the target than current position is, so no more than
+     * {@link #CHECKPOINT_INTERVAL} moves are taken back or repeated.
+     * 
+     * @param moveIndex
+     *      Count of history moves to be performed within the range [0; {@link #getMovesHistoryCount()}].
+     * @return
+     *      A number of performed moves after the jump or {@code -1}
+     *      if {@code moveIndex} is out of the range.
+     */
+    public int goToMove(int moveIndex) {
+        
+        if (moveIndex < 0 || moveIndex > movesHistory.size())
+            return -1;
+        
+        int checkpointIndex = Math.min(moveIndex / CHECKPOINT_INTERVAL, checkpoints.size() - 1);
+        int checkpointMovesCount = checkpointIndex * CHECKPOINT_INTERVAL;
+        if (moveIndex - checkpointMovesCount < Math.abs(moveIndex - movesCount))
+            restoreCheckpoint(checkpointIndex);
+        
+        if (moveIndex < movesCount)
+            takeBackMoves(movesCount - moveIndex);
+        else if (moveIndex > movesCount)
+            repeatHistoryMoves(moveIndex - movesCount);
+        
+        return movesCount;
+    }
+    
+    /**
+     * This class represents a snapshot of engine's position.
+     */
+    protected class Checkpoint {
+        
+        /**
+         * Indexes of board's items containing boxes.
+         */
+        protected final int[] boxes;
+        
+        /**
+         * Worker's position index.
+         */
+        protected final int workerPosition;
+        
+        /**
+         * Worker's compound look direction.
+         */
+        protected final WorkerDirection workerDirection;
+        
+        /**
+         * Pushes count.
+         */
+        protected final int pushesCount;
+        
+        /**
+         * Creates a snapshot of engine's current position.
+         */
+        protected Checkpoint() {
+            
+            boxes = new int[boxesCount];
+            int boxIndex = 0;
+            for (int itemIndex = 0; itemIndex < items.length && boxIndex < boxes.length; itemIndex++) {
+                
+                if ((items[itemIndex] & LevelBoard.FLAG_BOX) != 0)
+                    boxes[boxIndex++] = itemIndex;
+            }
+            
+            workerPosition = workerY * width + workerX;
+            workerDirection = new WorkerDirection(LevelEngine.this.workerDirection.getHorizontal(),
+                    LevelEngine.this.workerDirection.getVertical(), LevelEngine.this.workerDirection.isVerticalReal());
+            pushesCount = LevelEngine.this.pushesCount;
+        }
+    }
+}
\ No newline at end of file
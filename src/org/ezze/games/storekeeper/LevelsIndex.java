@@ -0,0 +1,713 @@
+package org.ezze.games.storekeeper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import org.ezze.games.storekeeper.Level.LevelSize;
+import org.ezze.games.storekeeper.Level.LevelState;
+
+/**
+ * This class represents a byte offset index of levels' set file.
+ * 
+ * The index keeps a region of the file describing each level along with level's
+ * size and validity, so levels' set can be browsed without reading its levels
+ * and each level is parsed only when it's requested. The file is mapped
+ * by NIO and only requested level's region is decoded.
+ * 
+ * The index is built once and is stored next to the file with
+ * {@link #INDEX_FILE_EXTENSION} extension, it's rebuilt if the file
+ * has been modified. SOK files must be in an ASCII compatible encoding (default
+ * platform's one is used to decode them just like {@link LevelsSet#loadFromSOKFile(java.lang.String)}
+ * does), XML levels are looked for as {@code level} elements outside of comments
+ * and CDATA sections.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.3
+ * @see LevelsSet
+ */
+public class LevelsIndex {
+    
+    /**
+     * Extension appended to levels' set file's name to get index file's name.
+     */
+    public static final String INDEX_FILE_EXTENSION = ".idx";
+    
+    /**
+     * Signature of index file.
+     */
+    protected static final int INDEX_SIGNATURE = 0x534B4958;
+    
+    /**
+     * Version of index file's format.
+     */
+    protected static final int INDEX_VERSION = 1;
+    
+    /**
+     * Formats of levels' set files.
+     */
+    public static enum SourceFormat {
+        
+        /**
+         * SOK file.
+         */
+        SOK,
+        
+        /**
+         * XML file.
+         */
+        XML
+    };
+    
+    /**
+     * Indexed levels' set file.
+     */
+    protected final File sourceFile;
+    
+    /**
+     * Format of levels' set file.
+     */
+    protected SourceFormat sourceFormat;
+    
+    /**
+     * Set's name.
+     */
+    protected String name = "";
+    
+    /**
+     * Beginning of XML file (byte order mark and XML declaration) prepended
+     * to level's region before parsing.
+     */
+    protected byte[] prologue = new byte[0];
+    
+    /**
+     * Count of indexed levels.
+     */
+    protected int levelsCount = 0;
+    
+    /**
+     * Offsets of levels' regions.
+     */
+    protected long[] offsets = new long[0];
+    
+    /**
+     * Lengths of levels' regions.
+     */
+    protected int[] lengths = new int[0];
+    
+    /**
+     * Levels' widths.
+     */
+    protected int[] widths = new int[0];
+    
+    /**
+     * Levels' heights.
+     */
+    protected int[] heights = new int[0];
+    
+    /**
+     * Levels' states ignoring maximal level's size.
+     */
+    protected LevelState[] states = new LevelState[0];
+    
+    /**
+     * Creates empty index of specified file.
+     * 
+     * @param sourceFile
+     *      Levels' set file.
+     * @param sourceFormat
+     *      Format of levels' set file.
+     */
+    protected LevelsIndex(File sourceFile, SourceFormat sourceFormat) {
+        
+        this.sourceFile = sourceFile;
+        this.sourceFormat = sourceFormat;
+    }
+    
+    /**
+     * Opens an index of levels' set file reading it from index file or building it.
+     * 
+     * @param fileName
+     *      Levels' set file's name with {@code .sok} or {@code .xml} extension.
+     * @return
+     *      Index's instance.
+     * @throws IOException
+     *      If the file can't be indexed.
+     */
+    public static LevelsIndex open(String fileName) throws IOException {
+        
+        File sourceFile = new File(fileName);
+        SourceFormat sourceFormat = null;
+        if (sourceFile.getAbsolutePath().endsWith(".sok"))
+            sourceFormat = SourceFormat.SOK;
+        else if (sourceFile.getAbsolutePath().endsWith(".xml"))
+            sourceFormat = SourceFormat.XML;
+        else
+            throw new IOException("Unknown format of levels' set " + fileName);
+        
+        LevelsIndex levelsIndex = new LevelsIndex(sourceFile, sourceFormat);
+        File indexFile = new File(sourceFile.getPath() + INDEX_FILE_EXTENSION);
+        if (indexFile.isFile() && levelsIndex.read(indexFile))
+            return levelsIndex;
+        
+        levelsIndex.build();
+        levelsIndex.write(indexFile);
+        return levelsIndex;
+    }
+    
+    /**
+     * Retrieves format of levels' set file.
+     * 
+     * @return
+     *      File's format.
+     */
+    public SourceFormat getSourceFormat() {
+        
+        return sourceFormat;
+    }
+    
+    /**
+     * Retrieves set's name.
+     * 
+     * @return
+     *      Set's name.
+     */
+    public String getName() {
+        
+        return name;
+    }
+    
+    /**
+     * Retrieves count of indexed levels.
+     * 
+     * @return
+     *      Levels' count.
+     */
+    public int getLevelsCount() {
+        
+        return levelsCount;
+    }
+    
+    /**
+     * Retrieves level's size.
+     * 
+     * @param levelIndex
+     *      Level's index.
+     * @return
+     *      Level's size.
+     */
+    public LevelSize getLevelSize(int levelIndex) {
+        
+        return new LevelSize(widths[levelIndex], heights[levelIndex]);
+    }
+    
+    /**
+     * Retrieves a state level will have after its initialization.
+     * 
+     * @param levelIndex
+     *      Level's index.
+     * @param maximalSize
+     *      Level's bounds.
+     * @return
+     *      Level's state.
+     * @see Level#initialize(org.ezze.games.storekeeper.Level.LevelSize)
+     */
+    public LevelState getLevelState(int levelIndex, LevelSize maximalSize) {
+        
+        LevelState levelState = states[levelIndex];
+        if (levelState == LevelState.PLAYABLE && maximalSize != null &&
+                (widths[levelIndex] > maximalSize.getWidth() || heights[levelIndex] > maximalSize.getHeight()))
+            return LevelState.OUT_OF_BOUNDS;
+        return levelState;
+    }
+    
+    /**
+     * Parses a level from its region of levels' set file.
+     * 
+     * @param levelIndex
+     *      Level's index.
+     * @return
+     *      Level's instance which is not initialized.
+     * @throws IOException
+     *      If the file can't be read.
+     */
+    public Level readLevel(int levelIndex) throws IOException {
+        
+        RandomAccessFile randomAccessFile = new RandomAccessFile(sourceFile, "r");
+        try {
+            
+            MappedByteBuffer levelBuffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                    offsets[levelIndex], lengths[levelIndex]);
+            return parseLevel(levelBuffer);
+        }
+        finally {
+            
+            randomAccessFile.close();
+        }
+    }
+    
+    /**
+     * Parses a level from its region.
+     * 
+     * @param levelBuffer
+     *      Level's region.
+     * @return
+     *      Level's instance or {@code null} if the region describes no level.
+     * @throws IOException
+     *      If level's region is invalid.
+     */
+    protected Level parseLevel(ByteBuffer levelBuffer) throws IOException {
+        
+        if (sourceFormat == SourceFormat.SOK) {
+            
+            // Decoding the region just like the whole file is decoded by levels' set
+            String levelSource = Charset.defaultCharset().decode(levelBuffer).toString();
+            return new SOKReader(new StringReader(levelSource)).readLevel();
+        }
+        
+        byte[] levelSource = new byte[prologue.length + levelBuffer.remaining()];
+        System.arraycopy(prologue, 0, levelSource, 0, prologue.length);
+        levelBuffer.get(levelSource, prologue.length, levelBuffer.remaining());
+        XMLLevelsReader xmlLevelsReader = new XMLLevelsReader(new ByteArrayInputStream(levelSource));
+        try {
+            
+            return xmlLevelsReader.readLevel();
+        }
+        finally {
+            
+            xmlLevelsReader.close();
+        }
+    }
+    
+    /**
+     * Builds the index by scanning levels' set file.
+     * 
+     * @throws IOException
+     *      If the file can't be read or is too large to be mapped.
+     */
+    protected void build() throws IOException {
+        
+        RandomAccessFile randomAccessFile = new RandomAccessFile(sourceFile, "r");
+        try {
+            
+            FileChannel fileChannel = randomAccessFile.getChannel();
+            if (fileChannel.size() > Integer.MAX_VALUE)
+                throw new IOException("Levels' set is too large to be indexed " + sourceFile.getPath());
+            MappedByteBuffer fileBuffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+            
+            ArrayList<long[]> regions = sourceFormat == SourceFormat.SOK ?
+                    findSOKRegions(fileBuffer) : findXMLRegions(fileBuffer);
+            
+            offsets = new long[regions.size()];
+            lengths = new int[regions.size()];
+            widths = new int[regions.size()];
+            heights = new int[regions.size()];
+            states = new LevelState[regions.size()];
+            levelsCount = 0;
+            for (long[] region : regions) {
+                
+                // Parsing each level once to determine its size and validity
+                ByteBuffer levelBuffer = fileBuffer.duplicate();
+                levelBuffer.limit((int)region[1]);
+                levelBuffer.position((int)region[0]);
+                Level level = parseLevel(levelBuffer.slice());
+                if (level == null)
+                    continue;
+                
+                offsets[levelsCount] = region[0];
+                lengths[levelsCount] = (int)(region[1] - region[0]);
+                LevelSize levelSize = level.getSize();
+                if (levelSize != null) {
+                    
+                    widths[levelsCount] = levelSize.getWidth();
+                    heights[levelsCount] = levelSize.getHeight();
+                }
+                states[levelsCount] = level.getState(levelSize);
+                levelsCount++;
+            }
+        }
+        finally {
+            
+            randomAccessFile.close();
+        }
+    }
+    
+    /**
+     * Finds regions of SOK file describing levels.
+     * 
+     * Level's region starts after previous level's rows (preceding lines may contain
+     * level's name) and ends before next level's rows (following lines contain
+     * level's information).
+     * 
+     * @param fileBuffer
+     *      File's content.
+     * @return
+     *      Regions' start and end offsets.
+     */
+    protected ArrayList<long[]> findSOKRegions(ByteBuffer fileBuffer) {
+        
+        // Finding blocks of level's rows
+        ArrayList<long[]> blocks = new ArrayList<long[]>();
+        StringBuilder fileLine = new StringBuilder();
+        int fileLength = fileBuffer.limit();
+        int lineStart = 0;
+        long[] block = null;
+        while (lineStart < fileLength) {
+            
+            // Reading the line, bytes are widened to characters to check level's items only
+            fileLine.setLength(0);
+            int lineEnd = lineStart;
+            while (lineEnd < fileLength && fileBuffer.get(lineEnd) != '\n' && fileBuffer.get(lineEnd) != '\r')
+                fileLine.append((char)(fileBuffer.get(lineEnd++) & 0xFF));
+            int nextLineStart = lineEnd;
+            if (nextLineStart < fileLength && fileBuffer.get(nextLineStart++) == '\r' &&
+                    nextLineStart < fileLength && fileBuffer.get(nextLineStart) == '\n')
+                nextLineStart++;
+            
+            int lineLength = fileLine.length();
+            while (lineLength > 0 && fileLine.charAt(lineLength - 1) == ' ')
+                lineLength--;
+            fileLine.setLength(lineLength);
+            
+            if (SOKReader.isLevelLine(fileLine.toString())) {
+                
+                if (block == null) {
+                    
+                    block = new long[] { lineStart, nextLineStart };
+                    blocks.add(block);
+                }
+                block[1] = nextLineStart;
+            }
+            else
+                block = null;
+            
+            lineStart = nextLineStart;
+        }
+        
+        ArrayList<long[]> regions = new ArrayList<long[]>();
+        for (int blockIndex = 0; blockIndex < blocks.size(); blockIndex++) {
+            
+            long regionStart = blockIndex > 0 ? blocks.get(blockIndex - 1)[1] : 0;
+            long regionEnd = blockIndex + 1 < blocks.size() ? blocks.get(blockIndex + 1)[0] : fileLength;
+            regions.add(new long[] { regionStart, regionEnd });
+        }
+        return regions;
+    }
+    
+    /**
+     * Finds regions of XML file describing levels.
+     * 
+     * Level's region is its {@code level} element. Besides {@link #prologue}
+     * is kept and set's name is read the same way {@link XMLLevelsReader} reads it.
+     * 
+     * @param fileBuffer
+     *      File's content.
+     * @return
+     *      Regions' start and end offsets.
+     * @throws IOException
+     *      If the file is invalid.
+     */
+    protected ArrayList<long[]> findXMLRegions(ByteBuffer fileBuffer) throws IOException {
+        
+        ArrayList<long[]> regions = new ArrayList<long[]>();
+        int fileLength = fileBuffer.limit();
+        int position = 0;
+        while (position < fileLength) {
+            
+            if (fileBuffer.get(position) != '<') {
+                
+                position++;
+                continue;
+            }
+            
+            if (matches(fileBuffer, position, "<!--")) {
+                
+                position = find(fileBuffer, position + 4, "-->") + 3;
+            }
+            else if (matches(fileBuffer, position, "<![CDATA[")) {
+                
+                position = find(fileBuffer, position + 9, "]]>") + 3;
+            }
+            else if (matches(fileBuffer, position, "<level") && position + 6 < fileLength &&
+                    isTagNameEnd(fileBuffer.get(position + 6))) {
+                
+                int tagEnd = find(fileBuffer, position, ">");
+                int elementEnd = tagEnd + 1;
+                if (fileBuffer.get(tagEnd - 1) != '/')
+                    elementEnd = findLevelEnd(fileBuffer, tagEnd + 1);
+                regions.add(new long[] { position, elementEnd });
+                position = elementEnd;
+            }
+            else
+                position++;
+        }
+        
+        // Keeping byte order mark and XML declaration to decode levels' regions
+        int prologueLength = 0;
+        if (matches(fileBuffer, 0, "\u00EF\u00BB\u00BF"))
+            prologueLength = 3;
+        if (matches(fileBuffer, prologueLength, "<?xml"))
+            prologueLength = find(fileBuffer, prologueLength, "?>") + 2;
+        prologue = new byte[prologueLength];
+        for (int byteIndex = 0; byteIndex < prologueLength; byteIndex++)
+            prologue[byteIndex] = fileBuffer.get(byteIndex);
+        
+        // Reading set's name from the whole file until the first name element is met
+        ByteBuffer setBuffer = fileBuffer.duplicate();
+        setBuffer.position(0);
+        XMLLevelsReader xmlLevelsReader = new XMLLevelsReader(createInputStream(setBuffer));
+        try {
+            
+            while (xmlLevelsReader.getName() == null && xmlLevelsReader.readLevel() != null)
+                continue;
+            String setName = xmlLevelsReader.getName();
+            name = setName != null ? setName : "";
+        }
+        finally {
+            
+            xmlLevelsReader.close();
+        }
+        
+        return regions;
+    }
+    
+    /**
+     * Finds the end of level's element skipping comments and CDATA sections.
+     * 
+     * @param fileBuffer
+     *      File's content.
+     * @param position
+     *      Position following level's start tag.
+     * @return
+     *      Position following level's end tag.
+     * @throws IOException
+     *      If level's end tag is not found.
+     */
+    protected int findLevelEnd(ByteBuffer fileBuffer, int position) throws IOException {
+        
+        while (true) {
+            
+            position = find(fileBuffer, position, "<");
+            if (matches(fileBuffer, position, "<!--"))
+                position = find(fileBuffer, position + 4, "-->") + 3;
+            else if (matches(fileBuffer, position, "<![CDATA["))
+                position = find(fileBuffer, position + 9, "]]>") + 3;
+            else if (matches(fileBuffer, position, "</level") && position + 7 < fileBuffer.limit() &&
+                    isTagNameEnd(fileBuffer.get(position + 7)))
+                return find(fileBuffer, position, ">") + 1;
+            else
+                position++;
+        }
+    }
+    
+    /**
+     * Creates an input stream reading remaining bytes of a buffer.
+     * 
+     * @param buffer
+     *      Buffer to read, its position is moved by reading.
+     * @return
+     *      Buffer's input stream.
+     */
+    protected static InputStream createInputStream(final ByteBuffer buffer) {
+        
+        return new InputStream() {
+            
+            @Override
+            public int read() {
+                
+                return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+            }
+            
+            @Override
+            public int read(byte[] bytes, int offset, int length) {
+                
+                if (length == 0)
+                    return 0;
+                if (!buffer.hasRemaining())
+                    return -1;
+                
+                length = Math.min(length, buffer.remaining());
+                buffer.get(bytes, offset, length);
+                return length;
+            }
+        };
+    }
+    
+    /**
+     * Checks whether file's content contains a string at specified position.
+     * 
+     * @param fileBuffer
+     *      File's content.
+     * @param position
+     *      Position to check.
+     * @param text
+     *      String of single byte characters.
+     * @return
+     *      {@code true} if the string is found at the position, {@code false} otherwise.
+     */
+    protected static boolean matches(ByteBuffer fileBuffer, int position, String text) {
+        
+        if (position + text.length() > fileBuffer.limit())
+            return false;
+        for (int characterIndex = 0; characterIndex < text.length(); characterIndex++) {
+            
+            if ((fileBuffer.get(position + characterIndex) & 0xFF) != text.charAt(characterIndex))
+                return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Finds a string in file's content.
+     * 
+     * @param fileBuffer
+     *      File's content.
+     * @param position
+     *      Position to start the search from.
+     * @param text
+     *      String of single byte characters.
+     * @return
+     *      Position of the string.
+     * @throws IOException
+     *      If the string is not found.
+     */
+    protected int find(ByteBuffer fileBuffer, int position, String text) throws IOException {
+        
+        for (int foundPosition = position; foundPosition < fileBuffer.limit(); foundPosition++) {
+            
+            if (matches(fileBuffer, foundPosition, text))
+                return foundPosition;
+        }
+        throw new IOException("Unexpected end of levels' set " + sourceFile.getPath());
+    }
+    
+    /**
+     * Checks whether a byte terminates XML tag's name.
+     * 
+     * @param fileByte
+     *      Byte to check.
+     * @return
+     *      {@code true} if the byte is whitespace, {@code '>'} or {@code '/'}, {@code false} otherwise.
+     */
+    protected static boolean isTagNameEnd(byte fileByte) {
+        
+        return fileByte == ' ' || fileByte == '\t' || fileByte == '\r' || fileByte == '\n' ||
+                fileByte == '>' || fileByte == '/';
+    }
+    
+    /**
+     * Reads the index from index file.
+     * 
+     * @param indexFile
+     *      Index file.
+     * @return
+     *      {@code true} if the index has been read, {@code false} if index file
+     *      is invalid or is outdated.
+     */
+    protected boolean read(File indexFile) {
+        
+        try {
+            
+            DataInputStream indexInputStream = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(indexFile)));
+            try {
+                
+                if (indexInputStream.readInt() != INDEX_SIGNATURE || indexInputStream.readInt() != INDEX_VERSION)
+                    return false;
+                if (indexInputStream.readLong() != sourceFile.length() ||
+                        indexInputStream.readLong() != sourceFile.lastModified())
+                    return false;
+                
+                name = indexInputStream.readUTF();
+                prologue = new byte[indexInputStream.readInt()];
+                indexInputStream.readFully(prologue);
+                levelsCount = indexInputStream.readInt();
+                offsets = new long[levelsCount];
+                lengths = new int[levelsCount];
+                widths = new int[levelsCount];
+                heights = new int[levelsCount];
+                states = new LevelState[levelsCount];
+                LevelState[] levelStates = LevelState.values();
+                for (int levelIndex = 0; levelIndex < levelsCount; levelIndex++) {
+                    
+                    offsets[levelIndex] = indexInputStream.readLong();
+                    lengths[levelIndex] = indexInputStream.readInt();
+                    widths[levelIndex] = indexInputStream.readInt();
+                    heights[levelIndex] = indexInputStream.readInt();
+                    states[levelIndex] = levelStates[indexInputStream.readByte()];
+                }
+                return true;
+            }
+            finally {
+                
+                indexInputStream.close();
+            }
+        }
+        catch (IOException ex) {
+            
+        }
+        catch (RuntimeException ex) {
+            
+        }
+        
+        levelsCount = 0;
+        return false;
+    }
+    
+    /**
+     * Writes the index to index file.
+     * 
+     * Index file is not written if it can't be created.
+     * 
+     * @param indexFile
+     *      Index file.
+     */
+    protected void write(File indexFile) {
+        
+        try {
+            
+            DataOutputStream indexOutputStream = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(indexFile)));
+            try {
+                
+                indexOutputStream.writeInt(INDEX_SIGNATURE);
+                indexOutputStream.writeInt(INDEX_VERSION);
+                indexOutputStream.writeLong(sourceFile.length());
+                indexOutputStream.writeLong(sourceFile.lastModified());
+                indexOutputStream.writeUTF(name);
+                indexOutputStream.writeInt(prologue.length);
+                indexOutputStream.write(prologue);
+                indexOutputStream.writeInt(levelsCount);
+                for (int levelIndex = 0; levelIndex < levelsCount; levelIndex++) {
+                    
+                    indexOutputStream.writeLong(offsets[levelIndex]);
+                    indexOutputStream.writeInt(lengths[levelIndex]);
+                    indexOutputStream.writeInt(widths[levelIndex]);
+                    indexOutputStream.writeInt(heights[levelIndex]);
+                    indexOutputStream.writeByte(states[levelIndex].ordinal());
+                }
+            }
+            finally {
+                
+                indexOutputStream.close();
+            }
+        }
+        catch (IOException ex) {
+            
+            indexFile.delete();
+        }
+    }
+}
@@ -2,14 +2,19 @@ package org.ezze.games.storekeeper;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.ezze.games.storekeeper.Level.LevelSize;
 import org.ezze.games.storekeeper.Level.LevelState;
 import org.ezze.utils.io.XMLHelper;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
 
 /**
  * This class represents a set of loaded levels.
@@ -17,11 +22,34 @@ import org.w3c.dom.Element;
  * It can securely access both playable and corrupted levels.
  * Look at {@link LevelState} for possible level's states.
  * 
+ * Files of {@link #INDEXED_LOADING_FILE_SIZE} bytes and larger are loaded through
+ * {@link LevelsIndex}: levels are parsed and initialized only when they're
+ * retrieved while their states and sizes are known from the index.
+ * 
+ * Levels of any set are initialized with {@link #maximalLevelSize} only when
+ * they're retrieved or selected, states of the rest are predicted
+ * by {@link Level#getState(org.ezze.games.storekeeper.Level.LevelSize)}.
+ * If all levels must be validated at once {@link #initializeLevels(int)} initializes
+ * them in parallel.
+ * 
  * @author Dmitriy Pushkov
- * @version 0.0.5
+ * @version 0.0.10
  */
 public class LevelsSet {
     
+    /**
+     * Minimal size of levels' set file in bytes to load it through {@link LevelsIndex}.
+     */
+    public static final long INDEXED_LOADING_FILE_SIZE = 4L * 1024 * 1024;
+    
+    /**
+     * Extension of binary levels' set file.
+     * 
+     * @see #loadFromBinaryFile(java.lang.String)
+     * @see #saveToBinaryFile(java.lang.String)
+     */
+    public static final String BINARY_FILE_EXTENSION = ".skb";
+    
     /**
      * Shows whether levels' set is initialized.
      * 
@@ -47,6 +75,26 @@ public class LevelsSet {
      */
     protected int currentLevelIndex = -1;
     
+    /**
+     * Index of levels' set file if levels are loaded on demand.
+     * 
+     * Levels which are not loaded yet are represented by {@code null} items
+     * of {@link #levels}.
+     */
+    protected LevelsIndex levelsIndex = null;
+    
+    /**
+     * Bounds levels are initialized with.
+     */
+    protected LevelSize maximalLevelSize = null;
+    
+    /**
+     * Indices of levels initialized with {@link #maximalLevelSize}.
+     * 
+     * It's accessed under set's monitor only.
+     */
+    protected final BitSet initializedLevels = new BitSet();
+    
     /**
      * Constructs empty levels' set.
      */ 
@@ -66,6 +114,22 @@ public class LevelsSet {
         load(source);
     }
     
+    /**
+     * Constructs levels' set from specified source file or DOM document
+     * and initializes all its levels if required.
+     * 
+     * @param source
+     *      Set's source file's name.
+     * @param initializeLevels
+     *      If it's set to {@code true} then levels are initialized
+     *      by {@link #initializeLevels()} at once.
+     */
+    public LevelsSet(Object source, boolean initializeLevels) {
+        
+        if (load(source) && initializeLevels)
+            initializeLevels();
+    }
+    
     boolean isInitialized() {
         
         return isInitialized;
@@ -91,39 +155,74 @@ public class LevelsSet {
             File levelsSetFile = new File((String)source);
             if (!levelsSetFile.exists() || !levelsSetFile.isFile())
                 return false;
+            
+            // Large sources are loaded on demand
+            if (levelsSetFile.length() >= INDEXED_LOADING_FILE_SIZE && loadFromIndex((String)source)) {
+                
+                isInitialized = getLevelsCount() > 0;
+                return isInitialized;
+            }
 
             // Analyzing source's extension
             if (levelsSetFile.getAbsolutePath().endsWith(".xml")) {
 
                 // XML source
-                Document xmlLevelsSetDocument = XMLHelper.readXMLDocument((String)source);
-                loadFromDOM(xmlLevelsSetDocument);
+                loadFromXMLFile((String)source);
             }
             else if (levelsSetFile.getAbsolutePath().endsWith(".sok")) {
 
                 // SOK source
                 loadFromSOKFile((String)source);
             }
+            else if (levelsSetFile.getAbsolutePath().endsWith(BINARY_FILE_EXTENSION)) {
+                
+                // Binary source
+                loadFromBinaryFile((String)source);
+            }
         }
         else if (source instanceof Document) {
             
             loadFromDOM((Document)source);
         }
         
-        // Determining maximal possible size of set's level
-        LevelSize maximalLevelSize = getMaximalLevelSize();
+        // Determining maximal possible size of set's level, levels are initialized on demand
+        maximalLevelSize = getMaximalLevelSize();
         
-        // Initializing levels
-        int levelIndex = 0;
-        while (levelIndex < getLevelsCount()) {
+        isInitialized = getLevelsCount() > 0;
+        return isInitialized;
+    }
+    
+    /**
+     * Loads levels' set through the index of its file.
+     * 
+     * Levels are not parsed here, see {@link #getLevelByIndex(int)}.
+     * 
+     * @param fileName
+     *      Set's source file's name.
+     * @return
+     *      {@code true} if the file has been indexed, {@code false} otherwise.
+     * @see LevelsIndex#open(java.lang.String)
+     */
+    public boolean loadFromIndex(String fileName) {
+        
+        try {
             
-            Level level = levels.get(levelIndex);
-            level.initialize(maximalLevelSize);
-            levelIndex++;
+            levelsIndex = LevelsIndex.open(fileName);
+        }
+        catch (IOException ex) {
+            
+            levelsIndex = null;
+            return false;
         }
         
-        isInitialized = getLevelsCount() > 0;
-        return isInitialized;
+        setName(levelsIndex.getName());
+        levels = new ArrayList<Level>(levelsIndex.getLevelsCount());
+        for (int levelIndex = 0; levelIndex < levelsIndex.getLevelsCount(); levelIndex++)
+            levels.add(null);
+        initializedLevels.clear();
+        currentLevelIndex = levels.isEmpty() ? -1 : 0;
+        maximalLevelSize = getMaximalLevelSize();
+        return true;
     }
     
     /**
@@ -140,8 +239,9 @@ public class LevelsSet {
         if (xmlLevelsSetElement == null)
             return;
         
-        // Retrieving levels count from XML
-        int levelsCount = XMLHelper.getChildrenCount(xmlLevelsSetElement, "level");
+        // Retrieving levels' elements from XML at once, they're not looked for again for each index
+        NodeList xmlLevelElements = xmlLevelsSetElement.getElementsByTagName("level");
+        int levelsCount = xmlLevelElements.getLength();
         if (levelsCount == 0)
             return;
         
@@ -152,33 +252,84 @@ public class LevelsSet {
         while (levelIndex < levelsCount) {
             
             // Retrieving XML element of the current level
-            Element xmlLevelElement = XMLHelper.getChildElement(xmlLevelsSetElement, "level", levelIndex);
+            Element xmlLevelElement = (Element)xmlLevelElements.item(levelIndex);
+            addLevel(createLevelFromElement(xmlLevelElement));
             
-            String levelName = XMLHelper.getElementText(XMLHelper.getChildElement(xmlLevelElement, "name"), "");
-            int levelLinesCount = XMLHelper.getChildrenCount(xmlLevelElement, "l");
-            if (levelLinesCount > 0) {
-
-                ArrayList<String> levelLines = new ArrayList<String>();
-                int levelLineIndex = 0;
-                while (levelLineIndex < levelLinesCount) {
-
-                    Element xmlLevelLineElement = XMLHelper.getChildElement(xmlLevelElement, "l", levelLineIndex);
-                    String levelLine = XMLHelper.getElementText(xmlLevelLineElement);
-                    levelLines.add(levelLine);
-                    levelLineIndex++;
-                }
-
-                Level level = createLevelFromLines(levelLines, levelName);
-                addLevel(level);
+            levelIndex++;
+        }
+    }
+    
+    /**
+     * Loads levels from specified XML file.
+     * 
+     * Levels are added as soon as they're read by {@link XMLLevelsReader},
+     * no DOM document of the file is built.
+     * 
+     * @param fileName
+     *      XML file's name.
+     * @see #loadFromDOM(org.w3c.dom.Document)
+     */
+    public void loadFromXMLFile(String fileName) {
+        
+        try {
+            
+            XMLLevelsReader xmlLevelsReader = new XMLLevelsReader(new BufferedInputStream(
+                    new FileInputStream(fileName)));
+            try {
+                
+                Level level = null;
+                while ((level = xmlLevelsReader.readLevel()) != null)
+                    addLevel(level);
             }
+            finally {
+                
+                setName(xmlLevelsReader.getName());
+                xmlLevelsReader.close();
+            }
+        }
+        catch (FileNotFoundException ex) {
+            
+        }
+        catch (IOException ex) {
             
-            levelIndex++;
         }
     }
     
+    /**
+     * Creates level's instance from provided XML element.
+     * 
+     * @param xmlLevelElement
+     *      XML element of the level.
+     * @return
+     *      Created level's instance or {@code null} if the element has no level's lines.
+     */
+    protected static Level createLevelFromElement(Element xmlLevelElement) {
+        
+        String levelName = XMLHelper.getElementText(XMLHelper.getChildElement(xmlLevelElement, "name"), "");
+        int levelLinesCount = XMLHelper.getChildrenCount(xmlLevelElement, "l");
+        if (levelLinesCount == 0)
+            return null;
+        
+        NodeList xmlLevelLineElements = xmlLevelElement.getElementsByTagName("l");
+        ArrayList<String> levelLines = new ArrayList<String>();
+        int levelLineIndex = 0;
+        while (levelLineIndex < levelLinesCount) {
+            
+            Element xmlLevelLineElement = (Element)xmlLevelLineElements.item(levelLineIndex);
+            String levelLine = XMLHelper.getElementText(xmlLevelLineElement);
+            levelLines.add(levelLine);
+            levelLineIndex++;
+        }
+        
+        return createLevelFromLines(levelLines, levelName);
+    }
+    
     /**
      * Loads levels from specified SOK file.
      * 
+     * Levels are added as soon as they're read by {@link SOKReader},
+     * the file is never kept in memory entirely.
+     * 
      * @param fileName
      *      SOK-file's name.
      */
@@ -187,174 +338,99 @@ public class LevelsSet {
         try {
             
             FileInputStream fileInputStream = new FileInputStream(fileName);
-            BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(fileInputStream));
-        
-            Pattern levelLinePattern = Pattern.compile(String.format("^[%s%s%s%s%s%s%s]+$",
-                    Level.LEVEL_ITEM_WORKER_REG, Level.LEVEL_ITEM_WORKER_ON_GOAL_REG,
-                    Level.LEVEL_ITEM_BRICK_REG, Level.LEVEL_ITEM_GOAL_REG,
-                    Level.LEVEL_ITEM_BOX_REG, Level.LEVEL_ITEM_BOX_ON_GOAL_REG,
-                    Level.LEVEL_ITEM_SPACE_REG));
-            
-            String fileLine = null;
-            ArrayList<String> fileLines = new ArrayList<String>();
-            ArrayList<int[]> levelsBoundingIndexes = new ArrayList<int[]>();
-            boolean doesLastLineDescribesLevel = false;
-            int levelStartIndex = -1;
-            int lineIndex = -1;
-            while ((fileLine = bufferedReader.readLine()) != null) {
-                
-                // Trimming the line from the right
-                while (fileLine.endsWith(" "))
-                    fileLine = fileLine.substring(0, fileLine.length() - 1);
+            SOKReader sokReader = new SOKReader(new InputStreamReader(fileInputStream));
+            try {
                 
-                lineIndex++;
-                
-                // Checking whether the line describes level's row
-                Matcher levelLineMatcher = levelLinePattern.matcher(fileLine);
-                if (!fileLine.isEmpty() && levelLineMatcher.matches()) {
-                    
-                    // We have level's row here
-                    if (!doesLastLineDescribesLevel) {
-                        
-                        levelStartIndex = lineIndex;
-                    }
-                    
-                    doesLastLineDescribesLevel = true;
-                }
-                else {
-                    
-                    if (doesLastLineDescribesLevel) {
-                        
-                        int[] levelIndexes = new int[] {
-                            
-                            levelStartIndex,
-                            lineIndex - 1
-                        };
-                        
-                        levelsBoundingIndexes.add(levelIndexes);
-                    }
-                    
-                    doesLastLineDescribesLevel = false;
-                }
+                Level level = null;
+                while ((level = sokReader.readLevel()) != null)
+                    addLevel(level);
+            }
+            finally {
                 
-                fileLines.add(fileLine);
+                sokReader.close();
             }
+        }
+        catch (FileNotFoundException ex) {
+            
+        }
+        catch (IOException ex) {
             
-            if (doesLastLineDescribesLevel) {
+        }
+    }
+    
+    /**
+     * Loads levels from specified binary file.
+     * 
+     * @param fileName
+     *      Binary file's name.
+     * @see BinaryLevelsReader
+     * @see #saveToBinaryFile(java.lang.String)
+     */
+    public void loadFromBinaryFile(String fileName) {
+        
+        try {
+            
+            BinaryLevelsReader binaryLevelsReader = new BinaryLevelsReader(new FileInputStream(fileName));
+            try {
                 
-                int[] levelIndexes = new int[] {
-                    
-                    levelStartIndex,
-                    lineIndex - 1
-                };
+                setName(binaryLevelsReader.getName());
+                levels.ensureCapacity(levels.size() + binaryLevelsReader.getLevelsCount());
+                Level level = null;
+                while ((level = binaryLevelsReader.readLevel()) != null)
+                    addLevel(level);
+            }
+            finally {
                 
-                levelsBoundingIndexes.add(levelIndexes);
+                binaryLevelsReader.close();
             }
+        }
+        catch (FileNotFoundException ex) {
             
-            Pattern infoPattern = Pattern.compile("^([A-Za-z ]+):(.+)$");
+        }
+        catch (IOException ex) {
             
-            // Checking whether at least one level was found
-            if (levelsBoundingIndexes.size() > 0) {
+        }
+    }
+    
+    /**
+     * Saves all levels of the set to specified binary file.
+     * 
+     * This way a set of any supported format can be converted to binary one.
+     * 
+     * @param fileName
+     *      Binary file's name.
+     * @return
+     *      {@code true} if the set has been saved, {@code false} otherwise.
+     * @see BinaryLevelsWriter
+     * @see #loadFromBinaryFile(java.lang.String)
+     */
+    synchronized public boolean saveToBinaryFile(String fileName) {
+        
+        try {
+            
+            BinaryLevelsWriter binaryLevelsWriter = new BinaryLevelsWriter(new FileOutputStream(fileName),
+                    getName(), getLevelsCount());
+            try {
                 
-                // Creating levels
-                int levelIndex = 0;
-                while (levelIndex < levelsBoundingIndexes.size()) {
-
-                    int[] levelBoundingIndexes = levelsBoundingIndexes.get(levelIndex);
-                    int currentLevelStartIndex = levelBoundingIndexes[0];
-                    int currentLevelEndIndex = levelBoundingIndexes[1];
-                    
-                    ArrayList<String> levelLines = new ArrayList<String>();
-                    for (int levelLineIndex = currentLevelStartIndex; levelLineIndex <= currentLevelEndIndex; levelLineIndex++) {
-                        
-                        String levelLine = fileLines.get(levelLineIndex);
-                        levelLines.add(levelLine);
-                    }
+                // Levels of indexed set are parsed but not initialized
+                for (int levelIndex = 0; levelIndex < getLevelsCount(); levelIndex++) {
                     
-                    int levelInfoLastLineIndex = -1;
-                    if (levelIndex + 1 < levelsBoundingIndexes.size()) {
-                        
-                        levelInfoLastLineIndex = levelsBoundingIndexes.get(levelIndex + 1)[0] - 1;
-                    }
-                    else {
-                        
-                        levelInfoLastLineIndex = fileLines.size() - 1;
-                    }
-
-                    // Gathering level's information
-                    HashMap<String, Object> levelInfo = new HashMap<String, Object>();
-                    
-                    int levelInfoIndex = levelInfoLastLineIndex;
-                    boolean ignoreFirstNonEmptyLine = true;
-                    while (levelInfoIndex > currentLevelEndIndex) {
-
-                        String levelInfoLine = fileLines.get(levelInfoIndex);
-                        if (!levelInfoLine.isEmpty()) {
-
-                            if (ignoreFirstNonEmptyLine) {
-
-                                ignoreFirstNonEmptyLine = false;
-                            }
-                            else {
-
-                                // Analyzing information line
-                                Matcher infoMatcher = infoPattern.matcher(levelInfoLine);
-                                if (infoMatcher.matches()) {
-
-                                    String infoName = infoMatcher.group(1).trim().toLowerCase();
-                                    String infoValue = infoMatcher.group(2).trim();
-
-                                    if (infoName.equals("title"))
-                                        levelInfo.put("name", infoValue);
-                                    else if (infoName.equals("author"))
-                                        levelInfo.put("author", infoValue);
-                                }
-                            }
-                        }
-
-                        levelInfoIndex--;
-                    }
-                    
-                    // Checking whether level's name is found
-                    if (!levelInfo.containsKey("name")) {
-                        
-                        // Trying to find level's name just before level lines
-                        int levelInfoFirstLineIndex = 0;
-                        if (levelIndex - 1 >= 0) {
-                            
-                            levelInfoFirstLineIndex = levelsBoundingIndexes.get(levelIndex - 1)[1] + 1;
-                        }
-                        
-                        levelInfoIndex = currentLevelStartIndex - 1;
-                        while (levelInfoIndex >= levelInfoFirstLineIndex) {
-                            
-                            String levelInfoLine = fileLines.get(levelInfoIndex);
-                            if (!levelInfoLine.isEmpty() && !infoPattern.matcher(levelInfoLine).matches()) {
-                                
-                                levelInfo.put("name", levelInfoLine.trim());
-                                break;
-                            }
-                            
-                            levelInfoIndex--;
-                        }
-                    }
-                    
-                    Level level = new Level(levelLines, levelInfo);
-                    addLevel(level);
-                    
-                    levelIndex++;
+                    Level level = levels.get(levelIndex);
+                    binaryLevelsWriter.writeLevel(level != null ? level : readLevel(levelIndex));
                 }
             }
-            
-            bufferedReader.close();
-            fileInputStream.close();
-        }
-        catch (FileNotFoundException ex) {
-            
+            finally {
+                
+                binaryLevelsWriter.close();
+            }
         }
         catch (IOException ex) {
             
+            new File(fileName).delete();
+            return false;
         }
+        
+        return true;
     }
     
     /**
@@ -396,7 +472,7 @@ public class LevelsSet {
      * Reinitializes all currently loaded levels.
      * 
      * This method must be used every time level's maximal size (width and height)
-     * has been changed.
+     * has been changed. Levels are actually reinitialized when they're retrieved next time.
      * 
      * @param maximalLevelSize
      *      Level's maximal size describing game's accessable play field.
@@ -406,19 +482,148 @@ public class LevelsSet {
      */
     public void reinitialize(LevelSize maximalLevelSize) {
         
-        int gameLevelIndex = 0;
-        while (gameLevelIndex < getLevelsCount()) {
+        synchronized (this) {
             
-            // Retrieving a reference to current level
-            Level gameLevel = getLevelByIndex(gameLevelIndex);
+            this.maximalLevelSize = maximalLevelSize == null ?
+                    new LevelSize(Level.DEFAULT_LEVEL_WIDTH, Level.DEFAULT_LEVEL_HEIGHT) : maximalLevelSize;
             
-            // Attempting to reinitialize the level
-            gameLevel.initialize(maximalLevelSize == null ?
-                    new LevelSize(Level.DEFAULT_LEVEL_WIDTH, Level.DEFAULT_LEVEL_HEIGHT) : maximalLevelSize);
-            gameLevelIndex++;
+            // Levels will be reinitialized as soon as they're retrieved
+            initializedLevels.clear();
         }
     }
     
+    /**
+     * Initializes all levels which are not initialized yet using a thread
+     * per available processor.
+     * 
+     * @return
+     *      {@code true} if all levels have been initialized, {@code false} otherwise.
+     * @see #initializeLevels(int)
+     */
+    public boolean initializeLevels() {
+        
+        return initializeLevels(Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Initializes all levels which are not initialized yet.
+     * 
+     * Levels are independent, so they're parsed (if the set is indexed) and
+     * initialized by a fixed pool of threads, each thread handles a contiguous
+     * range of levels. Levels keep their order in the set.
+     * 
+     * @param threadsCount
+     *      Maximal count of threads initializing levels.
+     * @return
+     *      {@code true} if all levels have been initialized, {@code false} if
+     *      current thread has been interrupted.
+     * @throws IllegalStateException
+     *      If a level's initialization has failed unexpectedly.
+     * @see #initializeLevels()
+     */
+    synchronized public boolean initializeLevels(int threadsCount) {
+        
+        int levelsCount = getLevelsCount();
+        if (levelsCount == 0)
+            return true;
+        
+        threadsCount = Math.max(1, Math.min(threadsCount, levelsCount));
+        int rangesCount = Math.min(levelsCount, threadsCount * 4);
+        
+        // Threads read snapshots so the set itself is changed by the calling thread only
+        final Level[] sourceLevels = levels.toArray(new Level[levelsCount]);
+        final BitSet sourceInitializedLevels = (BitSet)initializedLevels.clone();
+        ExecutorService executorService = Executors.newFixedThreadPool(threadsCount);
+        try {
+            
+            ArrayList<Future<Level[]>> futures = new ArrayList<Future<Level[]>>(rangesCount);
+            for (int rangeIndex = 0; rangeIndex < rangesCount; rangeIndex++) {
+                
+                final int rangeStart = (int)((long)levelsCount * rangeIndex / rangesCount);
+                final int rangeEnd = (int)((long)levelsCount * (rangeIndex + 1) / rangesCount);
+                futures.add(executorService.submit(new Callable<Level[]>() {
+                    
+                    @Override
+                    public Level[] call() {
+                        
+                        return initializeLevelsRange(sourceLevels, sourceInitializedLevels, rangeStart, rangeEnd);
+                    }
+                }));
+            }
+            
+            // Waiting for all ranges before the set is changed
+            ArrayList<Level[]> rangesLevels = new ArrayList<Level[]>(rangesCount);
+            for (Future<Level[]> future : futures)
+                rangesLevels.add(future.get());
+            
+            // Storing initialized levels in their original order
+            int levelIndex = 0;
+            for (Level[] rangeLevels : rangesLevels) {
+                
+                for (Level level : rangeLevels) {
+                    
+                    if (level != null) {
+                        
+                        levels.set(levelIndex, level);
+                        initializedLevels.set(levelIndex);
+                    }
+                    levelIndex++;
+                }
+            }
+        }
+        catch (InterruptedException ex) {
+            
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        catch (ExecutionException ex) {
+            
+            throw new IllegalStateException("Level's initialization has failed.", ex.getCause());
+        }
+        finally {
+            
+            executorService.shutdownNow();
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Initializes a range of levels.
+     * 
+     * This method is invoked by {@link #initializeLevels(int)} threads, it reads
+     * snapshots of set's levels and never changes the set itself.
+     * 
+     * @param sourceLevels
+     *      Snapshot of set's levels, {@code null} items are read from levels' index.
+     * @param sourceInitializedLevels
+     *      Snapshot of initialized levels' indices.
+     * @param rangeStart
+     *      Index of range's first level.
+     * @param rangeEnd
+     *      Index following range's last level.
+     * @return
+     *      Initialized levels of the range, levels which are already
+     *      initialized are represented by {@code null} items.
+     */
+    protected Level[] initializeLevelsRange(Level[] sourceLevels, BitSet sourceInitializedLevels, int rangeStart, int rangeEnd) {
+        
+        Level[] rangeLevels = new Level[rangeEnd - rangeStart];
+        for (int levelIndex = rangeStart; levelIndex < rangeEnd; levelIndex++) {
+            
+            if (sourceInitializedLevels.get(levelIndex))
+                continue;
+            
+            Level level = sourceLevels[levelIndex];
+            if (level == null)
+                level = readLevel(levelIndex);
+            level.initialize(maximalLevelSize);
+            rangeLevels[levelIndex - rangeStart] = level;
+        }
+        
+        return rangeLevels;
+    }
+    
     /**
      * Retrieves set's name.
      * 
@@ -485,15 +690,31 @@ public class LevelsSet {
             return 0;
         
         int levelsCount = 0;
-        for (Level level : levels) {
+        for (int levelIndex = 0; levelIndex < levels.size(); levelIndex++) {
             
-            if (level.getState() == levelState)
+            if (getLevelState(levelIndex) == levelState)
                 levelsCount++;
         }
         
         return levelsCount;
     }
     
+    /**
+     * Retrieves a state of level specified by its index without loading the level.
+     * 
+     * @param levelIndex
+     *      Level's index.
+     * @return
+     *      Level's state.
+     */
+    protected LevelState getLevelState(int levelIndex) {
+        
+        Level level = levels.get(levelIndex);
+        if (level == null)
+            return levelsIndex.getLevelState(levelIndex, maximalLevelSize);
+        return level.getState(maximalLevelSize);
+    }
+    
     /**
      * Retrieves set playable levels' count.
      * 
@@ -556,6 +777,8 @@ public class LevelsSet {
             return false;
         }
         
+        // Initializing selected level
+        loadLevel(levelIndex);
         currentLevelIndex = levelIndex;
         return true;
     }
@@ -577,8 +800,7 @@ public class LevelsSet {
         int levelIndex = 0;
         while (levelIndex < levels.size()) {
             
-            Level level = levels.get(levelIndex);
-            if (level.isPlayable()) {
+            if (getLevelState(levelIndex) == LevelState.PLAYABLE) {
                 
                 currentLevelIndex = levelIndex;
                 return true;
@@ -630,7 +852,7 @@ public class LevelsSet {
             if (currentLevelIndex < 0)
                 currentLevelIndex = levels.size() - 1;
         }
-        while (playable && !getCurrentLevel().isPlayable());
+        while (playable && getLevelState(currentLevelIndex) != LevelState.PLAYABLE);
         
         return true;
     }
@@ -674,7 +896,7 @@ public class LevelsSet {
             if (currentLevelIndex >= levels.size())
                 currentLevelIndex = 0;
         }
-        while (playable && !getCurrentLevel().isPlayable());
+        while (playable && getLevelState(currentLevelIndex) != LevelState.PLAYABLE);
             
         return true;
     }
@@ -706,7 +928,55 @@ public class LevelsSet {
         if (levels == null || levelIndex < 0 || levelIndex >= levels.size())
             return null;
         
-        return levels.get(levelIndex);
+        return loadLevel(levelIndex);
+    }
+    
+    /**
+     * Initializes a level if it's not initialized yet.
+     * 
+     * A level of indexed levels' set is parsed first. Loaded level is kept by the set.
+     * 
+     * @param levelIndex
+     *      Level's index.
+     * @return
+     *      Level's instance, the level is empty if it can't be read.
+     */
+    synchronized protected Level loadLevel(int levelIndex) {
+        
+        Level level = levels.get(levelIndex);
+        if (initializedLevels.get(levelIndex))
+            return level;
+        
+        if (level == null) {
+            
+            level = readLevel(levelIndex);
+            levels.set(levelIndex, level);
+        }
+        level.initialize(maximalLevelSize);
+        initializedLevels.set(levelIndex);
+        return level;
+    }
+    
+    /**
+     * Parses a level of indexed levels' set.
+     * 
+     * @param levelIndex
+     *      Level's index.
+     * @return
+     *      Level's instance which is not initialized, the level is empty if it can't be read.
+     */
+    protected Level readLevel(int levelIndex) {
+        
+        Level level = null;
+        try {
+            
+            level = levelsIndex.readLevel(levelIndex);
+        }
+        catch (IOException ex) {
+            
+        }
+        
+        return level != null ? level : new Level(null, null);
     }
     
     /**
@@ -744,10 +1014,10 @@ public class LevelsSet {
         while (levelIndex < levels.size()) {
             
             Level level = levels.get(levelIndex);
-            LevelSize levelSize = level.getSize();
-            if (levelSize.getWidth() > maximalWidth)
+            LevelSize levelSize = level != null ? level.getSize() : levelsIndex.getLevelSize(levelIndex);
+            if (levelSize != null && levelSize.getWidth() > maximalWidth)
                 maximalWidth = levelSize.getWidth();
-            if (levelSize.getHeight() > maximalHeight)
+            if (levelSize != null && levelSize.getHeight() > maximalHeight)
                 maximalHeight = levelSize.getHeight();
             levelIndex++;
         }
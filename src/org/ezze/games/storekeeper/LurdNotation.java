@@ -0,0 +1,168 @@
+package org.ezze.games.storekeeper;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.ezze.games.storekeeper.Level.Direction;
+import org.ezze.games.storekeeper.Level.MoveInformation;
+import org.ezze.games.storekeeper.Level.MoveType;
+
+/**
+ * This class converts moves to and from LURD notation.
+ * 
+ * Each move is represented by a single character of its direction:
+ * {@code l}, {@code u}, {@code r} or {@code d} for worker's walking and
+ * {@code L}, {@code U}, {@code R} or {@code D} for a push. Whitespaces
+ * are ignored so notation's strings can be split to lines.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ * @see LurdReplayer
+ */
+public class LurdNotation {
+    
+    /**
+     * Directions indexed by notation's characters, {@code null} for invalid ones.
+     */
+    private static final Direction[] DIRECTIONS = new Direction[128];
+    static {
+        
+        DIRECTIONS['l'] = DIRECTIONS['L'] = Direction.LEFT;
+        DIRECTIONS['u'] = DIRECTIONS['U'] = Direction.UP;
+        DIRECTIONS['r'] = DIRECTIONS['R'] = Direction.RIGHT;
+        DIRECTIONS['d'] = DIRECTIONS['D'] = Direction.DOWN;
+    }
+    
+    /**
+     * Notation's characters of worker's walking indexed by direction's ordinal.
+     */
+    private static final char[] CHARACTERS = new char[Direction.values().length];
+    static {
+        
+        CHARACTERS[Direction.LEFT.ordinal()] = 'l';
+        CHARACTERS[Direction.UP.ordinal()] = 'u';
+        CHARACTERS[Direction.RIGHT.ordinal()] = 'r';
+        CHARACTERS[Direction.DOWN.ordinal()] = 'd';
+    }
+    
+    /**
+     * Notation's methods are static so no instances are created.
+     */
+    private LurdNotation() {
+    }
+    
+    /**
+     * Retrieves a direction of notation's character.
+     * 
+     * @param character
+     *      Notation's character.
+     * @return
+     *      Move's direction or {@code null} if the character doesn't represent a move.
+     */
+    public static Direction getDirection(char character) {
+        
+        return character < DIRECTIONS.length ? DIRECTIONS[character] : null;
+    }
+    
+    /**
+     * Checks whether notation's character represents a push.
+     * 
+     * @param character
+     *      Notation's character.
+     * @return
+     *      {@code true} for uppercase characters, {@code false} otherwise.
+     */
+    public static boolean isPush(char character) {
+        
+        return character >= 'A' && character <= 'Z';
+    }
+    
+    /**
+     * Retrieves notation's character of a move.
+     * 
+     * @param moveDirection
+     *      Move's direction.
+     * @param push
+     *      Shows whether the move is a push.
+     * @return
+     *      Notation's character or {@code 0} if the direction is empty.
+     */
+    public static char toCharacter(Direction moveDirection, boolean push) {
+        
+        if (moveDirection == null)
+            return 0;
+        
+        char character = CHARACTERS[moveDirection.ordinal()];
+        return push ? Character.toUpperCase(character) : character;
+    }
+    
+    /**
+     * Retrieves notation's character of a move.
+     * 
+     * @param moveInformation
+     *      Move's information.
+     * @return
+     *      Notation's character or {@code 0} if the move is empty.
+     */
+    public static char toCharacter(MoveInformation moveInformation) {
+        
+        if (moveInformation == null)
+            return 0;
+        
+        return toCharacter(moveInformation.getDirection(), moveInformation.getType() == MoveType.WORKER_AND_BOX);
+    }
+    
+    /**
+     * Converts moves to notation's string.
+     * 
+     * @param moves
+     *      Moves to convert.
+     * @return
+     *      Notation's string, empty moves are skipped.
+     */
+    public static String format(List<MoveInformation> moves) {
+        
+        StringBuilder lurd = new StringBuilder(moves.size());
+        for (MoveInformation moveInformation : moves) {
+            
+            char character = toCharacter(moveInformation);
+            if (character != 0)
+                lurd.append(character);
+        }
+        
+        return lurd.toString();
+    }
+    
+    /**
+     * Converts notation's string to moves.
+     * 
+     * Moves are not checked against any level here.
+     * 
+     * @param lurd
+     *      Notation's string.
+     * @return
+     *      Moves' list or {@code null} if the string contains a character
+     *      which neither represents a move nor is a whitespace.
+     */
+    public static List<MoveInformation> parse(CharSequence lurd) {
+        
+        if (lurd == null)
+            return null;
+        
+        ArrayList<MoveInformation> moves = new ArrayList<MoveInformation>(lurd.length());
+        for (int characterIndex = 0; characterIndex < lurd.length(); characterIndex++) {
+            
+            char character = lurd.charAt(characterIndex);
+            Direction moveDirection = getDirection(character);
+            if (moveDirection == null) {
+                
+                if (Character.isWhitespace(character))
+                    continue;
+                return null;
+            }
+            
+            moves.add(MoveInformation.valueOf(isPush(character) ? MoveType.WORKER_AND_BOX : MoveType.WORKER, moveDirection));
+        }
+        
+        return moves;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+package org.ezze.games.storekeeper;
+
+import org.ezze.games.storekeeper.Level.Direction;
+import org.ezze.games.storekeeper.Level.MoveType;
+
+/**
+ * This class replays moves of LURD notation against a level.
+ * 
+ * Moves are performed by level's own {@link LevelEngine} without any
+ * animation or game's loop, so a replay takes no more time than
+ * the moves themselves do. The engine is kept between replays
+ * and is brought back to level's initial position by
+ * {@link LevelEngine#goToMove(int)} instead of being recreated.
+ * 
+ * Replayer's instance is not synchronized and must be confined to
+ * a single thread, separate instances may replay the same level concurrently.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ * @see LurdNotation
+ */
+public class LurdReplayer {
+    
+    /**
+     * Engine performing replayed moves.
+     */
+    protected final LevelEngine engine;
+    
+    /**
+     * Creates level's replayer.
+     * 
+     * @param level
+     *      Level to replay moves against.
+     * @throws IllegalArgumentException
+     *      If level is not playable.
+     */
+    public LurdReplayer(Level level) {
+        
+        engine = level.createEngine();
+        if (engine == null)
+            throw new IllegalArgumentException("Level is not playable.");
+    }
+    
+    /**
+     * Retrieves replayer's engine.
+     * 
+     * @return
+     *      Engine's instance left in the position of the last replay.
+     */
+    public LevelEngine getEngine() {
+        
+        return engine;
+    }
+    
+    /**
+     * Replays moves from level's initial position.
+     * 
+     * The replay stops at the first illegal move, whitespaces are skipped.
+     * 
+     * @param lurd
+     *      Moves in LURD notation.
+     * @return
+     *      Replay's result.
+     */
+    public ReplayResult replay(CharSequence lurd) {
+        
+        engine.goToMove(0);
+        
+        int moveIndex = 0;
+        int illegalMoveIndex = -1;
+        int length = lurd == null ? 0 : lurd.length();
+        for (int characterIndex = 0; characterIndex < length; characterIndex++) {
+            
+            char character = lurd.charAt(characterIndex);
+            Direction moveDirection = LurdNotation.getDirection(character);
+            if (moveDirection == null) {
+                
+                if (Character.isWhitespace(character))
+                    continue;
+                
+                illegalMoveIndex = moveIndex;
+                break;
+            }
+            
+            MoveType moveType = engine.move(moveDirection, false).getType();
+            if (moveType == MoveType.NOTHING || (moveType == MoveType.WORKER_AND_BOX) != LurdNotation.isPush(character)) {
+                
+                illegalMoveIndex = moveIndex;
+                break;
+            }
+            
+            moveIndex++;
+        }
+        
+        int movesCount = engine.getMovesCount();
+        int pushesCount = engine.getPushesCount();
+        if (illegalMoveIndex >= 0 && movesCount > moveIndex) {
+            
+            // Move of a wrong type has been performed, it's not counted
+            engine.takeBack(1);
+            movesCount = engine.getMovesCount();
+            pushesCount = engine.getPushesCount();
+        }
+        
+        return new ReplayResult(movesCount, pushesCount, illegalMoveIndex, engine.isCompleted());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,188 @@
+package org.ezze.games.storekeeper;
+
+import java.util.Arrays;
+import org.ezze.games.storekeeper.Level.Direction;
+import org.ezze.games.storekeeper.Level.MoveInformation;
+import org.ezze.games.storekeeper.Level.MoveType;
+
+/**
+ * This class keeps worker's moves packed into a primitive buffer.
+ * 
+ * Each move takes 3 bits: 2 bits of move's direction and a flag of box' push,
+ * so 21 moves are packed into a single {@code long}. Moves are decoded
+ * to shared {@link MoveInformation} instances, removing of moves from
+ * history's end takes constant time.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ * @see LevelEngine
+ */
+public class MovesHistory {
+    
+    /**
+     * Count of bits taken by a move.
+     */
+    protected static final int MOVE_BITS = 3;
+    
+    /**
+     * Count of moves packed into a buffer's item.
+     */
+    protected static final int MOVES_PER_ITEM = Long.SIZE / MOVE_BITS;
+    
+    /**
+     * Mask of move's bits.
+     */
+    protected static final long MOVE_MASK = (1L << MOVE_BITS) - 1;
+    
+    /**
+     * Flag of move's code showing that a box has been pushed.
+     */
+    protected static final int PUSH_FLAG = 1;
+    
+    /**
+     * Directions indexed by direction's bits of move's code.
+     */
+    protected static final Direction[] DIRECTIONS = new Direction[] {
+        Direction.UP,
+        Direction.RIGHT,
+        Direction.DOWN,
+        Direction.LEFT
+    };
+    
+    /**
+     * Packed moves.
+     */
+    protected long[] items = new long[16];
+    
+    /**
+     * Count of moves.
+     */
+    protected int size = 0;
+    
+    /**
+     * Retrieves count of moves.
+     * 
+     * @return
+     *      Moves' count.
+     */
+    public int size() {
+        
+        return size;
+    }
+    
+    /**
+     * Appends a move to history.
+     * 
+     * @param moveInformation
+     *      Move's information.
+     * @throws IllegalArgumentException
+     *      If the move is empty.
+     */
+    public void add(MoveInformation moveInformation) {
+        
+        add(moveInformation.getDirection(), moveInformation.getType() == MoveType.WORKER_AND_BOX);
+    }
+    
+    /**
+     * Appends a move to history.
+     * 
+     * @param moveDirection
+     *      Move's direction.
+     * @param push
+     *      Shows whether a box has been pushed by the move.
+     * @throws IllegalArgumentException
+     *      If move's direction is {@link Direction#NONE}.
+     */
+    public void add(Direction moveDirection, boolean push) {
+        
+        if (moveDirection == null || moveDirection == Direction.NONE)
+            throw new IllegalArgumentException("Empty move can't be stored in history.");
+        
+        int itemIndex = size / MOVES_PER_ITEM;
+        if (itemIndex == items.length)
+            items = Arrays.copyOf(items, items.length * 2);
+        
+        // Moves following history's end may be left after truncation, so move's bits are overwritten
+        int shift = (size % MOVES_PER_ITEM) * MOVE_BITS;
+        long moveCode = (moveDirection.ordinal() - Direction.UP.ordinal()) << 1 | (push ? PUSH_FLAG : 0);
+        items[itemIndex] = (items[itemIndex] & ~(MOVE_MASK << shift)) | moveCode << shift;
+        size++;
+    }
+    
+    /**
+     * Retrieves move's code.
+     * 
+     * @param moveIndex
+     *      Move's index within the range [0; {@link #size()} - 1].
+     * @return
+     *      Move's code.
+     */
+    protected int getMoveCode(int moveIndex) {
+        
+        if (moveIndex < 0 || moveIndex >= size)
+            throw new IndexOutOfBoundsException("Move's index: " + moveIndex + ", size: " + size);
+        
+        return (int)(items[moveIndex / MOVES_PER_ITEM] >>> (moveIndex % MOVES_PER_ITEM) * MOVE_BITS & MOVE_MASK);
+    }
+    
+    /**
+     * Retrieves a move.
+     * 
+     * @param moveIndex
+     *      Move's index within the range [0; {@link #size()} - 1].
+     * @return
+     *      Move's information.
+     */
+    public MoveInformation get(int moveIndex) {
+        
+        int moveCode = getMoveCode(moveIndex);
+        return MoveInformation.valueOf((moveCode & PUSH_FLAG) != 0 ? MoveType.WORKER_AND_BOX : MoveType.WORKER,
+                DIRECTIONS[moveCode >>> 1]);
+    }
+    
+    /**
+     * Retrieves move's direction.
+     * 
+     * @param moveIndex
+     *      Move's index within the range [0; {@link #size()} - 1].
+     * @return
+     *      Move's direction.
+     */
+    public Direction getDirection(int moveIndex) {
+        
+        return DIRECTIONS[getMoveCode(moveIndex) >>> 1];
+    }
+    
+    /**
+     * Checks whether a box has been pushed by a move.
+     * 
+     * @param moveIndex
+     *      Move's index within the range [0; {@link #size()} - 1].
+     * @return
+     *      {@code true} if the move is a push, {@code false} otherwise.
+     */
+    public boolean isPush(int moveIndex) {
+        
+        return (getMoveCode(moveIndex) & PUSH_FLAG) != 0;
+    }
+    
+    /**
+     * Removes moves following specified count of moves.
+     * 
+     * @param size
+     *      Count of moves to keep.
+     */
+    public void truncate(int size) {
+        
+        if (size >= 0 && size < this.size)
+            this.size = size;
+    }
+    
+    /**
+     * Removes all moves.
+     */
+    public void clear() {
+        
+        size = 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,451 @@
+package org.ezze.games.storekeeper;
+
+import org.ezze.games.storekeeper.Level.Direction;
+
+/**
+ * This class looks for worker's paths on a board of {@link LevelEngine}.
+ * 
+ * Two kinds of paths are found by breadth-first searches over engine's current position:
+ * the shortest worker's walk to a position and the path pushing a box to a position
+ * with the least pushes count. Found path is kept as a sequence of moves' directions
+ * to be performed by {@link LevelEngine#move(org.ezze.games.storekeeper.Level.Direction, boolean)}.
+ * 
+ * Searches' queues and marks of visited positions are allocated once per board
+ * and a mark is incremented instead of clearing them, so repeated searches
+ * don't allocate anything unless a longer path is found. An instance must be
+ * used by engine's thread only (see {@link LevelEngine#getPathFinder()}).
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ */
+public class PathFinder {
+    
+    /**
+     * Directions of moves indexed by direction's code used by the searches.
+     * 
+     * Opposite direction's code is {@code (code + 2) % 4}.
+     */
+    protected static final Direction[] DIRECTIONS = new Direction[] {
+        Direction.UP,
+        Direction.RIGHT,
+        Direction.DOWN,
+        Direction.LEFT
+    };
+    
+    /**
+     * Engine whose position is searched.
+     */
+    protected final LevelEngine engine;
+    
+    /**
+     * A direct reference to board's items.
+     */
+    protected final byte[] items;
+    
+    /**
+     * Board's width.
+     */
+    protected final int width;
+    
+    /**
+     * Board's height.
+     */
+    protected final int height;
+    
+    /**
+     * Neighbour positions indexed by {@code position * 4 + direction}, {@code -1} stands for board's edge.
+     */
+    protected final int[] neighbours;
+    
+    /**
+     * Queue of worker's walking search.
+     */
+    protected final int[] walkQueue;
+    
+    /**
+     * Marks of positions visited by worker's walking search.
+     */
+    protected final int[] walkMarks;
+    
+    /**
+     * Direction codes leading to positions visited by worker's walking search.
+     */
+    protected final byte[] walkDirections;
+    
+    /**
+     * Current mark of worker's walking search.
+     */
+    protected int walkMark = 0;
+    
+    /**
+     * Queue of box' pushing search.
+     * 
+     * A state of the search is {@code position * 4 + side} where the box is at
+     * {@code position} and the worker is next to it on the {@code side}.
+     */
+    protected final int[] pushQueue;
+    
+    /**
+     * Marks of states visited by box' pushing search.
+     */
+    protected final int[] pushMarks;
+    
+    /**
+     * Previous states of states visited by box' pushing search, {@code -1} for initial ones.
+     */
+    protected final int[] pushParents;
+    
+    /**
+     * Current mark of box' pushing search.
+     */
+    protected int pushMark = 0;
+    
+    /**
+     * Position of a box moved by the search or {@code -1}.
+     */
+    protected int movedBoxPosition = -1;
+    
+    /**
+     * Position where the moved box is placed by the search or {@code -1}.
+     */
+    protected int movedBoxCurrentPosition = -1;
+    
+    /**
+     * Directions of found path's moves.
+     */
+    protected Direction[] path;
+    
+    /**
+     * Count of found path's moves.
+     */
+    protected int pathLength = 0;
+    
+    /**
+     * Creates path finder of specified engine.
+     * 
+     * @param engine
+     *      Engine whose position is to be searched.
+     */
+    public PathFinder(LevelEngine engine) {
+        
+        this.engine = engine;
+        LevelBoard board = engine.getBoard();
+        items = board.getItems();
+        width = board.getWidth();
+        height = board.getHeight();
+        
+        int cellsCount = items.length;
+        neighbours = new int[cellsCount * 4];
+        for (int position = 0; position < cellsCount; position++) {
+            
+            int line = position / width;
+            int column = position % width;
+            neighbours[position * 4] = line > 0 ? position - width : -1;
+            neighbours[position * 4 + 1] = column < width - 1 ? position + 1 : -1;
+            neighbours[position * 4 + 2] = line < height - 1 ? position + width : -1;
+            neighbours[position * 4 + 3] = column > 0 ? position - 1 : -1;
+        }
+        
+        walkQueue = new int[cellsCount];
+        walkMarks = new int[cellsCount];
+        walkDirections = new byte[cellsCount];
+        pushQueue = new int[cellsCount * 4];
+        pushMarks = new int[cellsCount * 4];
+        pushParents = new int[cellsCount * 4];
+        path = new Direction[cellsCount];
+    }
+    
+    /**
+     * Retrieves count of found path's moves.
+     * 
+     * @return
+     *      Moves count of the last found path.
+     */
+    public int getPathLength() {
+        
+        return pathLength;
+    }
+    
+    /**
+     * Retrieves a direction of found path's move.
+     * 
+     * @param moveIndex
+     *      Move's index within the range [0; {@link #getPathLength()} - 1].
+     * @return
+     *      Move's direction.
+     */
+    public Direction getPathDirection(int moveIndex) {
+        
+        return path[moveIndex];
+    }
+    
+    /**
+     * Looks for the shortest worker's walk to specified position.
+     * 
+     * Boxes are not pushed by the walk.
+     * 
+     * @param line
+     *      Destination's line index.
+     * @param column
+     *      Destination's column index.
+     * @return
+     *      {@code true} if the path has been found, {@code false} otherwise.
+     */
+    public boolean findWorkerPath(int line, int column) {
+        
+        pathLength = 0;
+        if (line < 0 || line >= height || column < 0 || column >= width)
+            return false;
+        
+        int targetPosition = line * width + column;
+        int workerPosition = engine.getWorkerY() * width + engine.getWorkerX();
+        if (!isFree(targetPosition))
+            return false;
+        
+        if (!markWalk(workerPosition, targetPosition))
+            return false;
+        
+        appendWalk(workerPosition, targetPosition);
+        return true;
+    }
+    
+    /**
+     * Looks for a path pushing specified box to specified position.
+     * 
+     * The path has the least pushes count possible while other boxes stay
+     * in place, worker's walks between pushes are the shortest ones.
+     * 
+     * @param boxLine
+     *      Box' line index.
+     * @param boxColumn
+     *      Box' column index.
+     * @param line
+     *      Destination's line index.
+     * @param column
+     *      Destination's column index.
+     * @return
+     *      {@code true} if the path has been found, {@code false} otherwise.
+     */
+    public boolean findBoxPath(int boxLine, int boxColumn, int line, int column) {
+        
+        pathLength = 0;
+        if (boxLine < 0 || boxLine >= height || boxColumn < 0 || boxColumn >= width ||
+                line < 0 || line >= height || column < 0 || column >= width) {
+            
+            return false;
+        }
+        
+        int boxPosition = boxLine * width + boxColumn;
+        int targetPosition = line * width + column;
+        if ((items[boxPosition] & LevelBoard.FLAG_BOX) == 0)
+            return false;
+        if (boxPosition == targetPosition)
+            return true;
+        
+        movedBoxPosition = boxPosition;
+        try {
+            
+            if (!isFree(targetPosition))
+                return false;
+            
+            int targetState = searchPushes(boxPosition, targetPosition);
+            if (targetState < 0)
+                return false;
+            
+            // Collecting states from the initial one, the queue is not needed anymore
+            int statesCount = 0;
+            for (int state = targetState; state >= 0; state = pushParents[state])
+                pushQueue[statesCount++] = state;
+            
+            int workerPosition = engine.getWorkerY() * width + engine.getWorkerX();
+            for (int stateIndex = statesCount - 2; stateIndex >= 0; stateIndex--) {
+                
+                // Walking to the box from the side of the state
+                int previousBoxPosition = pushQueue[stateIndex + 1] / 4;
+                int side = pushQueue[stateIndex] % 4;
+                int pushPosition = neighbours[previousBoxPosition * 4 + side];
+                movedBoxCurrentPosition = previousBoxPosition;
+                markWalk(workerPosition, pushPosition);
+                appendWalk(workerPosition, pushPosition);
+                
+                // Pushing the box
+                ensurePathCapacity(pathLength + 1);
+                path[pathLength++] = DIRECTIONS[(side + 2) % 4];
+                workerPosition = previousBoxPosition;
+            }
+            
+            return true;
+        }
+        finally {
+            
+            movedBoxPosition = -1;
+            movedBoxCurrentPosition = -1;
+        }
+    }
+    
+    /**
+     * Searches box' pushes breadth-first from engine's current position.
+     * 
+     * @param boxPosition
+     *      Box' initial position.
+     * @param targetPosition
+     *      Box' destination position.
+     * @return
+     *      A state with the box at destination position or {@code -1} if it can't be reached.
+     */
+    protected int searchPushes(int boxPosition, int targetPosition) {
+        
+        pushMark++;
+        int queueHead = 0;
+        int queueTail = 0;
+        
+        // Initial states are the sides of the box reachable by the worker
+        movedBoxCurrentPosition = boxPosition;
+        markWalk(engine.getWorkerY() * width + engine.getWorkerX(), -1);
+        for (int side = 0; side < 4; side++) {
+            
+            int sidePosition = neighbours[boxPosition * 4 + side];
+            if (sidePosition >= 0 && walkMarks[sidePosition] == walkMark) {
+                
+                int state = boxPosition * 4 + side;
+                pushMarks[state] = pushMark;
+                pushParents[state] = -1;
+                pushQueue[queueTail++] = state;
+            }
+        }
+        
+        while (queueHead < queueTail) {
+            
+            int state = pushQueue[queueHead++];
+            int position = state / 4;
+            
+            // Any side of the box reachable from the side of the state can push it
+            movedBoxCurrentPosition = position;
+            markWalk(neighbours[position * 4 + state % 4], -1);
+            for (int side = 0; side < 4; side++) {
+                
+                int sidePosition = neighbours[position * 4 + side];
+                if (sidePosition < 0 || walkMarks[sidePosition] != walkMark)
+                    continue;
+                
+                int nextPosition = neighbours[position * 4 + (side + 2) % 4];
+                if (nextPosition < 0 || !isFree(nextPosition))
+                    continue;
+                
+                int nextState = nextPosition * 4 + side;
+                if (pushMarks[nextState] == pushMark)
+                    continue;
+                
+                pushMarks[nextState] = pushMark;
+                pushParents[nextState] = state;
+                if (nextPosition == targetPosition)
+                    return nextState;
+                pushQueue[queueTail++] = nextState;
+            }
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Checks whether the worker or a box can be placed at specified position.
+     * 
+     * @param position
+     *      Position's index.
+     * @return
+     *      {@code true} if there is neither a wall nor a box, {@code false} otherwise.
+     */
+    protected boolean isFree(int position) {
+        
+        if (position == movedBoxCurrentPosition)
+            return false;
+        
+        byte item = items[position];
+        return (item & LevelBoard.FLAG_BRICK) == 0 && ((item & LevelBoard.FLAG_BOX) == 0 || position == movedBoxPosition);
+    }
+    
+    /**
+     * Marks positions reachable by the worker's walking with {@link #walkMark}.
+     * 
+     * The search stops as soon as destination position is reached.
+     * 
+     * @param workerPosition
+     *      Worker's position.
+     * @param targetPosition
+     *      Destination position or {@code -1} to mark all reachable positions.
+     * @return
+     *      {@code true} if destination position is reachable, {@code false} otherwise.
+     */
+    protected boolean markWalk(int workerPosition, int targetPosition) {
+        
+        walkMark++;
+        int queueHead = 0;
+        int queueTail = 0;
+        walkQueue[queueTail++] = workerPosition;
+        walkMarks[workerPosition] = walkMark;
+        if (workerPosition == targetPosition)
+            return true;
+        
+        while (queueHead < queueTail) {
+            
+            int position = walkQueue[queueHead++];
+            for (int direction = 0; direction < 4; direction++) {
+                
+                int nextPosition = neighbours[position * 4 + direction];
+                if (nextPosition < 0 || walkMarks[nextPosition] == walkMark || !isFree(nextPosition))
+                    continue;
+                
+                walkMarks[nextPosition] = walkMark;
+                walkDirections[nextPosition] = (byte)direction;
+                if (nextPosition == targetPosition)
+                    return true;
+                walkQueue[queueTail++] = nextPosition;
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Appends a walk found by {@link #markWalk(int, int)} to the path.
+     * 
+     * @param workerPosition
+     *      Walk's start position.
+     * @param targetPosition
+     *      Walk's destination position.
+     */
+    protected void appendWalk(int workerPosition, int targetPosition) {
+        
+        int walkLength = 0;
+        for (int position = targetPosition; position != workerPosition;
+                position = neighbours[position * 4 + (walkDirections[position] + 2) % 4]) {
+            
+            walkLength++;
+        }
+        
+        ensurePathCapacity(pathLength + walkLength);
+        int moveIndex = pathLength + walkLength;
+        for (int position = targetPosition; position != workerPosition;
+                position = neighbours[position * 4 + (walkDirections[position] + 2) % 4]) {
+            
+            path[--moveIndex] = DIRECTIONS[walkDirections[position]];
+        }
+        pathLength += walkLength;
+    }
+    
+    /**
+     * Grows path's storage if it's necessary.
+     * 
+     * @param capacity
+     *      Required count of path's moves.
+     */
+    protected void ensurePathCapacity(int capacity) {
+        
+        if (capacity <= path.length)
+            return;
+        
+        Direction[] grownPath = new Direction[Math.max(capacity, path.length * 2)];
+        System.arraycopy(path, 0, grownPath, 0, pathLength);
+        path = grownPath;
+    }
+}
\ No newline at end of file
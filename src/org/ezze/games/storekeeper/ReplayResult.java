@@ -0,0 +1,119 @@
+package org.ezze.games.storekeeper;
+
+/**
+ * This class describes an outcome of moves' replay by {@link LurdReplayer}.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ */
+public class ReplayResult {
+    
+    /**
+     * Count of moves performed before the replay has stopped.
+     */
+    protected final int movesCount;
+    
+    /**
+     * Count of pushes performed before the replay has stopped.
+     */
+    protected final int pushesCount;
+    
+    /**
+     * Index of the first illegal move or {@code -1} if all moves are legal.
+     */
+    protected final int illegalMoveIndex;
+    
+    /**
+     * Shows whether all boxes have been placed on the goals after the replay.
+     */
+    protected final boolean solved;
+    
+    /**
+     * Creates replay's result.
+     * 
+     * @param movesCount
+     *      Count of moves performed before the replay has stopped.
+     * @param pushesCount
+     *      Count of pushes performed before the replay has stopped.
+     * @param illegalMoveIndex
+     *      Index of the first illegal move or {@code -1} if all moves are legal.
+     * @param solved
+     *      Shows whether all boxes have been placed on the goals after the replay.
+     */
+    public ReplayResult(int movesCount, int pushesCount, int illegalMoveIndex, boolean solved) {
+        
+        this.movesCount = movesCount;
+        this.pushesCount = pushesCount;
+        this.illegalMoveIndex = illegalMoveIndex;
+        this.solved = solved;
+    }
+    
+    /**
+     * Retrieves count of performed moves.
+     * 
+     * @return
+     *      Count of legal moves performed before the replay has stopped.
+     */
+    public int getMovesCount() {
+        
+        return movesCount;
+    }
+    
+    /**
+     * Retrieves count of performed pushes.
+     * 
+     * @return
+     *      Count of pushes performed before the replay has stopped.
+     */
+    public int getPushesCount() {
+        
+        return pushesCount;
+    }
+    
+    /**
+     * Retrieves index of the first illegal move.
+     * 
+     * A move is illegal if the worker can't perform it, if its type doesn't match
+     * worker's actual move or if it's not a move at all (e.g. a wrong character).
+     * 
+     * @return
+     *      Move's index or {@code -1} if all moves are legal.
+     */
+    public int getIllegalMoveIndex() {
+        
+        return illegalMoveIndex;
+    }
+    
+    /**
+     * Checks whether all moves are legal.
+     * 
+     * @return
+     *      {@code true} if all moves have been performed, {@code false} otherwise.
+     */
+    public boolean isLegal() {
+        
+        return illegalMoveIndex < 0;
+    }
+    
+    /**
+     * Checks whether all boxes have been placed on the goals.
+     * 
+     * @return
+     *      {@code true} if the level is completed after the replay, {@code false} otherwise.
+     */
+    public boolean isSolved() {
+        
+        return solved;
+    }
+    
+    /**
+     * Checks whether replayed moves are a valid solution.
+     * 
+     * @return
+     *      {@code true} if all moves are legal and the level is completed, {@code false} otherwise.
+     */
+    public boolean isValidSolution() {
+        
+        return isLegal() && solved;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,260 @@
+package org.ezze.games.storekeeper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class reads levels from SOK source line by line.
+ * 
+ * A level is a block of consecutive lines consisting of level's items only
+ * (see {@link Level#allowedLevelItems}). Level's information is taken from lines
+ * following the block: "Title" and "Author" lines of {@code Name: value} form
+ * are recognized while the last non-empty line preceding next level's block
+ * is skipped as it usually names that level. If no title is found level's name
+ * is the nearest line preceding level's block which is not of {@code Name: value} form.
+ * 
+ * Only the lines of a level being read and a few information lines are kept
+ * in memory, so a level is returned as soon as its information block ends
+ * (i.e. the next level starts or the source is over) no matter how large the source is.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ * @see LevelsSet#loadFromSOKFile(java.lang.String)
+ */
+public class SOKReader implements Closeable {
+    
+    /**
+     * Pattern of level's information line.
+     */
+    protected static final Pattern INFO_PATTERN = Pattern.compile("^([A-Za-z ]+):(.+)$");
+    
+    /**
+     * Shows whether a character may be used in a level's line indexed by character's code.
+     */
+    protected static final boolean[] LEVEL_CHARACTERS = new boolean[128];
+    static {
+        
+        for (Character levelItem : Level.allowedLevelItems)
+            LEVEL_CHARACTERS[levelItem] = true;
+    }
+    
+    /**
+     * Source's reader.
+     */
+    protected final BufferedReader reader;
+    
+    /**
+     * Lines of level's block being read.
+     */
+    protected ArrayList<String> blockLines = null;
+    
+    /**
+     * Name found before level's block being read.
+     */
+    protected String blockName = null;
+    
+    /**
+     * Lines of the last read level's block waiting for level's information.
+     */
+    protected ArrayList<String> pendingLines = null;
+    
+    /**
+     * Name found before the last read level's block.
+     */
+    protected String pendingName = null;
+    
+    /**
+     * Information of the last read level.
+     */
+    protected HashMap<String, Object> pendingInfo = null;
+    
+    /**
+     * The last non-empty line following the last read level's block,
+     * it's not yet known whether it's an information line.
+     */
+    protected String lastInfoLine = null;
+    
+    /**
+     * The last non-empty line after the last level's block that
+     * is not of {@code Name: value} form.
+     */
+    protected String lastNameLine = null;
+    
+    /**
+     * Shows whether the source is over.
+     */
+    protected boolean isFinished = false;
+    
+    /**
+     * Creates SOK reader.
+     * 
+     * @param reader
+     *      Source's reader.
+     */
+    public SOKReader(Reader reader) {
+        
+        this.reader = reader instanceof BufferedReader ? (BufferedReader)reader : new BufferedReader(reader);
+    }
+    
+    /**
+     * Reads next level of the source.
+     * 
+     * @return
+     *      Level's instance or {@code null} if there are no more levels.
+     * @throws IOException
+     *      If reading of the source fails.
+     */
+    public Level readLevel() throws IOException {
+        
+        while (!isFinished) {
+            
+            String fileLine = reader.readLine();
+            if (fileLine == null) {
+                
+                isFinished = true;
+                
+                // The last line of a block ending the source is a part of level's information
+                if (blockLines != null) {
+                    
+                    blockLines.remove(blockLines.size() - 1);
+                    completeBlock();
+                }
+                
+                return createPendingLevel();
+            }
+            
+            // Trimming the line from the right
+            int lineLength = fileLine.length();
+            while (lineLength > 0 && fileLine.charAt(lineLength - 1) == ' ')
+                lineLength--;
+            if (lineLength < fileLine.length())
+                fileLine = fileLine.substring(0, lineLength);
+            
+            if (isLevelLine(fileLine)) {
+                
+                Level level = null;
+                if (blockLines == null) {
+                    
+                    // Next level's block finishes information of the last level
+                    level = createPendingLevel();
+                    blockLines = new ArrayList<String>();
+                    blockName = lastNameLine;
+                    lastNameLine = null;
+                    lastInfoLine = null;
+                }
+                
+                blockLines.add(fileLine);
+                if (level != null)
+                    return level;
+            }
+            else {
+                
+                if (blockLines != null)
+                    completeBlock();
+                
+                if (!fileLine.isEmpty()) {
+                    
+                    // Previous non-empty line is not the last one, so it can be level's information
+                    if (lastInfoLine != null && pendingInfo != null)
+                        readInfoLine(lastInfoLine);
+                    lastInfoLine = fileLine;
+                    if (!INFO_PATTERN.matcher(fileLine).matches())
+                        lastNameLine = fileLine;
+                }
+            }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Checks whether a line describes level's row.
+     * 
+     * @param fileLine
+     *      Line to check.
+     * @return
+     *      {@code true} if the line is non-empty and consists of level's items only, {@code false} otherwise.
+     */
+    protected static boolean isLevelLine(String fileLine) {
+        
+        if (fileLine.isEmpty())
+            return false;
+        
+        for (int characterIndex = 0; characterIndex < fileLine.length(); characterIndex++) {
+            
+            char levelCharacter = fileLine.charAt(characterIndex);
+            if (levelCharacter >= LEVEL_CHARACTERS.length || !LEVEL_CHARACTERS[levelCharacter])
+                return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Finishes level's block being read and starts gathering level's information.
+     */
+    protected void completeBlock() {
+        
+        pendingLines = blockLines;
+        pendingName = blockName;
+        pendingInfo = new HashMap<String, Object>();
+        blockLines = null;
+        blockName = null;
+    }
+    
+    /**
+     * Analyzes information line of the last read level.
+     * 
+     * The first title and author lines are taken.
+     * 
+     * @param infoLine
+     *      Non-empty line following level's block.
+     */
+    protected void readInfoLine(String infoLine) {
+        
+        Matcher infoMatcher = INFO_PATTERN.matcher(infoLine);
+        if (!infoMatcher.matches())
+            return;
+        
+        String infoName = infoMatcher.group(1).trim().toLowerCase();
+        String infoValue = infoMatcher.group(2).trim();
+        if (infoName.equals("title") && !pendingInfo.containsKey("name"))
+            pendingInfo.put("name", infoValue);
+        else if (infoName.equals("author") && !pendingInfo.containsKey("author"))
+            pendingInfo.put("author", infoValue);
+    }
+    
+    /**
+     * Creates the last read level.
+     * 
+     * @return
+     *      Level's instance or {@code null} if there is no read level.
+     */
+    protected Level createPendingLevel() {
+        
+        if (pendingLines == null)
+            return null;
+        
+        // Checking whether level's name is found
+        if (!pendingInfo.containsKey("name") && pendingName != null)
+            pendingInfo.put("name", pendingName.trim());
+        
+        Level level = new Level(pendingLines, pendingInfo);
+        pendingLines = null;
+        pendingName = null;
+        pendingInfo = null;
+        return level;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        
+        reader.close();
+    }
+}
\ No newline at end of file
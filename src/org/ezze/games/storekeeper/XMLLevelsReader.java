@@ -0,0 +1,207 @@
+package org.ezze.games.storekeeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * This class reads levels from XML source with a pull parser.
+ * 
+ * Each {@code level} element is a level, its rows are the texts of its {@code l}
+ * elements and its name is the text of its first {@code name} element.
+ * Set's name is the text of the first {@code name} element of the source
+ * just like {@link LevelsSet#loadFromDOM(org.w3c.dom.Document)} takes it.
+ * 
+ * The source is never kept in memory entirely, a level is returned as soon as
+ * its element ends.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ * @see LevelsSet#loadFromXMLFile(java.lang.String)
+ */
+public class XMLLevelsReader implements Closeable {
+    
+    /**
+     * Factory of pull parsers.
+     */
+    protected static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
+    static {
+        
+        INPUT_FACTORY.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    }
+    
+    /**
+     * Source's stream.
+     */
+    protected final InputStream inputStream;
+    
+    /**
+     * Source's pull parser.
+     */
+    protected final XMLStreamReader reader;
+    
+    /**
+     * Set's name.
+     */
+    protected String name = null;
+    
+    /**
+     * Creates XML reader.
+     * 
+     * @param inputStream
+     *      Source's stream, its encoding is detected from XML declaration.
+     * @throws IOException
+     *      If the source can't be parsed.
+     */
+    public XMLLevelsReader(InputStream inputStream) throws IOException {
+        
+        this.inputStream = inputStream;
+        try {
+            
+            reader = INPUT_FACTORY.createXMLStreamReader(inputStream);
+        }
+        catch (XMLStreamException ex) {
+            
+            throw new IOException(ex.getMessage(), ex);
+        }
+    }
+    
+    /**
+     * Retrieves set's name.
+     * 
+     * @return
+     *      Set's name or {@code null} if it's not read yet or there is no one.
+     */
+    public String getName() {
+        
+        return name;
+    }
+    
+    /**
+     * Reads next level of the source.
+     * 
+     * Level elements without rows are skipped.
+     * 
+     * @return
+     *      Level's instance or {@code null} if there are no more levels.
+     * @throws IOException
+     *      If the source can't be parsed.
+     */
+    public Level readLevel() throws IOException {
+        
+        try {
+            
+            while (reader.hasNext()) {
+                
+                if (reader.next() != XMLStreamConstants.START_ELEMENT)
+                    continue;
+                
+                String elementName = reader.getLocalName();
+                if (elementName.equals("name") && name == null)
+                    name = readText();
+                else if (elementName.equals("level")) {
+                    
+                    Level level = readLevelElement();
+                    if (level != null)
+                        return level;
+                }
+            }
+        }
+        catch (XMLStreamException ex) {
+            
+            throw new IOException(ex.getMessage(), ex);
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Reads level's element the parser is positioned at.
+     * 
+     * @return
+     *      Level's instance or {@code null} if the element has no level's rows.
+     * @throws XMLStreamException
+     *      If the source can't be parsed.
+     */
+    protected Level readLevelElement() throws XMLStreamException {
+        
+        String levelName = null;
+        ArrayList<String> levelLines = new ArrayList<String>();
+        int depth = 1;
+        while (depth > 0) {
+            
+            int eventType = reader.next();
+            if (eventType == XMLStreamConstants.END_ELEMENT) {
+                
+                depth--;
+            }
+            else if (eventType == XMLStreamConstants.START_ELEMENT) {
+                
+                String elementName = reader.getLocalName();
+                if (elementName.equals("l"))
+                    levelLines.add(readText());
+                else if (elementName.equals("name") && levelName == null) {
+                    
+                    levelName = readText();
+                    if (name == null)
+                        name = levelName;
+                }
+                else
+                    depth++;
+            }
+        }
+        
+        return LevelsSet.createLevelFromLines(levelLines, levelName);
+    }
+    
+    /**
+     * Reads the whole text of element the parser is positioned at.
+     * 
+     * Texts of nested elements are included, the parser is left at element's end.
+     * 
+     * @return
+     *      Element's text.
+     * @throws XMLStreamException
+     *      If the source can't be parsed.
+     */
+    protected String readText() throws XMLStreamException {
+        
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            
+            int eventType = reader.next();
+            if (eventType == XMLStreamConstants.START_ELEMENT)
+                depth++;
+            else if (eventType == XMLStreamConstants.END_ELEMENT)
+                depth--;
+            else if (eventType == XMLStreamConstants.CHARACTERS || eventType == XMLStreamConstants.CDATA ||
+                    eventType == XMLStreamConstants.SPACE)
+                text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+        }
+        
+        return text.toString();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        
+        try {
+            
+            reader.close();
+        }
+        catch (XMLStreamException ex) {
+            
+        }
+        finally {
+            
+            inputStream.close();
+        }
+    }
+}
\ No newline at end of file
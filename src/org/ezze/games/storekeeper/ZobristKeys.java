@@ -0,0 +1,133 @@
+package org.ezze.games.storekeeper;
+
+/**
+ * This class provides Zobrist keys to hash level's positions.
+ * 
+ * A position's hash is a XOR of keys of all boxes and a key of the worker's
+ * normalized position (the least position reachable by the worker). Keys are
+ * derived from a fixed seed and from items' coordinates relative to level's origin,
+ * so hashes of the same position are equal for boards of different sizes
+ * and between application's sessions.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ * @see LevelEngine#getPositionHash()
+ */
+public class ZobristKeys {
+    
+    /**
+     * Seed of keys' generation.
+     */
+    public static final long SEED = 0x5F3759DF2B7E1516L;
+    
+    /**
+     * Keys of boxes indexed by position.
+     */
+    protected final long[] boxKeys;
+    
+    /**
+     * Keys of worker's normalized position indexed by position.
+     */
+    protected final long[] workerKeys;
+    
+    /**
+     * Creates keys for a board with origin at its top left corner.
+     * 
+     * @param width
+     *      Board's width.
+     * @param height
+     *      Board's height.
+     */
+    public ZobristKeys(int width, int height) {
+        
+        this(width, height, 0, 0);
+    }
+    
+    /**
+     * Creates keys for a board containing a level at specified offset.
+     * 
+     * @param width
+     *      Board's width.
+     * @param height
+     *      Board's height.
+     * @param originLine
+     *      Line of level's first item on the board.
+     * @param originColumn
+     *      Column of level's first item on the board.
+     */
+    public ZobristKeys(int width, int height, int originLine, int originColumn) {
+        
+        int cellsCount = width * height;
+        boxKeys = new long[cellsCount];
+        workerKeys = new long[cellsCount];
+        for (int position = 0; position < cellsCount; position++) {
+            
+            long line = position / width - originLine;
+            long column = position % width - originColumn;
+            long cell = (line << 32) ^ (column & 0xFFFFFFFFL);
+            boxKeys[position] = mix(SEED ^ mix(cell << 1));
+            workerKeys[position] = mix(SEED ^ mix((cell << 1) | 1));
+        }
+    }
+    
+    /**
+     * Mixes bits of specified value (SplitMix64's finalizer).
+     * 
+     * @param value
+     *      Value to mix.
+     * @return
+     *      Mixed value.
+     */
+    protected static long mix(long value) {
+        
+        value += 0x9E3779B97F4A7C15L;
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+    
+    /**
+     * Retrieves a key of a box at specified position.
+     * 
+     * @param position
+     *      Position's index.
+     * @return
+     *      Box' key.
+     */
+    public long getBoxKey(int position) {
+        
+        return boxKeys[position];
+    }
+    
+    /**
+     * Retrieves a key of worker's normalized position.
+     * 
+     * @param position
+     *      Index of the least position reachable by the worker.
+     * @return
+     *      Worker's key.
+     */
+    public long getWorkerKey(int position) {
+        
+        return workerKeys[position];
+    }
+    
+    /**
+     * Calculates a hash of all boxes on the board.
+     * 
+     * @param items
+     *      Board's items.
+     * @return
+     *      Boxes' hash.
+     */
+    public long getBoxesHash(byte[] items) {
+        
+        long boxesHash = 0;
+        for (int position = 0; position < items.length; position++) {
+            
+            if ((items[position] & LevelBoard.FLAG_BOX) != 0)
+                boxesHash ^= boxKeys[position];
+        }
+        return boxesHash;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,215 @@
+package org.ezze.games.storekeeper.batch;
+
+import org.ezze.games.storekeeper.Level.LevelState;
+import org.ezze.games.storekeeper.solver.SolverResult;
+
+/**
+ * This class describes results of a single level's verification
+ * performed by {@link LevelsSetVerifier}.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.2
+ */
+public class LevelVerification {
+    
+    /**
+     * Level's index in the set.
+     */
+    protected final int levelIndex;
+    
+    /**
+     * Level's name.
+     */
+    protected final String levelName;
+    
+    /**
+     * Level's state determined by validation.
+     */
+    protected final LevelState levelState;
+    
+    /**
+     * Count of level's boxes.
+     */
+    protected final int boxesCount;
+    
+    /**
+     * Shows whether level's initial position is deadlocked.
+     */
+    protected final boolean deadlocked;
+    
+    /**
+     * Solving result or {@code null} if level has not been solved.
+     */
+    protected final SolverResult solverResult;
+    
+    /**
+     * Time of level's verification in milliseconds.
+     */
+    protected final long elapsedTime;
+    
+    /**
+     * Description of an unexpected failure of level's verification or {@code null}.
+     */
+    protected final String error;
+    
+    /**
+     * Creates level's verification result.
+     * 
+     * @param levelIndex
+     *      Level's index in the set.
+     * @param levelName
+     *      Level's name.
+     * @param levelState
+     *      Level's state determined by validation.
+     * @param boxesCount
+     *      Count of level's boxes.
+     * @param deadlocked
+     *      Shows whether level's initial position is deadlocked.
+     * @param solverResult
+     *      Solving result or {@code null} if level has not been solved.
+     * @param elapsedTime
+     *      Time of level's verification in milliseconds.
+     */
+    public LevelVerification(int levelIndex, String levelName, LevelState levelState, int boxesCount,
+            boolean deadlocked, SolverResult solverResult, long elapsedTime) {
+        
+        this(levelIndex, levelName, levelState, boxesCount, deadlocked, solverResult, elapsedTime, null);
+    }
+    
+    /**
+     * Creates level's verification result.
+     * 
+     * @param levelIndex
+     *      Level's index in the set.
+     * @param levelName
+     *      Level's name.
+     * @param levelState
+     *      Level's state determined by validation.
+     * @param boxesCount
+     *      Count of level's boxes.
+     * @param deadlocked
+     *      Shows whether level's initial position is deadlocked.
+     * @param solverResult
+     *      Solving result or {@code null} if level has not been solved.
+     * @param elapsedTime
+     *      Time of level's verification in milliseconds.
+     * @param error
+     *      Description of an unexpected failure of level's verification or {@code null}.
+     */
+    public LevelVerification(int levelIndex, String levelName, LevelState levelState, int boxesCount,
+            boolean deadlocked, SolverResult solverResult, long elapsedTime, String error) {
+        
+        this.levelIndex = levelIndex;
+        this.levelName = levelName != null ? levelName : "";
+        this.levelState = levelState;
+        this.boxesCount = boxesCount;
+        this.deadlocked = deadlocked;
+        this.solverResult = solverResult;
+        this.elapsedTime = elapsedTime;
+        this.error = error;
+    }
+    
+    /**
+     * Retrieves level's index in the set.
+     * 
+     * @return
+     *      Level's index.
+     */
+    public int getLevelIndex() {
+        
+        return levelIndex;
+    }
+    
+    /**
+     * Retrieves level's name.
+     * 
+     * @return
+     *      Level's name or empty string if it's not determined.
+     */
+    public String getLevelName() {
+        
+        return levelName;
+    }
+    
+    /**
+     * Retrieves level's state determined by validation.
+     * 
+     * @return
+     *      Level's state.
+     */
+    public LevelState getLevelState() {
+        
+        return levelState;
+    }
+    
+    /**
+     * Retrieves count of level's boxes.
+     * 
+     * @return
+     *      Boxes count or {@code 0} if level is not playable.
+     */
+    public int getBoxesCount() {
+        
+        return boxesCount;
+    }
+    
+    /**
+     * Checks whether level's initial position is deadlocked.
+     * 
+     * @return
+     *      {@code true} if initial position is deadlocked, {@code false} otherwise.
+     */
+    public boolean isDeadlocked() {
+        
+        return deadlocked;
+    }
+    
+    /**
+     * Retrieves solving result.
+     * 
+     * @return
+     *      Solving result or {@code null} if level is not playable,
+     *      is deadlocked or solving is disabled.
+     */
+    public SolverResult getSolverResult() {
+        
+        return solverResult;
+    }
+    
+    /**
+     * Retrieves time of level's verification.
+     * 
+     * @return
+     *      Time in milliseconds.
+     */
+    public long getElapsedTime() {
+        
+        return elapsedTime;
+    }
+    
+    /**
+     * Retrieves description of an unexpected failure of level's verification.
+     * 
+     * @return
+     *      Failure's description or {@code null} if level has been verified.
+     * @see #isFailed()
+     */
+    public String getError() {
+        
+        return error;
+    }
+    
+    /**
+     * Checks whether level's verification has failed unexpectedly.
+     * 
+     * The outcome of a failed level is unknown, its solving result is {@code null}.
+     * 
+     * @return
+     *      {@code true} if verification has failed, {@code false} otherwise.
+     * @see #getError()
+     */
+    public boolean isFailed() {
+        
+        return error != null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package org.ezze.games.storekeeper.batch;
+
+/**
+ * This interface has a method to implement to
+ * be invoked after each level of a set will have been verified.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ * @see LevelsSetVerifier#verify(org.ezze.games.storekeeper.LevelsSet, org.ezze.games.storekeeper.batch.LevelVerificationListener)
+ */
+public interface LevelVerificationListener {
+    
+    /**
+     * Describes actions to do after level will have been verified.
+     * 
+     * Verifications are reported in order of their completion from the thread
+     * which has started set's verification.
+     * 
+     * @param levelVerification
+     *      Level's verification result.
+     */
+    public void levelVerified(LevelVerification levelVerification);
+}
\ No newline at end of file
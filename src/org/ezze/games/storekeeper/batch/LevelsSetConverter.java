@@ -0,0 +1,53 @@
+package org.ezze.games.storekeeper.batch;
+
+import org.ezze.games.storekeeper.LevelsSet;
+
+/**
+ * This class converts levels' sets to binary format without game's user interface.
+ * 
+ * The class can be run from command line:
+ * 
+ * <pre>
+ * java org.ezze.games.storekeeper.batch.LevelsSetConverter levels-set-file [binary-file]
+ * </pre>
+ * 
+ * Binary file's name is made of source file's name by appending
+ * {@link LevelsSet#BINARY_FILE_EXTENSION} if it's not specified.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ * @see LevelsSet#saveToBinaryFile(java.lang.String)
+ */
+public class LevelsSetConverter {
+    
+    /**
+     * Converts levels' set specified by command line's arguments.
+     * 
+     * @param args
+     *      Command line's arguments.
+     */
+    public static void main(String[] args) {
+        
+        if (args.length < 1 || args.length > 2) {
+            
+            System.err.println("Usage: LevelsSetConverter levels-set-file [binary-file]");
+            System.exit(1);
+        }
+        
+        String levelsSetFileName = args[0];
+        String binaryFileName = args.length > 1 ? args[1] : levelsSetFileName + LevelsSet.BINARY_FILE_EXTENSION;
+        
+        LevelsSet levelsSet = new LevelsSet(levelsSetFileName);
+        if (levelsSet.isEmpty()) {
+            
+            System.err.println("Unable to load levels' set " + levelsSetFileName);
+            System.exit(1);
+        }
+        
+        if (!levelsSet.saveToBinaryFile(binaryFileName)) {
+            
+            System.err.println("Unable to write binary levels' set " + binaryFileName);
+            System.exit(1);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,486 @@
+package org.ezze.games.storekeeper.batch;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.ezze.games.storekeeper.DeadlockAnalyzer;
+import org.ezze.games.storekeeper.Level;
+import org.ezze.games.storekeeper.LevelEngine;
+import org.ezze.games.storekeeper.LevelsSet;
+import org.ezze.games.storekeeper.solver.Solver;
+import org.ezze.games.storekeeper.solver.SolverResult;
+
+/**
+ * This class verifies all levels of a set without game's user interface.
+ * 
+ * Each level is validated (see {@link Level.LevelState}), its initial position
+ * is checked by {@link DeadlockAnalyzer} and then it's solved by {@link Solver}
+ * within per-level time, memory and states' count budgets. Levels are verified
+ * by a fixed pool of threads, each level is handled by a single thread with
+ * its own {@link LevelEngine} and solver, and results are passed to
+ * {@link LevelVerificationListener} as soon as each level is verified.
+ * A level whose verification fails unexpectedly (e.g. runs out of memory)
+ * is reported as failed and doesn't stop verification of other levels.
+ * 
+ * Memory required by the verification is about {@link #getThreadsCount()}
+ * multiplied by {@link #getMemoryLimit()}.
+ * 
+ * The class can be run from command line:
+ * 
+ * <pre>
+ * java org.ezze.games.storekeeper.batch.LevelsSetVerifier [-threads N] [-time MS] [-memory MB]
+ *         [-states N] [-ida] [-nosolve] levels-set-file [report-file]
+ * </pre>
+ * 
+ * XML report (see {@link VerificationReportWriter}) is written to standard output
+ * if report's file is not specified.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.2
+ */
+public class LevelsSetVerifier {
+    
+    /**
+     * Default time limit of a level's solving in milliseconds.
+     */
+    public static final long DEFAULT_TIME_LIMIT = 10000;
+    
+    /**
+     * Default memory limit of a level's solving in bytes.
+     */
+    public static final long DEFAULT_MEMORY_LIMIT = 64L * 1024 * 1024;
+    
+    /**
+     * Orders verification results by level's index.
+     */
+    protected static final Comparator<LevelVerification> LEVEL_INDEX_COMPARATOR = new Comparator<LevelVerification>() {
+        
+        @Override
+        public int compare(LevelVerification first, LevelVerification second) {
+            
+            return first.getLevelIndex() < second.getLevelIndex() ? -1 :
+                    (first.getLevelIndex() == second.getLevelIndex() ? 0 : 1);
+        }
+    };
+    
+    /**
+     * Count of threads verifying levels.
+     */
+    protected int threadsCount = Runtime.getRuntime().availableProcessors();
+    
+    /**
+     * Time limit of a level's solving in milliseconds.
+     */
+    protected long timeLimit = DEFAULT_TIME_LIMIT;
+    
+    /**
+     * Memory limit of a level's solving in bytes.
+     */
+    protected long memoryLimit = DEFAULT_MEMORY_LIMIT;
+    
+    /**
+     * Maximal count of states to expand while solving a level.
+     */
+    protected int maximalStatesCount = Solver.DEFAULT_MAXIMAL_STATES_COUNT;
+    
+    /**
+     * Search algorithm of levels' solving.
+     */
+    protected Solver.Algorithm algorithm = Solver.Algorithm.A_STAR;
+    
+    /**
+     * Shows whether levels must be solved.
+     */
+    protected boolean solving = true;
+    
+    /**
+     * Creates verifier with default settings.
+     */
+    public LevelsSetVerifier() {
+    }
+    
+    /**
+     * Retrieves count of threads verifying levels.
+     * 
+     * @return
+     *      Threads count.
+     */
+    public int getThreadsCount() {
+        
+        return threadsCount;
+    }
+    
+    /**
+     * Sets count of threads verifying levels.
+     * 
+     * @param threadsCount
+     *      Threads count, non-positive values are ignored.
+     */
+    public void setThreadsCount(int threadsCount) {
+        
+        if (threadsCount > 0)
+            this.threadsCount = threadsCount;
+    }
+    
+    /**
+     * Retrieves time limit of a level's solving.
+     * 
+     * @return
+     *      Time limit in milliseconds.
+     */
+    public long getTimeLimit() {
+        
+        return timeLimit;
+    }
+    
+    /**
+     * Sets time limit of a level's solving.
+     * 
+     * @param timeLimit
+     *      Time limit in milliseconds, non-positive values are ignored.
+     */
+    public void setTimeLimit(long timeLimit) {
+        
+        if (timeLimit > 0)
+            this.timeLimit = timeLimit;
+    }
+    
+    /**
+     * Retrieves memory limit of a level's solving.
+     * 
+     * @return
+     *      Memory limit in bytes.
+     */
+    public long getMemoryLimit() {
+        
+        return memoryLimit;
+    }
+    
+    /**
+     * Sets memory limit of a level's solving.
+     * 
+     * @param memoryLimit
+     *      Memory limit in bytes, non-positive values are ignored.
+     */
+    public void setMemoryLimit(long memoryLimit) {
+        
+        if (memoryLimit > 0)
+            this.memoryLimit = memoryLimit;
+    }
+    
+    /**
+     * Retrieves maximal count of states to expand while solving a level.
+     * 
+     * @return
+     *      Maximal states count.
+     */
+    public int getMaximalStatesCount() {
+        
+        return maximalStatesCount;
+    }
+    
+    /**
+     * Sets maximal count of states to expand while solving a level.
+     * 
+     * @param maximalStatesCount
+     *      Maximal states count, non-positive values are ignored.
+     */
+    public void setMaximalStatesCount(int maximalStatesCount) {
+        
+        if (maximalStatesCount > 0)
+            this.maximalStatesCount = maximalStatesCount;
+    }
+    
+    /**
+     * Retrieves search algorithm of levels' solving.
+     * 
+     * @return
+     *      Search algorithm.
+     */
+    public Solver.Algorithm getAlgorithm() {
+        
+        return algorithm;
+    }
+    
+    /**
+     * Sets search algorithm of levels' solving.
+     * 
+     * @param algorithm
+     *      Search algorithm.
+     */
+    public void setAlgorithm(Solver.Algorithm algorithm) {
+        
+        if (algorithm != null)
+            this.algorithm = algorithm;
+    }
+    
+    /**
+     * Checks whether levels are solved.
+     * 
+     * @return
+     *      {@code true} if levels are solved, {@code false} otherwise.
+     */
+    public boolean isSolving() {
+        
+        return solving;
+    }
+    
+    /**
+     * Sets whether levels are solved.
+     * 
+     * @param solving
+     *      {@code true} to solve levels, {@code false} to validate them only.
+     */
+    public void setSolving(boolean solving) {
+        
+        this.solving = solving;
+    }
+    
+    /**
+     * Verifies all levels of specified set.
+     * 
+     * @param levelsSet
+     *      Levels' set to verify.
+     * @param levelVerificationListener
+     *      Listener of levels' verification or {@code null}.
+     * @return
+     *      Verification results ordered by level's index, the list is incomplete
+     *      if current thread has been interrupted.
+     * @throws IllegalStateException
+     *      If a verification thread has failed outside of a level's verification.
+     * @see #verifyLevel(org.ezze.games.storekeeper.Level, int)
+     */
+    public List<LevelVerification> verify(LevelsSet levelsSet, LevelVerificationListener levelVerificationListener) {
+        
+        List<LevelVerification> levelVerifications = new ArrayList<LevelVerification>();
+        int levelsCount = levelsSet != null ? levelsSet.getLevelsCount() : 0;
+        if (levelsCount == 0)
+            return levelVerifications;
+        
+        // Validating all levels at once before they're retrieved one by one
+        if (!levelsSet.initializeLevels(threadsCount))
+            return levelVerifications;
+        
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.min(threadsCount, levelsCount));
+        try {
+            
+            // Submitting all levels at once, results are taken as they're ready
+            CompletionService<LevelVerification> completionService =
+                    new ExecutorCompletionService<LevelVerification>(executorService);
+            for (int levelIndex = 0; levelIndex < levelsCount; levelIndex++) {
+                
+                final Level level = levelsSet.getLevelByIndex(levelIndex);
+                final int verifiedLevelIndex = levelIndex;
+                completionService.submit(new Callable<LevelVerification>() {
+                    
+                    @Override
+                    public LevelVerification call() {
+                        
+                        return verifyLevel(level, verifiedLevelIndex);
+                    }
+                });
+            }
+            
+            for (int levelIndex = 0; levelIndex < levelsCount; levelIndex++) {
+                
+                Future<LevelVerification> future = completionService.take();
+                LevelVerification levelVerification = future.get();
+                levelVerifications.add(levelVerification);
+                if (levelVerificationListener != null)
+                    levelVerificationListener.levelVerified(levelVerification);
+            }
+        }
+        catch (InterruptedException ex) {
+            
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException ex) {
+            
+            throw new IllegalStateException("Levels' verification has failed.", ex.getCause());
+        }
+        finally {
+            
+            executorService.shutdownNow();
+        }
+        
+        Collections.sort(levelVerifications, LEVEL_INDEX_COMPARATOR);
+        return levelVerifications;
+    }
+    
+    /**
+     * Verifies a single level.
+     * 
+     * This method is invoked by verification threads. An unexpected failure
+     * of level's verification is recorded in the result instead of being thrown.
+     * 
+     * @param level
+     *      Level to verify.
+     * @param levelIndex
+     *      Level's index in the set.
+     * @return
+     *      Level's verification result.
+     * @see LevelVerification#isFailed()
+     */
+    protected LevelVerification verifyLevel(Level level, int levelIndex) {
+        
+        long startTime = System.currentTimeMillis();
+        try {
+            
+            return verifyLevel(level, levelIndex, startTime);
+        }
+        catch (RuntimeException ex) {
+            
+            return new LevelVerification(levelIndex, level.getName(), level.getState(), 0, false, null,
+                    System.currentTimeMillis() - startTime, ex.toString());
+        }
+        catch (VirtualMachineError ex) {
+            
+            // Solver's data are unreachable already, so other levels can still be verified
+            return new LevelVerification(levelIndex, level.getName(), level.getState(), 0, false, null,
+                    System.currentTimeMillis() - startTime, ex.toString());
+        }
+    }
+    
+    /**
+     * Verifies a single level without catching its failures.
+     * 
+     * @param level
+     *      Level to verify.
+     * @param levelIndex
+     *      Level's index in the set.
+     * @param startTime
+     *      Time when level's verification has been started.
+     * @return
+     *      Level's verification result.
+     */
+    protected LevelVerification verifyLevel(Level level, int levelIndex, long startTime) {
+        
+        LevelEngine engine = level.createEngine();
+        if (engine == null) {
+            
+            return new LevelVerification(levelIndex, level.getName(), level.getState(), 0, false, null,
+                    System.currentTimeMillis() - startTime);
+        }
+        
+        // Checking initial position for deadlocks
+        engine.setDeadlockAnalyzer(new DeadlockAnalyzer(engine.getBoard()));
+        boolean deadlocked = engine.isDeadlocked();
+        
+        SolverResult solverResult = null;
+        if (solving && !deadlocked) {
+            
+            Solver solver = new Solver();
+            solver.setAlgorithm(algorithm);
+            solver.setTimeLimit(timeLimit);
+            solver.setMemoryLimit(memoryLimit);
+            solver.setMaximalStatesCount(maximalStatesCount);
+            solverResult = solver.solve(level);
+        }
+        
+        return new LevelVerification(levelIndex, level.getName(), level.getState(), engine.getBoxesCount(),
+                deadlocked, solverResult, System.currentTimeMillis() - startTime);
+    }
+    
+    /**
+     * Verifies levels' set specified by command line's arguments.
+     * 
+     * @param args
+     *      Command line's arguments.
+     */
+    public static void main(String[] args) {
+        
+        LevelsSetVerifier levelsSetVerifier = new LevelsSetVerifier();
+        String levelsSetFileName = null;
+        String reportFileName = null;
+        try {
+            
+            int argumentIndex = 0;
+            while (argumentIndex < args.length) {
+                
+                String argument = args[argumentIndex++];
+                if (argument.equals("-threads"))
+                    levelsSetVerifier.setThreadsCount(Integer.parseInt(args[argumentIndex++]));
+                else if (argument.equals("-time"))
+                    levelsSetVerifier.setTimeLimit(Long.parseLong(args[argumentIndex++]));
+                else if (argument.equals("-memory"))
+                    levelsSetVerifier.setMemoryLimit(Long.parseLong(args[argumentIndex++]) * 1024 * 1024);
+                else if (argument.equals("-states"))
+                    levelsSetVerifier.setMaximalStatesCount(Integer.parseInt(args[argumentIndex++]));
+                else if (argument.equals("-ida"))
+                    levelsSetVerifier.setAlgorithm(Solver.Algorithm.IDA_STAR);
+                else if (argument.equals("-nosolve"))
+                    levelsSetVerifier.setSolving(false);
+                else if (levelsSetFileName == null)
+                    levelsSetFileName = argument;
+                else if (reportFileName == null)
+                    reportFileName = argument;
+                else
+                    throw new IllegalArgumentException(argument);
+            }
+        }
+        catch (RuntimeException ex) {
+            
+            levelsSetFileName = null;
+        }
+        
+        if (levelsSetFileName == null) {
+            
+            System.err.println("Usage: LevelsSetVerifier [-threads N] [-time MS] [-memory MB] [-states N] " +
+                    "[-ida] [-nosolve] levels-set-file [report-file]");
+            System.exit(1);
+        }
+        
+        LevelsSet levelsSet = new LevelsSet(levelsSetFileName);
+        if (levelsSet.isEmpty()) {
+            
+            System.err.println("Unable to load levels' set " + levelsSetFileName);
+            System.exit(1);
+        }
+        
+        OutputStream outputStream = System.out;
+        try {
+            
+            if (reportFileName != null)
+                outputStream = new FileOutputStream(reportFileName);
+            
+            VerificationReportWriter reportWriter = new VerificationReportWriter(outputStream);
+            reportWriter.writeStart(levelsSet);
+            levelsSetVerifier.verify(levelsSet, reportWriter);
+            reportWriter.writeEnd();
+            if (reportWriter.isFailed()) {
+                
+                System.err.println("Unable to write verification report");
+                System.exit(1);
+            }
+        }
+        catch (IOException ex) {
+            
+            System.err.println("Unable to create verification report " + reportFileName);
+            System.exit(1);
+        }
+        finally {
+            
+            if (outputStream != System.out) {
+                
+                try {
+                    
+                    outputStream.close();
+                }
+                catch (IOException ex) {
+                
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package org.ezze.games.storekeeper.batch;
+
+/**
+ * This class represents a level's solution submitted to {@link SolutionsVerifier}.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ */
+public class Solution {
+    
+    /**
+     * Solved level's index in the set.
+     */
+    protected final int levelIndex;
+    
+    /**
+     * Solution's moves in LURD notation.
+     */
+    protected final String lurd;
+    
+    /**
+     * Creates level's solution.
+     * 
+     * @param levelIndex
+     *      Solved level's index in the set.
+     * @param lurd
+     *      Solution's moves in LURD notation.
+     */
+    public Solution(int levelIndex, String lurd) {
+        
+        this.levelIndex = levelIndex;
+        this.lurd = lurd != null ? lurd : "";
+    }
+    
+    /**
+     * Retrieves solved level's index.
+     * 
+     * @return
+     *      Level's index in the set.
+     */
+    public int getLevelIndex() {
+        
+        return levelIndex;
+    }
+    
+    /**
+     * Retrieves solution's moves.
+     * 
+     * @return
+     *      Moves in LURD notation.
+     * @see org.ezze.games.storekeeper.LurdNotation
+     */
+    public String getLurd() {
+        
+        return lurd;
+    }
+}
\ No newline at end of file
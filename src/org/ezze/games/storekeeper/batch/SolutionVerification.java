@@ -0,0 +1,90 @@
+package org.ezze.games.storekeeper.batch;
+
+import org.ezze.games.storekeeper.ReplayResult;
+
+/**
+ * This class describes results of a single solution's verification
+ * performed by {@link SolutionsVerifier}.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ */
+public class SolutionVerification {
+    
+    /**
+     * Solution's index in the list of verified solutions.
+     */
+    protected final int solutionIndex;
+    
+    /**
+     * Solved level's index in the set.
+     */
+    protected final int levelIndex;
+    
+    /**
+     * Replay's result or {@code null} if solved level doesn't exist or is not playable.
+     */
+    protected final ReplayResult replayResult;
+    
+    /**
+     * Creates solution's verification result.
+     * 
+     * @param solutionIndex
+     *      Solution's index in the list of verified solutions.
+     * @param levelIndex
+     *      Solved level's index in the set.
+     * @param replayResult
+     *      Replay's result or {@code null} if solved level doesn't exist or is not playable.
+     */
+    public SolutionVerification(int solutionIndex, int levelIndex, ReplayResult replayResult) {
+        
+        this.solutionIndex = solutionIndex;
+        this.levelIndex = levelIndex;
+        this.replayResult = replayResult;
+    }
+    
+    /**
+     * Retrieves solution's index.
+     * 
+     * @return
+     *      Index in the list of verified solutions.
+     */
+    public int getSolutionIndex() {
+        
+        return solutionIndex;
+    }
+    
+    /**
+     * Retrieves solved level's index.
+     * 
+     * @return
+     *      Level's index in the set.
+     */
+    public int getLevelIndex() {
+        
+        return levelIndex;
+    }
+    
+    /**
+     * Retrieves replay's result.
+     * 
+     * @return
+     *      Replay's result or {@code null} if solved level doesn't exist or is not playable.
+     */
+    public ReplayResult getReplayResult() {
+        
+        return replayResult;
+    }
+    
+    /**
+     * Checks whether the solution is valid.
+     * 
+     * @return
+     *      {@code true} if all solution's moves are legal and the level is solved by them,
+     *      {@code false} otherwise.
+     */
+    public boolean isValid() {
+        
+        return replayResult != null && replayResult.isValidSolution();
+    }
+}
\ No newline at end of file
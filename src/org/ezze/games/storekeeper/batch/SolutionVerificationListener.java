@@ -0,0 +1,23 @@
+package org.ezze.games.storekeeper.batch;
+
+/**
+ * This interface has a method to implement to
+ * be invoked after each solution will have been verified.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ * @see SolutionsVerifier#verify(org.ezze.games.storekeeper.LevelsSet, java.util.List, org.ezze.games.storekeeper.batch.SolutionVerificationListener)
+ */
+public interface SolutionVerificationListener {
+    
+    /**
+     * Describes actions to do after solution will have been verified.
+     * 
+     * Verifications are reported in order of their completion from the thread
+     * which has started solutions' verification.
+     * 
+     * @param solutionVerification
+     *      Solution's verification result.
+     */
+    public void solutionVerified(SolutionVerification solutionVerification);
+}
\ No newline at end of file
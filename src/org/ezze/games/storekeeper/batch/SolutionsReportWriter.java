@@ -0,0 +1,184 @@
+package org.ezze.games.storekeeper.batch;
+
+import java.io.OutputStream;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import org.ezze.games.storekeeper.LevelsSet;
+import org.ezze.games.storekeeper.ReplayResult;
+
+/**
+ * This class writes verification results of levels' solutions to XML report.
+ * 
+ * Each solution's element is written as soon as solution is verified,
+ * the report is flushed after each {@link #FLUSH_INTERVAL} solutions
+ * since a solution is verified in microseconds:
+ * 
+ * <pre>
+ * &lt;report set="..." solutions="..."&gt;
+ *     &lt;solution index="0" level="3" valid="true" solved="true" moves="230" pushes="48"/&gt;
+ *     &lt;solution index="1" level="4" valid="false" solved="false" moves="17" pushes="2" illegal="17"/&gt;
+ *     ...
+ *     &lt;summary solutions="..." valid="..." invalid="..." time="..."/&gt;
+ * &lt;/report&gt;
+ * </pre>
+ * 
+ * Replay's attributes are omitted for solutions of levels which don't exist or are not playable.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ */
+public class SolutionsReportWriter implements SolutionVerificationListener {
+    
+    /**
+     * Count of reported solutions between two flushes of the report.
+     */
+    public static final int FLUSH_INTERVAL = 1024;
+    
+    /**
+     * Output stream of the report.
+     */
+    protected final OutputStream outputStream;
+    
+    /**
+     * XML writer of the report.
+     */
+    protected XMLStreamWriter xmlWriter = null;
+    
+    /**
+     * Shows whether writing of the report has failed.
+     */
+    protected boolean isFailed = false;
+    
+    /**
+     * Count of reported solutions.
+     */
+    protected int solutionsCount = 0;
+    
+    /**
+     * Count of reported valid solutions.
+     */
+    protected int validSolutionsCount = 0;
+    
+    /**
+     * Time when the report has been started.
+     */
+    protected long startTime = 0;
+    
+    /**
+     * Creates report's writer.
+     * 
+     * The stream is not closed by the writer.
+     * 
+     * @param outputStream
+     *      Output stream of the report.
+     */
+    public SolutionsReportWriter(OutputStream outputStream) {
+        
+        this.outputStream = outputStream;
+    }
+    
+    /**
+     * Writes report's header.
+     * 
+     * @param levelsSet
+     *      Levels' set of verified solutions.
+     * @param solutionsCount
+     *      Count of verified solutions.
+     */
+    public void writeStart(LevelsSet levelsSet, int solutionsCount) {
+        
+        startTime = System.currentTimeMillis();
+        try {
+            
+            xmlWriter = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, "UTF-8");
+            xmlWriter.writeStartDocument("UTF-8", "1.0");
+            xmlWriter.writeCharacters("\n");
+            xmlWriter.writeStartElement("report");
+            xmlWriter.writeAttribute("set", levelsSet.getName());
+            xmlWriter.writeAttribute("solutions", String.valueOf(solutionsCount));
+            xmlWriter.writeCharacters("\n");
+            xmlWriter.flush();
+        }
+        catch (XMLStreamException ex) {
+            
+            isFailed = true;
+        }
+    }
+    
+    @Override
+    public void solutionVerified(SolutionVerification solutionVerification) {
+        
+        solutionsCount++;
+        if (solutionVerification.isValid())
+            validSolutionsCount++;
+        
+        if (xmlWriter == null || isFailed)
+            return;
+        
+        try {
+            
+            xmlWriter.writeCharacters("    ");
+            xmlWriter.writeEmptyElement("solution");
+            xmlWriter.writeAttribute("index", String.valueOf(solutionVerification.getSolutionIndex()));
+            xmlWriter.writeAttribute("level", String.valueOf(solutionVerification.getLevelIndex()));
+            xmlWriter.writeAttribute("valid", String.valueOf(solutionVerification.isValid()));
+            ReplayResult replayResult = solutionVerification.getReplayResult();
+            if (replayResult != null) {
+                
+                xmlWriter.writeAttribute("solved", String.valueOf(replayResult.isSolved()));
+                xmlWriter.writeAttribute("moves", String.valueOf(replayResult.getMovesCount()));
+                xmlWriter.writeAttribute("pushes", String.valueOf(replayResult.getPushesCount()));
+                if (!replayResult.isLegal())
+                    xmlWriter.writeAttribute("illegal", String.valueOf(replayResult.getIllegalMoveIndex()));
+            }
+            xmlWriter.writeCharacters("\n");
+            if (solutionsCount % FLUSH_INTERVAL == 0)
+                xmlWriter.flush();
+        }
+        catch (XMLStreamException ex) {
+            
+            isFailed = true;
+        }
+    }
+    
+    /**
+     * Writes report's summary and closes report's root element.
+     */
+    public void writeEnd() {
+        
+        if (xmlWriter == null || isFailed)
+            return;
+        
+        try {
+            
+            xmlWriter.writeCharacters("    ");
+            xmlWriter.writeEmptyElement("summary");
+            xmlWriter.writeAttribute("solutions", String.valueOf(solutionsCount));
+            xmlWriter.writeAttribute("valid", String.valueOf(validSolutionsCount));
+            xmlWriter.writeAttribute("invalid", String.valueOf(solutionsCount - validSolutionsCount));
+            xmlWriter.writeAttribute("time", String.valueOf(System.currentTimeMillis() - startTime));
+            xmlWriter.writeCharacters("\n");
+            xmlWriter.writeEndElement();
+            xmlWriter.writeEndDocument();
+            xmlWriter.writeCharacters("\n");
+            xmlWriter.flush();
+            xmlWriter.close();
+        }
+        catch (XMLStreamException ex) {
+            
+            isFailed = true;
+        }
+    }
+    
+    /**
+     * Checks whether writing of the report has failed.
+     * 
+     * @return
+     *      {@code true} if the report is incomplete because of an output error, {@code false} otherwise.
+     */
+    public boolean isFailed() {
+        
+        return isFailed;
+    }
+}
\ No newline at end of file
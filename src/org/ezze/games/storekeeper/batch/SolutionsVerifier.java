@@ -0,0 +1,367 @@
+package org.ezze.games.storekeeper.batch;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.ezze.games.storekeeper.Level;
+import org.ezze.games.storekeeper.LevelsSet;
+import org.ezze.games.storekeeper.LurdReplayer;
+
+/**
+ * This class verifies levels' solutions in LURD notation without game's user interface.
+ * 
+ * Solutions are ordered by levels' indexes and split to contiguous ranges
+ * verified by a fixed pool of threads. Each thread replays solutions
+ * of a level by a single {@link LurdReplayer} so level's monitor is never
+ * acquired while moves are performed, and results are passed to
+ * {@link SolutionVerificationListener} as soon as each range is verified.
+ * 
+ * Solutions' file contains a solution per line prefixed with level's index
+ * in the set, empty lines and lines starting with {@code #} are skipped:
+ * 
+ * <pre>
+ * # level-index LURD
+ * 0 ullDullddrRRRRRdrUluuurDldLLL
+ * 2 rrdLLLurrrrDDDuullll
+ * </pre>
+ * 
+ * The class can be run from command line:
+ * 
+ * <pre>
+ * java org.ezze.games.storekeeper.batch.SolutionsVerifier [-threads N]
+ *         levels-set-file solutions-file [report-file]
+ * </pre>
+ * 
+ * XML report (see {@link SolutionsReportWriter}) is written to standard output
+ * if report's file is not specified.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ */
+public class SolutionsVerifier {
+    
+    /**
+     * Count of solutions' ranges per verifying thread.
+     */
+    protected static final int RANGES_PER_THREAD = 4;
+    
+    /**
+     * Count of threads verifying solutions.
+     */
+    protected int threadsCount = Runtime.getRuntime().availableProcessors();
+    
+    /**
+     * Creates verifier with default settings.
+     */
+    public SolutionsVerifier() {
+    }
+    
+    /**
+     * Retrieves count of threads verifying solutions.
+     * 
+     * @return
+     *      Threads count.
+     */
+    public int getThreadsCount() {
+        
+        return threadsCount;
+    }
+    
+    /**
+     * Sets count of threads verifying solutions.
+     * 
+     * @param threadsCount
+     *      Threads count, non-positive values are ignored.
+     */
+    public void setThreadsCount(int threadsCount) {
+        
+        if (threadsCount > 0)
+            this.threadsCount = threadsCount;
+    }
+    
+    /**
+     * Verifies solutions of levels of specified set.
+     * 
+     * @param levelsSet
+     *      Levels' set of the solutions.
+     * @param solutions
+     *      Solutions to verify.
+     * @param solutionVerificationListener
+     *      Listener of solutions' verification or {@code null}.
+     * @return
+     *      Verification results ordered by solution's index, the list is incomplete
+     *      if current thread has been interrupted.
+     * @throws IllegalStateException
+     *      If solutions' verification has failed unexpectedly.
+     */
+    public List<SolutionVerification> verify(LevelsSet levelsSet, final List<Solution> solutions,
+            SolutionVerificationListener solutionVerificationListener) {
+        
+        int solutionsCount = levelsSet != null && solutions != null ? solutions.size() : 0;
+        if (solutionsCount == 0)
+            return new ArrayList<SolutionVerification>();
+        
+        // Ordering solutions by levels' indexes keeping an order of solutions of the same level
+        long[] solutionKeys = new long[solutionsCount];
+        for (int solutionIndex = 0; solutionIndex < solutionsCount; solutionIndex++)
+            solutionKeys[solutionIndex] = ((long)solutions.get(solutionIndex).getLevelIndex() << 32) | solutionIndex;
+        Arrays.sort(solutionKeys);
+        final int[] solutionsOrder = new int[solutionsCount];
+        for (int orderIndex = 0; orderIndex < solutionsCount; orderIndex++)
+            solutionsOrder[orderIndex] = (int)solutionKeys[orderIndex];
+        
+        SolutionVerification[] solutionVerifications = new SolutionVerification[solutionsCount];
+        int rangesCount = Math.min(threadsCount * RANGES_PER_THREAD, solutionsCount);
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.min(threadsCount, rangesCount));
+        try {
+            
+            final LevelsSet verifiedLevelsSet = levelsSet;
+            CompletionService<SolutionVerification[]> completionService =
+                    new ExecutorCompletionService<SolutionVerification[]>(executorService);
+            for (int rangeIndex = 0; rangeIndex < rangesCount; rangeIndex++) {
+                
+                final int fromOrderIndex = (int)((long)solutionsCount * rangeIndex / rangesCount);
+                final int toOrderIndex = (int)((long)solutionsCount * (rangeIndex + 1) / rangesCount);
+                completionService.submit(new Callable<SolutionVerification[]>() {
+                    
+                    @Override
+                    public SolutionVerification[] call() {
+                        
+                        return verifySolutions(verifiedLevelsSet, solutions, solutionsOrder, fromOrderIndex, toOrderIndex);
+                    }
+                });
+            }
+            
+            for (int rangeIndex = 0; rangeIndex < rangesCount; rangeIndex++) {
+                
+                Future<SolutionVerification[]> future = completionService.take();
+                for (SolutionVerification solutionVerification : future.get()) {
+                    
+                    solutionVerifications[solutionVerification.getSolutionIndex()] = solutionVerification;
+                    if (solutionVerificationListener != null)
+                        solutionVerificationListener.solutionVerified(solutionVerification);
+                }
+            }
+        }
+        catch (InterruptedException ex) {
+            
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException ex) {
+            
+            throw new IllegalStateException("Solutions' verification has failed.", ex.getCause());
+        }
+        finally {
+            
+            executorService.shutdownNow();
+        }
+        
+        List<SolutionVerification> verifiedSolutions = new ArrayList<SolutionVerification>(solutionsCount);
+        for (SolutionVerification solutionVerification : solutionVerifications) {
+            
+            if (solutionVerification != null)
+                verifiedSolutions.add(solutionVerification);
+        }
+        
+        return verifiedSolutions;
+    }
+    
+    /**
+     * Verifies a range of solutions ordered by levels' indexes.
+     * 
+     * This method is invoked by verification threads.
+     * 
+     * @param levelsSet
+     *      Levels' set of the solutions.
+     * @param solutions
+     *      All verified solutions.
+     * @param solutionsOrder
+     *      Solutions' indexes ordered by levels' indexes.
+     * @param fromOrderIndex
+     *      The first index of {@code solutionsOrder} to verify.
+     * @param toOrderIndex
+     *      The index of {@code solutionsOrder} following the last one to verify.
+     * @return
+     *      Verification results of the range.
+     */
+    protected SolutionVerification[] verifySolutions(LevelsSet levelsSet, List<Solution> solutions,
+            int[] solutionsOrder, int fromOrderIndex, int toOrderIndex) {
+        
+        SolutionVerification[] solutionVerifications = new SolutionVerification[toOrderIndex - fromOrderIndex];
+        LurdReplayer replayer = null;
+        int replayerLevelIndex = -1;
+        for (int orderIndex = fromOrderIndex; orderIndex < toOrderIndex; orderIndex++) {
+            
+            int solutionIndex = solutionsOrder[orderIndex];
+            Solution solution = solutions.get(solutionIndex);
+            if (replayer == null || solution.getLevelIndex() != replayerLevelIndex) {
+                
+                replayerLevelIndex = solution.getLevelIndex();
+                Level level = levelsSet.getLevelByIndex(replayerLevelIndex);
+                replayer = level != null && level.isPlayable() ? new LurdReplayer(level) : null;
+            }
+            
+            solutionVerifications[orderIndex - fromOrderIndex] = new SolutionVerification(solutionIndex,
+                    replayerLevelIndex, replayer != null ? replayer.replay(solution.getLurd()) : null);
+        }
+        
+        return solutionVerifications;
+    }
+    
+    /**
+     * Reads solutions from a file.
+     * 
+     * @param fileName
+     *      Solutions' file name.
+     * @return
+     *      Solutions in order of their lines.
+     * @throws IOException
+     *      If the file can't be read or a line doesn't start with level's index.
+     */
+    public static List<Solution> readSolutions(String fileName) throws IOException {
+        
+        List<Solution> solutions = new ArrayList<Solution>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(fileName), "UTF-8"));
+        try {
+            
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#"))
+                    continue;
+                
+                int separatorIndex = 0;
+                while (separatorIndex < line.length() && !Character.isWhitespace(line.charAt(separatorIndex)))
+                    separatorIndex++;
+                
+                try {
+                    
+                    int levelIndex = Integer.parseInt(line.substring(0, separatorIndex));
+                    solutions.add(new Solution(levelIndex, line.substring(separatorIndex)));
+                }
+                catch (NumberFormatException ex) {
+                    
+                    throw new IOException("Level's index is expected at line " + lineNumber + " of " + fileName);
+                }
+            }
+        }
+        finally {
+            
+            reader.close();
+        }
+        
+        return solutions;
+    }
+    
+    /**
+     * Verifies solutions specified by command line's arguments.
+     * 
+     * @param args
+     *      Command line's arguments.
+     */
+    public static void main(String[] args) {
+        
+        SolutionsVerifier solutionsVerifier = new SolutionsVerifier();
+        String levelsSetFileName = null;
+        String solutionsFileName = null;
+        String reportFileName = null;
+        try {
+            
+            int argumentIndex = 0;
+            while (argumentIndex < args.length) {
+                
+                String argument = args[argumentIndex++];
+                if (argument.equals("-threads"))
+                    solutionsVerifier.setThreadsCount(Integer.parseInt(args[argumentIndex++]));
+                else if (levelsSetFileName == null)
+                    levelsSetFileName = argument;
+                else if (solutionsFileName == null)
+                    solutionsFileName = argument;
+                else if (reportFileName == null)
+                    reportFileName = argument;
+                else
+                    throw new IllegalArgumentException(argument);
+            }
+        }
+        catch (RuntimeException ex) {
+            
+            solutionsFileName = null;
+        }
+        
+        if (solutionsFileName == null) {
+            
+            System.err.println("Usage: SolutionsVerifier [-threads N] levels-set-file solutions-file [report-file]");
+            System.exit(1);
+        }
+        
+        LevelsSet levelsSet = new LevelsSet(levelsSetFileName);
+        if (levelsSet.isEmpty()) {
+            
+            System.err.println("Unable to load levels' set " + levelsSetFileName);
+            System.exit(1);
+        }
+        
+        List<Solution> solutions = null;
+        try {
+            
+            solutions = readSolutions(solutionsFileName);
+        }
+        catch (IOException ex) {
+            
+            System.err.println("Unable to read solutions " + solutionsFileName + ": " + ex.getMessage());
+            System.exit(1);
+        }
+        
+        OutputStream outputStream = System.out;
+        try {
+            
+            if (reportFileName != null)
+                outputStream = new BufferedOutputStream(new FileOutputStream(reportFileName));
+            
+            SolutionsReportWriter reportWriter = new SolutionsReportWriter(outputStream);
+            reportWriter.writeStart(levelsSet, solutions.size());
+            solutionsVerifier.verify(levelsSet, solutions, reportWriter);
+            reportWriter.writeEnd();
+            if (reportWriter.isFailed()) {
+                
+                System.err.println("Unable to write verification report");
+                System.exit(1);
+            }
+        }
+        catch (IOException ex) {
+            
+            System.err.println("Unable to create verification report " + reportFileName);
+            System.exit(1);
+        }
+        finally {
+            
+            if (outputStream != System.out) {
+                
+                try {
+                    
+                    outputStream.close();
+                }
+                catch (IOException ex) {
+                
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,221 @@
+package org.ezze.games.storekeeper.batch;
+
+import java.io.OutputStream;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import org.ezze.games.storekeeper.LevelsSet;
+import org.ezze.games.storekeeper.solver.SolverResult;
+
+/**
+ * This class writes verification results of levels' set to XML report.
+ * 
+ * Each level's element is written and flushed as soon as level is verified
+ * so the report can be consumed while verification is still in progress:
+ * 
+ * <pre>
+ * &lt;report set="..." levels="..."&gt;
+ *     &lt;level index="0" name="..." state="PLAYABLE" boxes="4" deadlocked="false" time="48"
+ *             status="SOLVED" pushes="8" moves="33" states="14"/&gt;
+ *     ...
+ *     &lt;level index="1" name="..." state="PLAYABLE" boxes="0" deadlocked="false" time="9510"
+ *             error="java.lang.OutOfMemoryError: Java heap space"/&gt;
+ *     ...
+ *     &lt;summary levels="..." playable="..." deadlocked="..." solved="..." unsolvable="..." failed="..." time="..."/&gt;
+ * &lt;/report&gt;
+ * </pre>
+ * 
+ * Solving attributes are omitted for levels which have not been solved,
+ * {@code error} attribute is written only for levels whose verification has failed unexpectedly.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.2
+ */
+public class VerificationReportWriter implements LevelVerificationListener {
+    
+    /**
+     * Output stream of the report.
+     */
+    protected final OutputStream outputStream;
+    
+    /**
+     * XML writer of the report.
+     */
+    protected XMLStreamWriter xmlWriter = null;
+    
+    /**
+     * Shows whether writing of the report has failed.
+     */
+    protected boolean isFailed = false;
+    
+    /**
+     * Count of reported levels.
+     */
+    protected int levelsCount = 0;
+    
+    /**
+     * Count of reported playable levels.
+     */
+    protected int playableLevelsCount = 0;
+    
+    /**
+     * Count of reported levels with deadlocked initial position.
+     */
+    protected int deadlockedLevelsCount = 0;
+    
+    /**
+     * Count of reported solved levels.
+     */
+    protected int solvedLevelsCount = 0;
+    
+    /**
+     * Count of reported levels proven to be unsolvable.
+     */
+    protected int unsolvableLevelsCount = 0;
+    
+    /**
+     * Count of reported levels whose verification has failed.
+     */
+    protected int failedLevelsCount = 0;
+    
+    /**
+     * Time when the report has been started.
+     */
+    protected long startTime = 0;
+    
+    /**
+     * Creates report's writer.
+     * 
+     * The stream is not closed by the writer.
+     * 
+     * @param outputStream
+     *      Output stream of the report.
+     */
+    public VerificationReportWriter(OutputStream outputStream) {
+        
+        this.outputStream = outputStream;
+    }
+    
+    /**
+     * Writes report's header.
+     * 
+     * @param levelsSet
+     *      Verified levels' set.
+     */
+    public void writeStart(LevelsSet levelsSet) {
+        
+        startTime = System.currentTimeMillis();
+        try {
+            
+            xmlWriter = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, "UTF-8");
+            xmlWriter.writeStartDocument("UTF-8", "1.0");
+            xmlWriter.writeCharacters("\n");
+            xmlWriter.writeStartElement("report");
+            xmlWriter.writeAttribute("set", levelsSet.getName());
+            xmlWriter.writeAttribute("levels", String.valueOf(levelsSet.getLevelsCount()));
+            xmlWriter.writeCharacters("\n");
+            xmlWriter.flush();
+        }
+        catch (XMLStreamException ex) {
+            
+            isFailed = true;
+        }
+    }
+    
+    @Override
+    public void levelVerified(LevelVerification levelVerification) {
+        
+        levelsCount++;
+        if (levelVerification.getBoxesCount() > 0)
+            playableLevelsCount++;
+        if (levelVerification.isDeadlocked())
+            deadlockedLevelsCount++;
+        if (levelVerification.isFailed())
+            failedLevelsCount++;
+        
+        SolverResult solverResult = levelVerification.getSolverResult();
+        if (solverResult != null) {
+            
+            if (solverResult.isSolved())
+                solvedLevelsCount++;
+            else if (solverResult.getStatus() == SolverResult.Status.UNSOLVABLE)
+                unsolvableLevelsCount++;
+        }
+        
+        if (xmlWriter == null || isFailed)
+            return;
+        
+        try {
+            
+            xmlWriter.writeCharacters("    ");
+            xmlWriter.writeEmptyElement("level");
+            xmlWriter.writeAttribute("index", String.valueOf(levelVerification.getLevelIndex()));
+            xmlWriter.writeAttribute("name", levelVerification.getLevelName());
+            xmlWriter.writeAttribute("state", String.valueOf(levelVerification.getLevelState()));
+            xmlWriter.writeAttribute("boxes", String.valueOf(levelVerification.getBoxesCount()));
+            xmlWriter.writeAttribute("deadlocked", String.valueOf(levelVerification.isDeadlocked()));
+            xmlWriter.writeAttribute("time", String.valueOf(levelVerification.getElapsedTime()));
+            if (solverResult != null) {
+                
+                xmlWriter.writeAttribute("status", solverResult.getStatus().name());
+                if (solverResult.isSolved()) {
+                    
+                    xmlWriter.writeAttribute("pushes", String.valueOf(solverResult.getPushesCount()));
+                    xmlWriter.writeAttribute("moves", String.valueOf(solverResult.getMovesCount()));
+                }
+                xmlWriter.writeAttribute("states", String.valueOf(solverResult.getExploredStatesCount()));
+            }
+            if (levelVerification.isFailed())
+                xmlWriter.writeAttribute("error", levelVerification.getError());
+            xmlWriter.writeCharacters("\n");
+            xmlWriter.flush();
+        }
+        catch (XMLStreamException ex) {
+            
+            isFailed = true;
+        }
+    }
+    
+    /**
+     * Writes report's summary and closes report's root element.
+     */
+    public void writeEnd() {
+        
+        if (xmlWriter == null || isFailed)
+            return;
+        
+        try {
+            
+            xmlWriter.writeCharacters("    ");
+            xmlWriter.writeEmptyElement("summary");
+            xmlWriter.writeAttribute("levels", String.valueOf(levelsCount));
+            xmlWriter.writeAttribute("playable", String.valueOf(playableLevelsCount));
+            xmlWriter.writeAttribute("deadlocked", String.valueOf(deadlockedLevelsCount));
+            xmlWriter.writeAttribute("solved", String.valueOf(solvedLevelsCount));
+            xmlWriter.writeAttribute("unsolvable", String.valueOf(unsolvableLevelsCount));
+            xmlWriter.writeAttribute("failed", String.valueOf(failedLevelsCount));
+            xmlWriter.writeAttribute("time", String.valueOf(System.currentTimeMillis() - startTime));
+            xmlWriter.writeCharacters("\n");
+            xmlWriter.writeEndElement();
+            xmlWriter.writeEndDocument();
+            xmlWriter.writeCharacters("\n");
+            xmlWriter.flush();
+            xmlWriter.close();
+        }
+        catch (XMLStreamException ex) {
+            
+            isFailed = true;
+        }
+    }
+    
+    /**
+     * Checks whether writing of the report has failed.
+     * 
+     * @return
+     *      {@code true} if the report is incomplete because of an output error, {@code false} otherwise.
+     */
+    public boolean isFailed() {
+        
+        return isFailed;
+    }
+}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package org.ezze.games.storekeeper.desktop;
 
 import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.event.*;
 import java.beans.PropertyChangeEvent;
@@ -24,7 +25,7 @@ import org.ezze.utils.ui.aboutbox.AboutBoxInformation;
  * Desktop version of the game.
  * 
  * @author Dmitriy Pushkov
- * @version 0.0.7
+ * @version 0.0.11
  */
 public final class DesktopGame extends JFrame {
     
@@ -132,6 +133,11 @@ public final class DesktopGame extends JFrame {
      */
     protected JMenuItem menuItemOptions = null;
     
+    /**
+     * Tools menu item to scale the play field to fill the screen.
+     */
+    protected JCheckBoxMenuItem menuItemFitToScreen = null;
+    
     /**
      * Help menu instance.
      */
@@ -263,6 +269,9 @@ public final class DesktopGame extends JFrame {
         // Creating menu bar
         createMenuBar(applicationProperties, windowIconURL);
         setJMenuBar(menuBar);
+        menuItemFitToScreen.setSelected(Configuration.parseBooleanOption(gameConfiguration.getOption(
+                Configuration.OPTION_FIT_TO_SCREEN, Configuration.DEFAULT_OPTION_FIT_TO_SCREEN),
+                Configuration.DEFAULT_OPTION_FIT_TO_SCREEN));
         
         // Creating status bar
         createStatusBar();        
@@ -354,6 +363,63 @@ public final class DesktopGame extends JFrame {
             }
         });                       
         
+        // Attaching mouse listener, a click on a box selects it and the next click pushes it there,
+        // the box stays selected if it can't be pushed to clicked position
+        game.addMouseListener(new MouseAdapter() {
+            
+            @Override
+            public void mousePressed(MouseEvent e) {
+                
+                if (game.getGameState() != GameState.PLAY)
+                    return;
+                
+                Level level = game.getLevelsSet().getCurrentLevel();
+                Dimension spriteDimension = game.getGameGraphics().getSpriteDimension();
+                int line = e.getY() / spriteDimension.height;
+                int column = e.getX() / spriteDimension.width;
+                if (level == null || SwingUtilities.isRightMouseButton(e)) {
+                    
+                    game.setSelectedBox(-1, -1);
+                    return;
+                }
+                
+                // Clicking the selected box again drops the selection
+                int selectedBoxLine = game.getSelectedBoxLine();
+                int selectedBoxColumn = game.getSelectedBoxColumn();
+                if (line == selectedBoxLine && column == selectedBoxColumn) {
+                    
+                    game.setSelectedBox(-1, -1);
+                    return;
+                }
+                
+                // The selection is dropped as well if the box has been moved by keyboard meanwhile
+                byte selectedItem = selectedBoxLine >= 0 ? level.getItemCodeAt(selectedBoxLine, selectedBoxColumn) : -1;
+                if (selectedBoxLine >= 0 && (selectedItem <= 0 || (selectedItem & LevelBoard.FLAG_BOX) == 0)) {
+                    
+                    game.setSelectedBox(-1, -1);
+                    selectedBoxLine = -1;
+                }
+                
+                byte levelItem = level.getItemCodeAt(line, column);
+                if (levelItem > 0 && (levelItem & LevelBoard.FLAG_BOX) != 0) {
+                    
+                    game.setSelectedBox(line, column);
+                    return;
+                }
+                
+                if (selectedBoxLine >= 0) {
+                    
+                    if (game.pushBoxTo(selectedBoxLine, selectedBoxColumn, line, column) < 0)
+                        return;
+                    game.setSelectedBox(-1, -1);
+                }
+                else
+                    game.moveWorkerTo(line, column);
+                
+                updateMenuItems();
+            }
+        });
+        
         // Creating game's properties change listener
         PropertyChangeListener gamePropertiesChangeListener = new PropertyChangeListener() {
 
@@ -420,6 +486,10 @@ public final class DesktopGame extends JFrame {
                             levelInfoString += String.format(" (\"%s\")", levelName);
                         }
                         
+                        // Warning the player that the level can't be completed without take-backs
+                        if (gameState == GameState.PLAY && level.isDeadlocked())
+                            levelInfoString += " - Deadlock! Take back your moves";
+                        
                         levelInfoLabel.setText(levelInfoString);
                     }
                 });
@@ -670,6 +740,17 @@ public final class DesktopGame extends JFrame {
         menuItemOptions.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_O, ActionEvent.CTRL_MASK));
         menuTools.add(menuItemOptions);
         
+        menuItemFitToScreen = new JCheckBoxMenuItem("Fit Play Field to Screen");
+        menuItemFitToScreen.addActionListener(new ActionListener() {
+
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                
+                setFitToScreen(menuItemFitToScreen.isSelected());
+            }
+        });
+        menuTools.add(menuItemFitToScreen);
+        
         menuBar.add(menuTools);
         
         // Creating help menu
@@ -816,7 +897,11 @@ public final class DesktopGame extends JFrame {
         CompoundFileFilter levelsSetsFilter = new CompoundFileFilter();
         levelsSetsFilter.add(new FileNameExtensionFilter("Storekeeper levels sets (*.xml)", "xml"));
         levelsSetsFilter.add(new FileNameExtensionFilter("Sokoban levels files (*.sok)", "sok"));
-        levelsSetsFilter.add(new FileNameExtensionFilter("All supported levels files (*.xml, *.sok)", "xml", "sok"));
+        String binaryExtension = LevelsSet.BINARY_FILE_EXTENSION.substring(1);
+        levelsSetsFilter.add(new FileNameExtensionFilter(String.format("Storekeeper binary levels sets (*.%s)", binaryExtension),
+                binaryExtension));
+        levelsSetsFilter.add(new FileNameExtensionFilter(String.format("All supported levels files (*.xml, *.sok, *.%s)", binaryExtension),
+                "xml", "sok", binaryExtension));
         levelsSetsFilter.setDefaultFileFilterIndex(levelsSetsFilter.getFileFilters().size() - 1);
         String initialDirectory = recentLevelsSetDirectory == null ? ApplicationPath.getApplicationPath(DesktopGame.class) : recentLevelsSetDirectory;
         File selectedFile = FileBrowser.browseFile(initialDirectory, "Please, select levels set file...", levelsSetsFilter);
@@ -922,12 +1007,68 @@ public final class DesktopGame extends JFrame {
         // Applying sprite's size
         if (!desktopGameGraphics.getSpriteSize().equals(spriteSize))
             desktopGameGraphics.setSpriteSize(spriteSize);
+        applyTileSize(maximalLevelSize);
 
         // Rebuilding game's window if it's required
         rebuildGameWindow();
         return true;
     }
     
+    /**
+     * Scales sprites to the largest tile the play field fits the screen with
+     * if the play field is to fill the screen, or resets sprites' scaling otherwise.
+     * 
+     * Tiles are never smaller than sprites of currently set sprite's size.
+     * 
+     * @param maximalLevelSize
+     *      Maximal level size of loaded levels' set.
+     */
+    protected void applyTileSize(LevelSize maximalLevelSize) {
+        
+        int tileSize = 0;
+        if (menuItemFitToScreen.isSelected()) {
+            
+            tileSize = desktopGameGraphics.determineOptimalTileSize(maximalLevelSize,
+                    0, menuBar.getPreferredSize().height + statusBar.getPreferredSize().height + VERTICAL_PADDING);
+            if (tileSize <= desktopGameGraphics.getSpriteDimension(desktopGameGraphics.getSpriteSize()).width)
+                tileSize = 0;
+        }
+        
+        desktopGameGraphics.setTileSize(tileSize);
+    }
+    
+    /**
+     * Sets whether the play field is to fill the screen, saves the option
+     * and rebuilds game's window.
+     * 
+     * @param fitToScreen
+     *      Must be {@code true} to scale the play field to the screen, {@code false} otherwise.
+     */
+    protected void setFitToScreen(boolean fitToScreen) {
+        
+        Configuration gameConfiguration = game.getGameConfiguration();
+        gameConfiguration.setOption(Configuration.OPTION_FIT_TO_SCREEN, fitToScreen);
+        if (!gameConfiguration.save()) {
+            
+            JOptionPane.showMessageDialog(this,
+                    "Unable to save the changes to configuration file.", "Warning", JOptionPane.WARNING_MESSAGE);
+        }
+        
+        if (!game.isLevelsSetLoaded()) {
+            
+            updateMenuItems();
+            return;
+        }
+        
+        // Rebuilding the window keeps the game stopped so introduction screen is shown again
+        GameState currentGameState = game.getGameState();
+        applyTileSize(game.getLevelsSet().getMaximalLevelSize());
+        rebuildGameWindow();
+        if (currentGameState == GameState.INTRODUCTION)
+            game.stop(true);
+        setVisible(true);
+    }
+    
     /**
      * Rebuilds game's window according to currently set
      * level's width and height parameters.
@@ -1005,6 +1146,7 @@ public final class DesktopGame extends JFrame {
         menuItemTakeBack.setEnabled(currentGameLevel != null ?
                 !isGameStopped && currentGameLevel.getMovesCount() > 0 : false);
         menuItemMovesHistory.setEnabled(currentGameLevel != null && currentGameLevel.getMovesCount() > 0);
+        menuItemFitToScreen.setEnabled(isGameStopped);
     }
     
     /**
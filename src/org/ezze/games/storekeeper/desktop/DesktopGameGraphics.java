@@ -9,6 +9,7 @@ import java.awt.Image;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.net.URL;
+import java.util.EnumMap;
 import javax.imageio.ImageIO;
 import org.ezze.games.storekeeper.Game;
 import org.ezze.games.storekeeper.GameGraphics;
@@ -18,11 +19,36 @@ import org.ezze.games.storekeeper.Level.WorkerDirection;
 /**
  * Represents default game graphics implementation.
  * 
+ * Sprites of each size are cut from a single atlas image {@code sprites.png}
+ * decoded once. Its first row contains brick, goal, box and box on goal sprites,
+ * the second and the third ones contain left and right worker's animation phases.
+ * Separate sprites' images are read only if the atlas is missing.
+ * 
  * @author Dmitriy Pushkov
- * @version 0.0.4
+ * @version 0.0.5
  */
 public class DesktopGameGraphics extends GameGraphics {
     
+    /**
+     * Name of sprites' atlas image in resources' directory of each sprite size.
+     */
+    protected static final String SPRITE_ATLAS_NAME = "sprites";
+    
+    /**
+     * Identifiers of static sprites in the order of atlas' first row.
+     */
+    protected static final String[] SPRITE_ATLAS_STATIC_IDS = new String[] {
+        GameGraphics.SPRITE_ID_BRICK,
+        GameGraphics.SPRITE_ID_GOAL,
+        GameGraphics.SPRITE_ID_BOX,
+        GameGraphics.SPRITE_ID_BOX_ON_GOAL
+    };
+    
+    /**
+     * Decoded sprites' atlases, {@code null} value means that size's atlas is missing.
+     */
+    protected EnumMap<SpriteSize, BufferedImage> spriteAtlases = new EnumMap<SpriteSize, BufferedImage>(SpriteSize.class);
+    
     @Override
     public Dimension getSpriteDimension(SpriteSize spriteDimension) {
 
@@ -76,6 +102,14 @@ public class DesktopGameGraphics extends GameGraphics {
         else if (spriteDimension == SpriteSize.SMALL)
             dimensionSubdirectoryName = "16x16";
         
+        // Cutting the sprite from the atlas if it's there
+        if (!imageID.equals(GameGraphics.IMAGE_ID_INTRODUCTION)) {
+            
+            BufferedImage spriteAtlas = getSpriteAtlas(spriteDimension, dimensionSubdirectoryName);
+            if (spriteAtlas != null)
+                return getSpriteFromAtlas(spriteAtlas, getSpriteDimension(spriteDimension), imageID, animationIndex);
+        }
+        
         String imageFileName = "";
         if (imageID.equals(GameGraphics.IMAGE_ID_INTRODUCTION))
             imageFileName = "intro";
@@ -104,6 +138,109 @@ public class DesktopGameGraphics extends GameGraphics {
         }
     }
     
+    /**
+     * Retrieves sprites' atlas of specified sprite size decoding it at the first call.
+     * 
+     * @param spriteDimension
+     *      Atlas' sprite size.
+     * @param dimensionSubdirectoryName
+     *      Resources' subdirectory of the sprite size.
+     * @return
+     *      Atlas' image or {@code null} if it's missing.
+     */
+    protected BufferedImage getSpriteAtlas(SpriteSize spriteDimension, String dimensionSubdirectoryName) {
+        
+        if (spriteAtlases.containsKey(spriteDimension))
+            return spriteAtlases.get(spriteDimension);
+        
+        BufferedImage spriteAtlas = null;
+        String resourcePathToAtlas = String.format("/%s/resources/%s/%s.png",
+                Game.class.getPackage().getName().replace('.', '/'), dimensionSubdirectoryName, SPRITE_ATLAS_NAME);
+        URL atlasURL = DesktopGameGraphics.class.getResource(resourcePathToAtlas);
+        if (atlasURL != null) {
+            
+            try {
+                
+                spriteAtlas = ImageIO.read(atlasURL);
+            }
+            catch (IOException ex) {
+                
+            }
+        }
+        
+        spriteAtlases.put(spriteDimension, spriteAtlas);
+        return spriteAtlas;
+    }
+    
+    /**
+     * Cuts a sprite from sprites' atlas.
+     * 
+     * The sprite is copied to its own compatible image rather than shares atlas' raster
+     * so it can be accelerated separately.
+     * 
+     * @param spriteAtlas
+     *      Sprites' atlas.
+     * @param spriteDimension
+     *      Dimension of atlas' sprites.
+     * @param imageID
+     *      Desired sprite's string identifier.
+     * @param animationIndex
+     *      Animation position for animated sprite or {@code 0} for static sprite.
+     * @return
+     *      Desired sprite image or {@code null} if the atlas doesn't contain it.
+     */
+    protected Image getSpriteFromAtlas(BufferedImage spriteAtlas, Dimension spriteDimension, String imageID, int animationIndex) {
+        
+        int rowIndex = -1;
+        int columnIndex = animationIndex;
+        if (imageID.equals(GameGraphics.SPRITE_ID_WORKER_LEFT)) {
+            
+            rowIndex = 1;
+        }
+        else if (imageID.equals(GameGraphics.SPRITE_ID_WORKER_RIGHT)) {
+            
+            rowIndex = 2;
+        }
+        else if (animationIndex == 0) {
+            
+            for (int staticIndex = 0; staticIndex < SPRITE_ATLAS_STATIC_IDS.length; staticIndex++) {
+                
+                if (SPRITE_ATLAS_STATIC_IDS[staticIndex].equals(imageID)) {
+                    
+                    rowIndex = 0;
+                    columnIndex = staticIndex;
+                }
+            }
+        }
+        
+        int spriteX = columnIndex * spriteDimension.width;
+        int spriteY = rowIndex * spriteDimension.height;
+        if (rowIndex < 0 || spriteX + spriteDimension.width > spriteAtlas.getWidth() ||
+                spriteY + spriteDimension.height > spriteAtlas.getHeight()) {
+            
+            return null;
+        }
+        
+        BufferedImage spriteImage = new BufferedImage(spriteDimension.width, spriteDimension.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = spriteImage.createGraphics();
+        g2d.drawImage(spriteAtlas, 0, 0, spriteDimension.width, spriteDimension.height,
+                spriteX, spriteY, spriteX + spriteDimension.width, spriteY + spriteDimension.height, null);
+        g2d.dispose();
+        
+        return toCompatibleImage(spriteImage);
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * Scaled sprite is made compatible with current graphics configuration.
+     */
+    @Override
+    protected BufferedImage scaleSprite(Image sprite, int width, int height) {
+        
+        return toCompatibleImage(super.scaleSprite(sprite, width, height));
+    }
+    
     /**
      * Creates an image instance compatible with current graphics configuration.
      * 
@@ -0,0 +1,140 @@
+package org.ezze.games.storekeeper.solver;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe {@link TranspositionTable} with striped locking.
+ * 
+ * Buckets are guarded by a fixed set of locks so threads accessing
+ * different stripes don't wait for each other. A bucket's slots and its clock
+ * hand are only accessed under the bucket's lock. {@link #clear()} must not
+ * be called while other threads access the table.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.2
+ */
+public class ConcurrentTranspositionTable extends TranspositionTable {
+    
+    /**
+     * Default count of locks.
+     */
+    public static final int DEFAULT_STRIPES_COUNT = 256;
+    
+    /**
+     * Locks guarding buckets.
+     */
+    protected final Object[] locks;
+    
+    /**
+     * Count of occupied slots.
+     */
+    protected final AtomicInteger concurrentSize = new AtomicInteger();
+    
+    /**
+     * Count of replaced or rejected entries.
+     */
+    protected final AtomicLong concurrentEvictionsCount = new AtomicLong();
+    
+    /**
+     * Creates a table with {@link #DEFAULT_STRIPES_COUNT} locks.
+     * 
+     * @param memoryLimit
+     *      Maximal memory occupied by table's entries in bytes.
+     * @param replacementPolicy
+     *      Replacement policy.
+     */
+    public ConcurrentTranspositionTable(long memoryLimit, ReplacementPolicy replacementPolicy) {
+        
+        this(memoryLimit, replacementPolicy, DEFAULT_STRIPES_COUNT);
+    }
+    
+    /**
+     * Creates a table.
+     * 
+     * @param memoryLimit
+     *      Maximal memory occupied by table's entries in bytes.
+     * @param replacementPolicy
+     *      Replacement policy.
+     * @param stripesCount
+     *      Count of locks, rounded down to a power of two.
+     */
+    public ConcurrentTranspositionTable(long memoryLimit, ReplacementPolicy replacementPolicy, int stripesCount) {
+        
+        super(memoryLimit, replacementPolicy);
+        locks = new Object[Integer.highestOneBit(Math.max(stripesCount, 1))];
+        for (int lockIndex = 0; lockIndex < locks.length; lockIndex++)
+            locks[lockIndex] = new Object();
+    }
+    
+    /**
+     * Retrieves a lock guarding key's bucket.
+     * 
+     * @param key
+     *      State's hash.
+     * @return
+     *      Lock's instance.
+     */
+    protected Object getLock(long key) {
+        
+        return locks[(getFirstSlot(toStoredKey(key)) / PROBES_COUNT) & (locks.length - 1)];
+    }
+    
+    @Override
+    public int get(long key) {
+        
+        synchronized (getLock(key)) {
+            
+            return super.get(key);
+        }
+    }
+    
+    @Override
+    public boolean put(long key, int value) {
+        
+        synchronized (getLock(key)) {
+            
+            return super.put(key, value);
+        }
+    }
+    
+    @Override
+    public boolean offer(long key, int value) {
+        
+        synchronized (getLock(key)) {
+            
+            return super.offer(key, value);
+        }
+    }
+    
+    @Override
+    protected void onEntryAdded() {
+        
+        concurrentSize.incrementAndGet();
+    }
+    
+    @Override
+    protected void onEntryEvicted() {
+        
+        concurrentEvictionsCount.incrementAndGet();
+    }
+    
+    @Override
+    public void clear() {
+        
+        super.clear();
+        concurrentSize.set(0);
+    }
+    
+    @Override
+    public int size() {
+        
+        return concurrentSize.get();
+    }
+    
+    @Override
+    public long getEvictionsCount() {
+        
+        return concurrentEvictionsCount.get();
+    }
+}
\ No newline at end of file
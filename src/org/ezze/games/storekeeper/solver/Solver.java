@@ -0,0 +1,941 @@
+package org.ezze.games.storekeeper.solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.ezze.games.storekeeper.DeadlockAnalyzer;
+import org.ezze.games.storekeeper.Level;
+import org.ezze.games.storekeeper.Level.MoveInformation;
+import org.ezze.games.storekeeper.LevelBoard;
+import org.ezze.games.storekeeper.LevelEngine;
+import org.ezze.games.storekeeper.ZobristKeys;
+
+/**
+ * Sokoban solver searching for a solution with minimal pushes count.
+ * 
+ * The search operates on push-level states: a state is described by sorted boxes'
+ * positions and the area reachable by the worker (normalized to the least reachable
+ * position) so worker's walking doesn't produce new states. States are identified
+ * by their {@link ZobristKeys} hashes updated incrementally and visited states are kept
+ * in a memory bounded {@link TranspositionTable}. Each expansion performs
+ * a single push, pushes leading to deadlocks are pruned by {@link DeadlockAnalyzer}.
+ * The heuristic is a sum of minimal pushes required to bring each box to any goal,
+ * it never overestimates so found solutions are push-optimal while
+ * {@link #getHeuristicWeight()} equals to {@code 1}.
+ * 
+ * Found solution is expanded to worker's moves and pushes and replayed
+ * through {@link LevelEngine} to make sure it conforms to game's rules.
+ * 
+ * {@link Algorithm#A_STAR} search may expand states in parallel, see
+ * {@link #setParallelism(int)}. One instance of the solver must be confined
+ * to a single thread.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.4
+ * @see SolverResult
+ */
+public class Solver {
+    
+    /**
+     * Search algorithms.
+     */
+    public static enum Algorithm {
+        
+        /**
+         * Best-first search keeping all generated states in memory.
+         */
+        A_STAR,
+        
+        /**
+         * Iterative deepening search, slower than {@link #A_STAR} but requires
+         * memory for visited states of a single iteration only.
+         */
+        IDA_STAR
+    };
+    
+    /**
+     * Default maximal count of states to expand.
+     */
+    public static final int DEFAULT_MAXIMAL_STATES_COUNT = 1000000;
+    
+    /**
+     * Default time limit of solving in milliseconds.
+     */
+    public static final long DEFAULT_TIME_LIMIT = 60000;
+    
+    /**
+     * Default memory limit of the search in bytes.
+     */
+    public static final long DEFAULT_MEMORY_LIMIT = 256L * 1024 * 1024;
+    
+    /**
+     * Part of memory limit given to {@link TranspositionTable}.
+     */
+    protected static final int TRANSPOSITION_TABLE_MEMORY_DIVISOR = 4;
+    
+    /**
+     * Default count of best states expanded in parallel at once.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    
+    /**
+     * Orders nodes by estimated solution's pushes count, then by remaining pushes
+     * count, then by creation order.
+     */
+    protected static final Comparator<Node> NODES_COMPARATOR = new Comparator<Node>() {
+        
+        @Override
+        public int compare(Node first, Node second) {
+            
+            if (first.priority != second.priority)
+                return first.priority < second.priority ? -1 : 1;
+            if (first.estimate != second.estimate)
+                return first.estimate < second.estimate ? -1 : 1;
+            if (first.sequence != second.sequence)
+                return first.sequence < second.sequence ? -1 : 1;
+            return 0;
+        }
+    };
+    
+    /**
+     * Search algorithm.
+     */
+    protected Algorithm algorithm = Algorithm.A_STAR;
+    
+    /**
+     * Weight of heuristic estimate.
+     */
+    protected int heuristicWeight = 1;
+    
+    /**
+     * Maximal count of states to expand.
+     */
+    protected int maximalStatesCount = DEFAULT_MAXIMAL_STATES_COUNT;
+    
+    /**
+     * Time limit of solving in milliseconds.
+     */
+    protected long timeLimit = DEFAULT_TIME_LIMIT;
+    
+    /**
+     * Memory limit of the search in bytes.
+     */
+    protected long memoryLimit = DEFAULT_MEMORY_LIMIT;
+    
+    /**
+     * Replacement policy of visited states' table.
+     */
+    protected TranspositionTable.ReplacementPolicy replacementPolicy = TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED;
+    
+    /**
+     * Count of threads expanding states.
+     */
+    protected int parallelism = 1;
+    
+    /**
+     * Indicates whether parallel search must produce the same results as
+     * any other parallel search with the same settings.
+     */
+    protected boolean deterministic = true;
+    
+    /**
+     * Count of best states expanded in parallel at once.
+     */
+    protected int batchSize = DEFAULT_BATCH_SIZE;
+    
+    /**
+     * States' generator of current search.
+     */
+    protected StateExpander expander = null;
+    
+    /**
+     * Pool of threads expanding states in parallel search.
+     */
+    protected ForkJoinPool forkJoinPool = null;
+    
+    /**
+     * Copies of {@link #expander} confined to threads of parallel search.
+     */
+    protected ThreadLocal<StateExpander> threadExpanders = null;
+    
+    /**
+     * Table of visited states of current search.
+     */
+    protected TranspositionTable transpositionTable = null;
+    
+    /**
+     * Estimated memory occupied by a single node in bytes.
+     */
+    protected int nodeSize = 0;
+    
+    /**
+     * Memory available for nodes in bytes.
+     */
+    protected long nodesMemoryLimit = 0;
+    
+    /**
+     * Count of expanded states.
+     */
+    protected int exploredStatesCount = 0;
+    
+    /**
+     * Time when the search must be stopped.
+     */
+    protected long deadlineTime = 0;
+    
+    /**
+     * Indicates whether the search has been stopped by a limit.
+     */
+    protected boolean limitExceeded = false;
+    
+    /**
+     * Creation counter of nodes.
+     */
+    protected long sequence = 0;
+    
+    /**
+     * Least estimate exceeding current threshold of {@link Algorithm#IDA_STAR} iteration.
+     */
+    protected int nextThreshold = DeadlockAnalyzer.INFINITE_DISTANCE;
+    
+    /**
+     * Creates solver with default settings.
+     */
+    public Solver() {
+    }
+    
+    /**
+     * Retrieves search algorithm.
+     * 
+     * @return
+     *      Search algorithm.
+     */
+    public Algorithm getAlgorithm() {
+        
+        return algorithm;
+    }
+    
+    /**
+     * Sets search algorithm.
+     * 
+     * @param algorithm
+     *      Search algorithm.
+     */
+    public void setAlgorithm(Algorithm algorithm) {
+        
+        if (algorithm != null)
+            this.algorithm = algorithm;
+    }
+    
+    /**
+     * Retrieves weight of heuristic estimate.
+     * 
+     * @return
+     *      Heuristic's weight.
+     */
+    public int getHeuristicWeight() {
+        
+        return heuristicWeight;
+    }
+    
+    /**
+     * Sets weight of heuristic estimate.
+     * 
+     * Weight greater than {@code 1} speeds up the search but found solutions
+     * may be not push-optimal.
+     * 
+     * @param heuristicWeight
+     *      Heuristic's weight, values less than {@code 1} are ignored.
+     */
+    public void setHeuristicWeight(int heuristicWeight) {
+        
+        if (heuristicWeight >= 1)
+            this.heuristicWeight = heuristicWeight;
+    }
+    
+    /**
+     * Retrieves maximal count of states to expand.
+     * 
+     * @return
+     *      Maximal states count.
+     */
+    public int getMaximalStatesCount() {
+        
+        return maximalStatesCount;
+    }
+    
+    /**
+     * Sets maximal count of states to expand.
+     * 
+     * @param maximalStatesCount
+     *      Maximal states count, non-positive values are ignored.
+     */
+    public void setMaximalStatesCount(int maximalStatesCount) {
+        
+        if (maximalStatesCount > 0)
+            this.maximalStatesCount = maximalStatesCount;
+    }
+    
+    /**
+     * Retrieves time limit of solving.
+     * 
+     * @return
+     *      Time limit in milliseconds.
+     */
+    public long getTimeLimit() {
+        
+        return timeLimit;
+    }
+    
+    /**
+     * Sets time limit of solving.
+     * 
+     * @param timeLimit
+     *      Time limit in milliseconds, non-positive values are ignored.
+     */
+    public void setTimeLimit(long timeLimit) {
+        
+        if (timeLimit > 0)
+            this.timeLimit = timeLimit;
+    }
+    
+    /**
+     * Retrieves memory limit of the search.
+     * 
+     * @return
+     *      Memory limit in bytes.
+     */
+    public long getMemoryLimit() {
+        
+        return memoryLimit;
+    }
+    
+    /**
+     * Sets memory limit of the search.
+     * 
+     * A quarter of the limit is given to visited states' table which starts
+     * replacing its entries once it's full, the rest limits the count of search nodes
+     * kept by {@link Algorithm#A_STAR} search which is stopped when it's exceeded.
+     * 
+     * @param memoryLimit
+     *      Memory limit in bytes, non-positive values are ignored.
+     */
+    public void setMemoryLimit(long memoryLimit) {
+        
+        if (memoryLimit > 0)
+            this.memoryLimit = memoryLimit;
+    }
+    
+    /**
+     * Retrieves replacement policy of visited states' table.
+     * 
+     * @return
+     *      Replacement policy.
+     */
+    public TranspositionTable.ReplacementPolicy getReplacementPolicy() {
+        
+        return replacementPolicy;
+    }
+    
+    /**
+     * Sets replacement policy of visited states' table.
+     * 
+     * @param replacementPolicy
+     *      Replacement policy.
+     */
+    public void setReplacementPolicy(TranspositionTable.ReplacementPolicy replacementPolicy) {
+        
+        if (replacementPolicy != null)
+            this.replacementPolicy = replacementPolicy;
+    }
+    
+    /**
+     * Retrieves count of threads expanding states.
+     * 
+     * @return
+     *      Threads count.
+     */
+    public int getParallelism() {
+        
+        return parallelism;
+    }
+    
+    /**
+     * Sets count of threads expanding states.
+     * 
+     * While the count is greater than {@code 1} {@link Algorithm#A_STAR} search takes
+     * a batch of best states from the open list, expands them by work-stealing
+     * {@link ForkJoinPool} and shares visited states through
+     * {@link ConcurrentTranspositionTable}. {@link Algorithm#IDA_STAR} search
+     * is always performed by a single thread.
+     * 
+     * @param parallelism
+     *      Threads count, non-positive values are ignored.
+     */
+    public void setParallelism(int parallelism) {
+        
+        if (parallelism > 0)
+            this.parallelism = parallelism;
+    }
+    
+    /**
+     * Checks whether parallel search is deterministic.
+     * 
+     * @return
+     *      {@code true} if parallel search is deterministic, {@code false} otherwise.
+     */
+    public boolean isDeterministic() {
+        
+        return deterministic;
+    }
+    
+    /**
+     * Sets whether parallel search is deterministic.
+     * 
+     * Deterministic search only reads visited states' table while expanding a batch
+     * and merges generated states in batch's order afterwards, so its results
+     * depend on batch's size but not on threads count and scheduling.
+     * Otherwise threads update the table concurrently which prunes more states
+     * earlier but makes explored states' count and found solution (not its pushes count
+     * if heuristic's weight equals to {@code 1}) vary from run to run.
+     * 
+     * @param deterministic
+     *      {@code true} to make parallel search deterministic.
+     */
+    public void setDeterministic(boolean deterministic) {
+        
+        this.deterministic = deterministic;
+    }
+    
+    /**
+     * Retrieves count of best states expanded in parallel at once.
+     * 
+     * @return
+     *      Batch's size.
+     */
+    public int getBatchSize() {
+        
+        return batchSize;
+    }
+    
+    /**
+     * Sets count of best states expanded in parallel at once.
+     * 
+     * @param batchSize
+     *      Batch's size, non-positive values are ignored.
+     */
+    public void setBatchSize(int batchSize) {
+        
+        if (batchSize > 0)
+            this.batchSize = batchSize;
+    }
+    
+    /**
+     * Searches for a solution of specified level starting from its initial position.
+     * 
+     * @param level
+     *      Level to solve.
+     * @return
+     *      Solving result.
+     * @throws IllegalStateException
+     *      If found solution doesn't conform to game's rules.
+     */
+    public SolverResult solve(Level level) {
+        
+        long startTime = System.currentTimeMillis();
+        LevelEngine engine = level != null ? level.createEngine() : null;
+        if (engine == null)
+            return new SolverResult(SolverResult.Status.INVALID_LEVEL, null, 0, 0);
+        
+        exploredStatesCount = 0;
+        deadlineTime = startTime + timeLimit;
+        limitExceeded = false;
+        sequence = 0;
+        
+        // Analyzing the board
+        LevelBoard board = engine.getBoard();
+        expander = new StateExpander(board, heuristicWeight);
+        int[] initialBoxes = expander.getInitialBoxes();
+        int initialWorker = engine.getWorkerY() * expander.getWidth() + engine.getWorkerX();
+        boolean isParallel = algorithm == Algorithm.A_STAR && parallelism > 1;
+        
+        // Distributing memory between visited states and nodes
+        long transpositionTableMemoryLimit = memoryLimit / TRANSPOSITION_TABLE_MEMORY_DIVISOR;
+        transpositionTable = isParallel ?
+                new ConcurrentTranspositionTable(transpositionTableMemoryLimit, replacementPolicy) :
+                new TranspositionTable(transpositionTableMemoryLimit, replacementPolicy);
+        nodesMemoryLimit = memoryLimit - transpositionTable.getMemorySize();
+        nodeSize = 128 + 4 * initialBoxes.length;
+        
+        Node solution = null;
+        int initialEstimate = expander.getEstimate(initialBoxes);
+        if (initialEstimate < DeadlockAnalyzer.INFINITE_DISTANCE &&
+                !expander.getDeadlockAnalyzer().isDeadlocked(board.getItems(), initialWorker)) {
+            
+            Node root = expander.createNode(initialBoxes, expander.getZobristKeys().getBoxesHash(board.getItems()),
+                    initialWorker, 0, initialEstimate, null, -1, -1);
+            if (algorithm == Algorithm.IDA_STAR)
+                solution = searchIDAStar(root);
+            else if (isParallel) {
+                
+                final StateExpander prototype = expander;
+                threadExpanders = new ThreadLocal<StateExpander>() {
+                    
+                    @Override
+                    protected StateExpander initialValue() {
+                        
+                        return new StateExpander(prototype);
+                    }
+                };
+                forkJoinPool = new ForkJoinPool(parallelism);
+                try {
+                    
+                    solution = searchParallelAStar(root);
+                }
+                finally {
+                    
+                    forkJoinPool.shutdown();
+                    forkJoinPool = null;
+                    threadExpanders = null;
+                }
+            }
+            else
+                solution = searchAStar(root);
+        }
+        
+        transpositionTable = null;
+        if (solution == null) {
+            
+            expander = null;
+            
+            return new SolverResult(limitExceeded ? SolverResult.Status.LIMIT_EXCEEDED : SolverResult.Status.UNSOLVABLE,
+                    null, exploredStatesCount, System.currentTimeMillis() - startTime);
+        }
+        
+        // Expanding the solution to moves and checking them by the engine
+        List<MoveInformation> moves = expander.createMoves(solution, initialWorker);
+        expander = null;
+        for (MoveInformation moveInformation : moves) {
+            
+            if (engine.move(moveInformation.getDirection(), true).getType() != moveInformation.getType())
+                throw new IllegalStateException("Solution doesn't conform to game's rules.");
+        }
+        if (!engine.isCompleted())
+            throw new IllegalStateException("Solution doesn't complete the level.");
+        
+        return new SolverResult(SolverResult.Status.SOLVED, moves, exploredStatesCount,
+                System.currentTimeMillis() - startTime);
+    }
+    
+    /**
+     * Checks whether the search must be stopped.
+     * 
+     * @return
+     *      {@code true} if states' count, memory or time limit is exceeded, {@code false} otherwise.
+     */
+    protected boolean isLimitExceeded() {
+        
+        if (!limitExceeded) {
+            
+            if (exploredStatesCount >= maximalStatesCount)
+                limitExceeded = true;
+            else if (algorithm == Algorithm.A_STAR && sequence * nodeSize > nodesMemoryLimit)
+                limitExceeded = true;
+            else if ((exploredStatesCount & 0xFF) == 0 && System.currentTimeMillis() > deadlineTime)
+                limitExceeded = true;
+        }
+        return limitExceeded;
+    }
+    
+    /**
+     * Performs {@link Algorithm#A_STAR} search.
+     * 
+     * @param root
+     *      Node of initial state.
+     * @return
+     *      Node of solved state or {@code null} if solution is not found.
+     */
+    protected Node searchAStar(Node root) {
+        
+        PriorityQueue<Node> openNodes = new PriorityQueue<Node>(1024, NODES_COMPARATOR);
+        transpositionTable.put(root.hash, root.pushesCount);
+        addOpenNode(openNodes, root);
+        while (!openNodes.isEmpty()) {
+            
+            if (isLimitExceeded())
+                return null;
+            
+            Node node = openNodes.poll();
+            if (isStale(node))
+                continue;
+            if (node.estimate == 0)
+                return node;
+            
+            exploredStatesCount++;
+            for (Node child : expander.expand(node)) {
+                
+                if (!isVisited(child)) {
+                    
+                    transpositionTable.put(child.hash, child.pushesCount);
+                    addOpenNode(openNodes, child);
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Performs {@link Algorithm#A_STAR} search expanding batches of best nodes in parallel.
+     * 
+     * Nodes of a batch are taken from the open list in the same order
+     * as by sequential search so a found solution is still optimal if heuristic's
+     * weight equals to {@code 1}.
+     * 
+     * @param root
+     *      Node of initial state.
+     * @return
+     *      Node of solved state or {@code null} if solution is not found.
+     */
+    protected Node searchParallelAStar(Node root) {
+        
+        PriorityQueue<Node> openNodes = new PriorityQueue<Node>(1024, NODES_COMPARATOR);
+        transpositionTable.put(root.hash, root.pushesCount);
+        addOpenNode(openNodes, root);
+        List<Node> batch = new ArrayList<Node>(batchSize);
+        while (!openNodes.isEmpty()) {
+            
+            if (isLimitExceeded())
+                return null;
+            if (System.currentTimeMillis() > deadlineTime) {
+                
+                limitExceeded = true;
+                return null;
+            }
+            
+            // Taking best nodes
+            batch.clear();
+            while (batch.size() < batchSize && !openNodes.isEmpty()) {
+                
+                Node node = openNodes.poll();
+                if (isStale(node))
+                    continue;
+                if (node.estimate == 0)
+                    return node;
+                batch.add(node);
+            }
+            if (batch.isEmpty())
+                break;
+            
+            // Expanding the batch
+            List<List<Node>> children = new ArrayList<List<Node>>(Collections.<List<Node>>nCopies(batch.size(), null));
+            forkJoinPool.invoke(new ExpandTask(batch, children, 0, batch.size()));
+            exploredStatesCount += batch.size();
+            
+            // Merging children in batch's order
+            for (List<Node> nodeChildren : children) {
+                
+                for (Node child : nodeChildren) {
+                    
+                    if (deterministic) {
+                        
+                        if (isVisited(child))
+                            continue;
+                        transpositionTable.put(child.hash, child.pushesCount);
+                    }
+                    addOpenNode(openNodes, child);
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Adds a node to the open list assigning its creation order.
+     * 
+     * @param openNodes
+     *      Open list.
+     * @param node
+     *      Node to add.
+     */
+    protected void addOpenNode(PriorityQueue<Node> openNodes, Node node) {
+        
+        node.sequence = sequence++;
+        openNodes.add(node);
+    }
+    
+    /**
+     * Checks whether node's state has been reached by less pushes after the node was created.
+     * 
+     * @param node
+     *      Node to check.
+     * @return
+     *      {@code true} if the node is stale, {@code false} otherwise.
+     */
+    protected boolean isStale(Node node) {
+        
+        int knownPushesCount = transpositionTable.get(node.hash);
+        return knownPushesCount != TranspositionTable.NOT_FOUND && knownPushesCount < node.pushesCount;
+    }
+    
+    /**
+     * Checks whether node's state has been reached by not more pushes.
+     * 
+     * @param node
+     *      Node to check.
+     * @return
+     *      {@code true} if the node's state is visited, {@code false} otherwise.
+     */
+    protected boolean isVisited(Node node) {
+        
+        int knownPushesCount = transpositionTable.get(node.hash);
+        return knownPushesCount != TranspositionTable.NOT_FOUND && knownPushesCount <= node.pushesCount;
+    }
+    
+    /**
+     * Performs {@link Algorithm#IDA_STAR} search.
+     * 
+     * @param root
+     *      Node of initial state.
+     * @return
+     *      Node of solved state or {@code null} if solution is not found.
+     */
+    protected Node searchIDAStar(Node root) {
+        
+        int threshold = root.priority;
+        while (true) {
+            
+            transpositionTable.clear();
+            transpositionTable.put(root.hash, root.pushesCount);
+            nextThreshold = DeadlockAnalyzer.INFINITE_DISTANCE;
+            Node solution = searchDepthFirst(root, threshold);
+            if (solution != null)
+                return solution;
+            if (limitExceeded || nextThreshold >= DeadlockAnalyzer.INFINITE_DISTANCE)
+                return null;
+            threshold = nextThreshold;
+        }
+    }
+    
+    /**
+     * Performs depth-first search of {@link Algorithm#IDA_STAR} iteration.
+     * 
+     * @param node
+     *      Node to search from.
+     * @param threshold
+     *      Maximal estimate of nodes to expand.
+     * @return
+     *      Node of solved state or {@code null} if solution is not found.
+     */
+    protected Node searchDepthFirst(Node node, int threshold) {
+        
+        if (node.priority > threshold) {
+            
+            if (node.priority < nextThreshold)
+                nextThreshold = node.priority;
+            return null;
+        }
+        if (node.estimate == 0)
+            return node;
+        if (isLimitExceeded())
+            return null;
+        
+        exploredStatesCount++;
+        List<Node> children = expander.expand(node);
+        for (Node child : children)
+            child.sequence = sequence++;
+        Collections.sort(children, NODES_COMPARATOR);
+        for (Node child : children) {
+            
+            if (isVisited(child))
+                continue;
+            transpositionTable.put(child.hash, child.pushesCount);
+            Node solution = searchDepthFirst(child, threshold);
+            if (solution != null || limitExceeded)
+                return solution;
+        }
+        return null;
+    }
+    
+    /**
+     * This class expands a range of batch's nodes splitting it between threads.
+     */
+    protected class ExpandTask extends RecursiveAction {
+        
+        /**
+         * Serialization's version of the task.
+         */
+        private static final long serialVersionUID = 1L;
+        
+        /**
+         * Nodes to expand.
+         */
+        protected final List<Node> batch;
+        
+        /**
+         * Children of batch's nodes filled by the task, the list is pre-filled
+         * with {@code null} and is never resized.
+         */
+        protected final List<List<Node>> children;
+        
+        /**
+         * First index of the range.
+         */
+        protected final int fromIndex;
+        
+        /**
+         * Index following the last one of the range.
+         */
+        protected final int toIndex;
+        
+        /**
+         * Creates a task.
+         * 
+         * @param batch
+         *      Nodes to expand.
+         * @param children
+         *      Children of batch's nodes filled by the task.
+         * @param fromIndex
+         *      First index of the range.
+         * @param toIndex
+         *      Index following the last one of the range.
+         */
+        protected ExpandTask(List<Node> batch, List<List<Node>> children, int fromIndex, int toIndex) {
+            
+            this.batch = batch;
+            this.children = children;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+        
+        @Override
+        protected void compute() {
+            
+            if (toIndex - fromIndex > 1) {
+                
+                int middleIndex = (fromIndex + toIndex) >>> 1;
+                invokeAll(new ExpandTask(batch, children, fromIndex, middleIndex),
+                        new ExpandTask(batch, children, middleIndex, toIndex));
+                return;
+            }
+            
+            // Pruning visited states, the table is updated here in non-deterministic mode only,
+            // a state rejected by the full table is kept as the deterministic mode keeps it
+            StateExpander threadExpander = threadExpanders.get();
+            List<Node> nodeChildren = threadExpander.expand(batch.get(fromIndex));
+            List<Node> newChildren = new ArrayList<Node>(nodeChildren.size());
+            for (Node child : nodeChildren) {
+                
+                if (deterministic ? !isVisited(child) : (transpositionTable.offer(child.hash, child.pushesCount)
+                        || transpositionTable.get(child.hash) == TranspositionTable.NOT_FOUND))
+                    newChildren.add(child);
+            }
+            children.set(fromIndex, newChildren);
+        }
+    }
+    
+    /**
+     * This class represents a push-level state of the search.
+     * 
+     * States are identified by their Zobrist hashes.
+     */
+    protected static class Node {
+        
+        /**
+         * Sorted boxes' positions.
+         */
+        protected final int[] boxes;
+        
+        /**
+         * Hash of boxes' positions.
+         */
+        protected final long boxesHash;
+        
+        /**
+         * Hash of the state.
+         */
+        protected final long hash;
+        
+        /**
+         * Least position reachable by the worker.
+         */
+        protected final int workerPosition;
+        
+        /**
+         * Pushes count performed from initial state.
+         */
+        protected final int pushesCount;
+        
+        /**
+         * Estimated remaining pushes count.
+         */
+        protected final int estimate;
+        
+        /**
+         * Weighted estimate of solution's pushes count.
+         */
+        protected final int priority;
+        
+        /**
+         * Parent node or {@code null} for initial state.
+         */
+        protected final Node parent;
+        
+        /**
+         * Position of pushed box before the push leading to this node.
+         */
+        protected final int pushedBox;
+        
+        /**
+         * Direction code of the push leading to this node.
+         */
+        protected final int pushDirection;
+        
+        /**
+         * Order of node's adding to the search.
+         */
+        protected long sequence = 0;
+        
+        /**
+         * Creates a node.
+         * 
+         * @param boxes
+         *      Sorted boxes' positions.
+         * @param boxesHash
+         *      Hash of boxes' positions.
+         * @param hash
+         *      Hash of the state.
+         * @param workerPosition
+         *      Least position reachable by the worker.
+         * @param pushesCount
+         *      Pushes count performed from initial state.
+         * @param estimate
+         *      Estimated remaining pushes count.
+         * @param priority
+         *      Weighted estimate of solution's pushes count.
+         * @param parent
+         *      Parent node or {@code null} for initial state.
+         * @param pushedBox
+         *      Position of pushed box before the push leading to this node.
+         * @param pushDirection
+         *      Direction code of the push leading to this node.
+         */
+        protected Node(int[] boxes, long boxesHash, long hash, int workerPosition, int pushesCount, int estimate,
+                int priority, Node parent, int pushedBox, int pushDirection) {
+            
+            this.boxes = boxes;
+            this.boxesHash = boxesHash;
+            this.hash = hash;
+            this.workerPosition = workerPosition;
+            this.pushesCount = pushesCount;
+            this.estimate = estimate;
+            this.priority = priority;
+            this.parent = parent;
+            this.pushedBox = pushedBox;
+            this.pushDirection = pushDirection;
+        }
+    }
+}
\ No newline at end of file
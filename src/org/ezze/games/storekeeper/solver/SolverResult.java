@@ -0,0 +1,173 @@
+package org.ezze.games.storekeeper.solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.ezze.games.storekeeper.Level.MoveInformation;
+import org.ezze.games.storekeeper.Level.MoveType;
+
+/**
+ * This class describes an outcome of level's solving by {@link Solver}.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ */
+public class SolverResult {
+    
+    /**
+     * Solving outcomes.
+     */
+    public static enum Status {
+        
+        /**
+         * Solution has been found.
+         */
+        SOLVED,
+        
+        /**
+         * Search space has been exhausted, level can't be solved.
+         */
+        UNSOLVABLE,
+        
+        /**
+         * Search has been stopped by states' count or time limit.
+         */
+        LIMIT_EXCEEDED,
+        
+        /**
+         * Level is not playable and can't be solved.
+         */
+        INVALID_LEVEL
+    };
+    
+    /**
+     * Solving outcome.
+     */
+    protected Status status;
+    
+    /**
+     * Solution's moves including worker's walking moves.
+     */
+    protected List<MoveInformation> moves;
+    
+    /**
+     * Solution's pushes count.
+     */
+    protected int pushesCount = 0;
+    
+    /**
+     * Count of states expanded by the search.
+     */
+    protected int exploredStatesCount;
+    
+    /**
+     * Time of solving in milliseconds.
+     */
+    protected long elapsedTime;
+    
+    /**
+     * Creates solver's result.
+     * 
+     * @param status
+     *      Solving outcome.
+     * @param moves
+     *      Solution's moves or {@code null} if level is not solved.
+     * @param exploredStatesCount
+     *      Count of states expanded by the search.
+     * @param elapsedTime
+     *      Time of solving in milliseconds.
+     */
+    public SolverResult(Status status, List<MoveInformation> moves, int exploredStatesCount, long elapsedTime) {
+        
+        this.status = status;
+        this.moves = moves != null ? Collections.unmodifiableList(new ArrayList<MoveInformation>(moves)) :
+                Collections.<MoveInformation>emptyList();
+        for (MoveInformation moveInformation : this.moves) {
+            
+            if (moveInformation.getType() == MoveType.WORKER_AND_BOX)
+                pushesCount++;
+        }
+        this.exploredStatesCount = exploredStatesCount;
+        this.elapsedTime = elapsedTime;
+    }
+    
+    /**
+     * Retrieves solving outcome.
+     * 
+     * @return
+     *      Solving outcome.
+     */
+    public Status getStatus() {
+        
+        return status;
+    }
+    
+    /**
+     * Checks whether solution has been found.
+     * 
+     * @return
+     *      {@code true} if level is solved, {@code false} otherwise.
+     */
+    public boolean isSolved() {
+        
+        return status == Status.SOLVED;
+    }
+    
+    /**
+     * Retrieves solution's moves.
+     * 
+     * These can be loaded to level by {@link org.ezze.games.storekeeper.Level#loadMovesHistory(java.util.List)}
+     * and played back by {@link org.ezze.games.storekeeper.Level#repeatMoves(int)}.
+     * 
+     * @return
+     *      Unmodifiable list of moves, empty if level is not solved.
+     */
+    public List<MoveInformation> getMoves() {
+        
+        return moves;
+    }
+    
+    /**
+     * Retrieves solution's moves count.
+     * 
+     * @return
+     *      Moves count.
+     */
+    public int getMovesCount() {
+        
+        return moves.size();
+    }
+    
+    /**
+     * Retrieves solution's pushes count.
+     * 
+     * @return
+     *      Pushes count.
+     */
+    public int getPushesCount() {
+        
+        return pushesCount;
+    }
+    
+    /**
+     * Retrieves count of states expanded by the search.
+     * 
+     * @return
+     *      States count.
+     */
+    public int getExploredStatesCount() {
+        
+        return exploredStatesCount;
+    }
+    
+    /**
+     * Retrieves time of solving.
+     * 
+     * @return
+     *      Time in milliseconds.
+     */
+    public long getElapsedTime() {
+        
+        return elapsedTime;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,472 @@
+package org.ezze.games.storekeeper.solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.ezze.games.storekeeper.DeadlockAnalyzer;
+import org.ezze.games.storekeeper.Level.Direction;
+import org.ezze.games.storekeeper.Level.MoveInformation;
+import org.ezze.games.storekeeper.Level.MoveType;
+import org.ezze.games.storekeeper.LevelBoard;
+import org.ezze.games.storekeeper.ZobristKeys;
+import org.ezze.games.storekeeper.solver.Solver.Node;
+
+/**
+ * This class generates search states of a single board for {@link Solver}.
+ * 
+ * Static information of the board (bricks, dead squares, minimal pushes counts
+ * and hashing keys) is prepared once and is shared between copies of an expander
+ * while each copy has its own temporary data, so parallel searches
+ * use one copy per thread.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ */
+public class StateExpander {
+    
+    /**
+     * Directions of moves indexed by direction's code used by the search.
+     * 
+     * Opposite direction's code is {@code (code + 2) % 4}.
+     */
+    protected static final Direction[] DIRECTIONS = new Direction[] {
+        Direction.UP,
+        Direction.RIGHT,
+        Direction.DOWN,
+        Direction.LEFT
+    };
+    
+    
+    /**
+     * Weight of heuristic estimate.
+     */
+    protected final int heuristicWeight;
+    
+    /**
+     * Sorted boxes' positions of initial state.
+     */
+    protected final int[] initialBoxes;
+    
+    /**
+     * Board's width.
+     */
+    protected final int width;
+    
+    /**
+     * Board's positions' count.
+     */
+    protected final int cellsCount;
+    
+    /**
+     * Brick flags indexed by position.
+     */
+    protected final boolean[] walls;
+    
+    /**
+     * Neighbour positions indexed by {@code position * 4 + direction}, {@code -1} stands for board's edge.
+     */
+    protected final int[] neighbours;
+    
+    /**
+     * Minimal pushes count required to bring a box from a position to any goal.
+     */
+    protected final int[] pushDistances;
+    
+    /**
+     * Deadlocks' analyzer of the board.
+     */
+    protected final DeadlockAnalyzer deadlockAnalyzer;
+    
+    /**
+     * Board's static items with boxes of currently checked push.
+     */
+    protected final byte[] items;
+    
+    /**
+     * Keys to hash states.
+     */
+    protected final ZobristKeys zobristKeys;
+    
+    /**
+     * Flags of positions occupied by boxes of currently processed state.
+     */
+    protected final boolean[] occupied;
+    
+    /**
+     * Queue of worker's reachability search.
+     */
+    protected final int[] reachQueue;
+    
+    /**
+     * Marks of positions visited by worker's reachability search.
+     */
+    protected final int[] reachMarks;
+    
+    /**
+     * Direction codes leading to positions visited by worker's reachability search.
+     */
+    protected final int[] reachDirections;
+    
+    /**
+     * Current mark of worker's reachability search.
+     */
+    protected int reachMark = 0;
+    
+    /**
+     * Prepares static information of specified board.
+     * 
+     * @param board
+     *      Board without worker's item.
+     * @param heuristicWeight
+     *      Weight of heuristic estimate.
+     */
+    public StateExpander(LevelBoard board, int heuristicWeight) {
+        
+        this.heuristicWeight = heuristicWeight;
+        width = board.getWidth();
+        int height = board.getHeight();
+        cellsCount = width * height;
+        byte[] boardItems = board.getItems();
+        
+        walls = new boolean[cellsCount];
+        int boxesCount = 0;
+        for (int position = 0; position < cellsCount; position++) {
+            
+            walls[position] = (boardItems[position] & LevelBoard.FLAG_BRICK) != 0;
+            if ((boardItems[position] & LevelBoard.FLAG_BOX) != 0)
+                boxesCount++;
+        }
+        
+        initialBoxes = new int[boxesCount];
+        int boxIndex = 0;
+        for (int position = 0; position < cellsCount; position++) {
+            
+            if ((boardItems[position] & LevelBoard.FLAG_BOX) != 0)
+                initialBoxes[boxIndex++] = position;
+        }
+        
+        occupied = new boolean[cellsCount];
+        reachQueue = new int[cellsCount];
+        reachMarks = new int[cellsCount];
+        reachDirections = new int[cellsCount];
+        
+        // Precomputing dead squares and minimal pushes counts
+        deadlockAnalyzer = new DeadlockAnalyzer(board);
+        neighbours = deadlockAnalyzer.getNeighbours();
+        pushDistances = deadlockAnalyzer.getPushDistances();
+        
+        zobristKeys = new ZobristKeys(width, height);
+        
+        // Keeping static items only, boxes are set for each checked push
+        items = boardItems.clone();
+        for (int position = 0; position < cellsCount; position++)
+            items[position] &= ~LevelBoard.FLAG_BOX;
+    }
+    
+    /**
+     * Creates a copy of specified expander sharing its static information.
+     * 
+     * @param expander
+     *      Expander to copy.
+     */
+    public StateExpander(StateExpander expander) {
+        
+        heuristicWeight = expander.heuristicWeight;
+        width = expander.width;
+        cellsCount = expander.cellsCount;
+        walls = expander.walls;
+        initialBoxes = expander.initialBoxes;
+        neighbours = expander.neighbours;
+        pushDistances = expander.pushDistances;
+        zobristKeys = expander.zobristKeys;
+        deadlockAnalyzer = new DeadlockAnalyzer(expander.deadlockAnalyzer);
+        items = expander.items.clone();
+        occupied = new boolean[cellsCount];
+        reachQueue = new int[cellsCount];
+        reachMarks = new int[cellsCount];
+        reachDirections = new int[cellsCount];
+    }
+    
+    /**
+     * Retrieves board's width.
+     * 
+     * @return
+     *      Board's width.
+     */
+    public int getWidth() {
+        
+        return width;
+    }
+    
+    /**
+     * Retrieves sorted boxes' positions of initial state.
+     * 
+     * @return
+     *      Boxes' positions.
+     */
+    public int[] getInitialBoxes() {
+        
+        return initialBoxes.clone();
+    }
+    
+    /**
+     * Retrieves deadlocks' analyzer of this expander.
+     * 
+     * @return
+     *      Analyzer's instance.
+     */
+    public DeadlockAnalyzer getDeadlockAnalyzer() {
+        
+        return deadlockAnalyzer;
+    }
+    
+    /**
+     * Retrieves keys to hash states.
+     * 
+     * @return
+     *      Zobrist keys.
+     */
+    public ZobristKeys getZobristKeys() {
+        
+        return zobristKeys;
+    }
+    
+    /**
+     * Calculates heuristic estimate of remaining pushes count.
+     * 
+     * @param boxes
+     *      Boxes' positions.
+     * @return
+     *      Estimated pushes count or {@link DeadlockAnalyzer#INFINITE_DISTANCE} if some box can't reach any goal.
+     */
+    protected int getEstimate(int[] boxes) {
+        
+        int estimate = 0;
+        for (int box : boxes) {
+            
+            if (pushDistances[box] >= DeadlockAnalyzer.INFINITE_DISTANCE)
+                return DeadlockAnalyzer.INFINITE_DISTANCE;
+            estimate += pushDistances[box];
+        }
+        return estimate;
+    }
+    
+    /**
+     * Creates search node normalizing worker's position.
+     * 
+     * @param boxes
+     *      Sorted boxes' positions.
+     * @param boxesHash
+     *      Hash of boxes' positions.
+     * @param workerPosition
+     *      Worker's actual position.
+     * @param pushesCount
+     *      Pushes count performed from initial state.
+     * @param estimate
+     *      Estimated remaining pushes count.
+     * @param parent
+     *      Parent node or {@code null} for initial state.
+     * @param pushedBox
+     *      Position of pushed box before the push leading to this node.
+     * @param pushDirection
+     *      Direction code of the push leading to this node.
+     * @return
+     *      Created node.
+     */
+    protected Node createNode(int[] boxes, long boxesHash, int workerPosition, int pushesCount, int estimate,
+            Node parent, int pushedBox, int pushDirection) {
+        
+        setOccupied(boxes, true);
+        int reachableCount = markReachable(workerPosition);
+        int normalizedWorker = workerPosition;
+        for (int queueIndex = 0; queueIndex < reachableCount; queueIndex++) {
+            
+            if (reachQueue[queueIndex] < normalizedWorker)
+                normalizedWorker = reachQueue[queueIndex];
+        }
+        setOccupied(boxes, false);
+        
+        return new Node(boxes, boxesHash, boxesHash ^ zobristKeys.getWorkerKey(normalizedWorker), normalizedWorker,
+                pushesCount, estimate, pushesCount + heuristicWeight * estimate, parent, pushedBox, pushDirection);
+    }
+    
+    /**
+     * Marks or unmarks boxes' positions as occupied.
+     * 
+     * @param boxes
+     *      Boxes' positions.
+     * @param isOccupied
+     *      Mark's value.
+     */
+    protected void setOccupied(int[] boxes, boolean isOccupied) {
+        
+        for (int box : boxes)
+            occupied[box] = isOccupied;
+    }
+    
+    /**
+     * Marks positions reachable by the worker with {@link #reachMark}
+     * taking boxes marked by {@link #setOccupied(int[], boolean)} into account.
+     * 
+     * Reachable positions are stored in {@link #reachQueue} while
+     * {@link #reachDirections} stores the directions they were reached by.
+     * 
+     * @param workerPosition
+     *      Worker's position.
+     * @return
+     *      Count of reachable positions.
+     */
+    protected int markReachable(int workerPosition) {
+        
+        reachMark++;
+        int queueHead = 0;
+        int queueTail = 0;
+        reachQueue[queueTail++] = workerPosition;
+        reachMarks[workerPosition] = reachMark;
+        reachDirections[workerPosition] = -1;
+        while (queueHead < queueTail) {
+            
+            int position = reachQueue[queueHead++];
+            for (int direction = 0; direction < 4; direction++) {
+                
+                int nextPosition = neighbours[position * 4 + direction];
+                if (nextPosition < 0 || walls[nextPosition] || occupied[nextPosition] ||
+                        reachMarks[nextPosition] == reachMark) {
+                    
+                    continue;
+                }
+                reachMarks[nextPosition] = reachMark;
+                reachDirections[nextPosition] = direction;
+                reachQueue[queueTail++] = nextPosition;
+            }
+        }
+        return queueTail;
+    }
+    
+    /**
+     * Generates all states reachable by a single push from specified node.
+     * 
+     * @param node
+     *      Node to expand.
+     * @return
+     *      Child nodes.
+     */
+    protected List<Node> expand(Node node) {
+        
+        // Collecting possible pushes
+        int[] boxes = node.boxes;
+        int[] pushes = new int[boxes.length * 4];
+        int pushesCount = 0;
+        setOccupied(boxes, true);
+        markReachable(node.workerPosition);
+        for (int boxIndex = 0; boxIndex < boxes.length; boxIndex++) {
+            
+            int box = boxes[boxIndex];
+            for (int direction = 0; direction < 4; direction++) {
+                
+                int workerPosition = neighbours[box * 4 + (direction + 2) % 4];
+                if (workerPosition < 0 || reachMarks[workerPosition] != reachMark)
+                    continue;
+                int targetPosition = neighbours[box * 4 + direction];
+                if (targetPosition < 0 || walls[targetPosition] || occupied[targetPosition] ||
+                        pushDistances[targetPosition] >= DeadlockAnalyzer.INFINITE_DISTANCE) {
+                    
+                    continue;
+                }
+                pushes[pushesCount++] = boxIndex * 4 + direction;
+            }
+        }
+        setOccupied(boxes, false);
+        
+        // Pruning pushes leading to deadlocks
+        for (int box : boxes)
+            items[box] |= LevelBoard.FLAG_BOX;
+        int allowedPushesCount = 0;
+        for (int pushIndex = 0; pushIndex < pushesCount; pushIndex++) {
+            
+            int box = boxes[pushes[pushIndex] / 4];
+            int targetPosition = neighbours[box * 4 + pushes[pushIndex] % 4];
+            items[box] &= ~LevelBoard.FLAG_BOX;
+            items[targetPosition] |= LevelBoard.FLAG_BOX;
+            if (!deadlockAnalyzer.isDeadlocked(items, targetPosition, box))
+                pushes[allowedPushesCount++] = pushes[pushIndex];
+            items[targetPosition] &= ~LevelBoard.FLAG_BOX;
+            items[box] |= LevelBoard.FLAG_BOX;
+        }
+        for (int box : boxes)
+            items[box] &= ~LevelBoard.FLAG_BOX;
+        pushesCount = allowedPushesCount;
+        
+        List<Node> children = new ArrayList<Node>(pushesCount);
+        for (int pushIndex = 0; pushIndex < pushesCount; pushIndex++) {
+            
+            int boxIndex = pushes[pushIndex] / 4;
+            int direction = pushes[pushIndex] % 4;
+            int box = boxes[boxIndex];
+            int targetPosition = neighbours[box * 4 + direction];
+            
+            // Keeping boxes sorted
+            int[] childBoxes = boxes.clone();
+            childBoxes[boxIndex] = targetPosition;
+            int index = boxIndex;
+            while (index > 0 && childBoxes[index - 1] > childBoxes[index]) {
+                
+                childBoxes[index] = childBoxes[index - 1];
+                childBoxes[--index] = targetPosition;
+            }
+            while (index < childBoxes.length - 1 && childBoxes[index + 1] < childBoxes[index]) {
+                
+                childBoxes[index] = childBoxes[index + 1];
+                childBoxes[++index] = targetPosition;
+            }
+            
+            int estimate = node.estimate - pushDistances[box] + pushDistances[targetPosition];
+            long boxesHash = node.boxesHash ^ zobristKeys.getBoxKey(box) ^ zobristKeys.getBoxKey(targetPosition);
+            children.add(createNode(childBoxes, boxesHash, box, node.pushesCount + 1, estimate, node, box, direction));
+        }
+        return children;
+    }
+    
+    /**
+     * Expands found solution to worker's moves and pushes.
+     * 
+     * @param solution
+     *      Node of solved state.
+     * @param initialWorker
+     *      Worker's initial position.
+     * @return
+     *      Solution's moves.
+     */
+    protected List<MoveInformation> createMoves(Node solution, int initialWorker) {
+        
+        ArrayList<Node> path = new ArrayList<Node>();
+        for (Node node = solution; node.parent != null; node = node.parent)
+            path.add(node);
+        Collections.reverse(path);
+        
+        ArrayList<MoveInformation> moves = new ArrayList<MoveInformation>();
+        int workerPosition = initialWorker;
+        for (Node node : path) {
+            
+            // Walking to the box
+            int pushPosition = neighbours[node.pushedBox * 4 + (node.pushDirection + 2) % 4];
+            setOccupied(node.parent.boxes, true);
+            markReachable(workerPosition);
+            setOccupied(node.parent.boxes, false);
+            ArrayList<MoveInformation> walk = new ArrayList<MoveInformation>();
+            for (int position = pushPosition; position != workerPosition; ) {
+                
+                int direction = reachDirections[position];
+                walk.add(MoveInformation.valueOf(MoveType.WORKER, DIRECTIONS[direction]));
+                position = neighbours[position * 4 + (direction + 2) % 4];
+            }
+            Collections.reverse(walk);
+            moves.addAll(walk);
+            
+            // Pushing the box
+            moves.add(MoveInformation.valueOf(MoveType.WORKER_AND_BOX, DIRECTIONS[node.pushDirection]));
+            workerPosition = node.pushedBox;
+        }
+        return moves;
+    }
+}
\ No newline at end of file
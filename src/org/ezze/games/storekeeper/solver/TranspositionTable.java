@@ -0,0 +1,355 @@
+package org.ezze.games.storekeeper.solver;
+
+import java.util.Arrays;
+
+/**
+ * Memory bounded table of states visited by the search.
+ * 
+ * States are identified by 64-bit hashes (see {@link org.ezze.games.storekeeper.ZobristKeys})
+ * and are stored with a single integer value (e.g. pushes count) in primitive arrays
+ * with open addressing. Each key may be placed in one of {@link #PROBES_COUNT}
+ * slots of its bucket, once all of them are occupied an entry is replaced according
+ * to table's {@link ReplacementPolicy}. Entries are never removed otherwise, so
+ * the table never grows beyond its memory limit and only loses information
+ * when it's full.
+ * 
+ * The table is not synchronized, see {@link ConcurrentTranspositionTable}
+ * for a thread-safe one.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.2
+ */
+public class TranspositionTable {
+    
+    /**
+     * Policies of entries' replacement in a full table.
+     */
+    public static enum ReplacementPolicy {
+        
+        /**
+         * Entry with the greatest value is replaced unless a new entry's value
+         * is greater, states closer to the initial one are kept this way.
+         */
+        DEPTH_PREFERRED,
+        
+        /**
+         * Entry which hasn't been accessed since the clock's hand had passed it
+         * last time is replaced.
+         */
+        CLOCK
+    };
+    
+    /**
+     * Value returned for a key which is not in the table.
+     */
+    public static final int NOT_FOUND = -1;
+    
+    /**
+     * Default memory limit in bytes.
+     */
+    public static final long DEFAULT_MEMORY_LIMIT = 64L * 1024 * 1024;
+    
+    /**
+     * Count of slots in a bucket a key can be placed to.
+     */
+    public static final int PROBES_COUNT = 8;
+    
+    /**
+     * Memory occupied by a single slot in bytes.
+     */
+    protected static final int SLOT_SIZE = 8 + 4 + 1;
+    
+    /**
+     * Key stored instead of {@code 0} which marks empty slots.
+     */
+    protected static final long ZERO_KEY_REPLACEMENT = 0x8000000000000001L;
+    
+    /**
+     * Slots' keys, {@code 0} stands for an empty slot.
+     */
+    protected final long[] keys;
+    
+    /**
+     * Slots' values.
+     */
+    protected final int[] values;
+    
+    /**
+     * Slots' reference bits of {@link ReplacementPolicy#CLOCK} policy.
+     */
+    protected final boolean[] referenced;
+    
+    /**
+     * Mask of slot's index.
+     */
+    protected final int mask;
+    
+    /**
+     * Replacement policy.
+     */
+    protected final ReplacementPolicy replacementPolicy;
+    
+    /**
+     * Count of occupied slots.
+     */
+    protected int size = 0;
+    
+    /**
+     * Count of replaced or rejected entries.
+     */
+    protected long evictionsCount = 0;
+    
+    /**
+     * Buckets' clock hands of {@link ReplacementPolicy#CLOCK} policy
+     * indexed by bucket's first slot divided by {@link #PROBES_COUNT}.
+     */
+    protected final byte[] clockHands;
+    
+    /**
+     * Creates a table with default memory limit and {@link ReplacementPolicy#DEPTH_PREFERRED} policy.
+     */
+    public TranspositionTable() {
+        
+        this(DEFAULT_MEMORY_LIMIT, ReplacementPolicy.DEPTH_PREFERRED);
+    }
+    
+    /**
+     * Creates a table.
+     * 
+     * @param memoryLimit
+     *      Maximal memory occupied by table's entries in bytes, the capacity is rounded
+     *      down to a power of two but never gets less than {@link #PROBES_COUNT}.
+     * @param replacementPolicy
+     *      Replacement policy.
+     */
+    public TranspositionTable(long memoryLimit, ReplacementPolicy replacementPolicy) {
+        
+        long slotsCount = Math.max(memoryLimit / SLOT_SIZE, PROBES_COUNT);
+        int capacity = Integer.highestOneBit((int)Math.min(slotsCount, 1 << 30));
+        keys = new long[capacity];
+        values = new int[capacity];
+        referenced = new boolean[capacity];
+        clockHands = new byte[capacity / PROBES_COUNT];
+        mask = capacity - 1;
+        this.replacementPolicy = replacementPolicy != null ? replacementPolicy : ReplacementPolicy.DEPTH_PREFERRED;
+    }
+    
+    /**
+     * Converts a key to its stored representation.
+     * 
+     * @param key
+     *      State's hash.
+     * @return
+     *      Non-zero key.
+     */
+    protected static long toStoredKey(long key) {
+        
+        return key != 0 ? key : ZERO_KEY_REPLACEMENT;
+    }
+    
+    /**
+     * Calculates the first slot of key's bucket.
+     * 
+     * @param key
+     *      Stored key.
+     * @return
+     *      Slot's index.
+     */
+    protected int getFirstSlot(long key) {
+        
+        return (int)(key ^ (key >>> 32)) & mask & ~(PROBES_COUNT - 1);
+    }
+    
+    /**
+     * Retrieves a value stored for a key.
+     * 
+     * @param key
+     *      State's hash.
+     * @return
+     *      Stored value or {@link #NOT_FOUND} if the key is not in the table.
+     */
+    public int get(long key) {
+        
+        long storedKey = toStoredKey(key);
+        int firstSlot = getFirstSlot(storedKey);
+        for (int slot = firstSlot; slot < firstSlot + PROBES_COUNT; slot++) {
+            
+            long slotKey = keys[slot];
+            if (slotKey == storedKey) {
+                
+                referenced[slot] = true;
+                return values[slot];
+            }
+            if (slotKey == 0)
+                return NOT_FOUND;
+        }
+        return NOT_FOUND;
+    }
+    
+    /**
+     * Stores a value for a key.
+     * 
+     * @param key
+     *      State's hash.
+     * @param value
+     *      Non-negative value.
+     * @return
+     *      {@code true} if the value has been stored, {@code false} if it has been
+     *      rejected by {@link ReplacementPolicy#DEPTH_PREFERRED} policy.
+     */
+    public boolean put(long key, int value) {
+        
+        long storedKey = toStoredKey(key);
+        int firstSlot = getFirstSlot(storedKey);
+        for (int slot = firstSlot; slot < firstSlot + PROBES_COUNT; slot++) {
+            
+            long slotKey = keys[slot];
+            if (slotKey == storedKey || slotKey == 0) {
+                
+                if (slotKey == 0)
+                    onEntryAdded();
+                keys[slot] = storedKey;
+                values[slot] = value;
+                referenced[slot] = true;
+                return true;
+            }
+        }
+        
+        // Looking for an entry to replace
+        int replacedSlot;
+        if (replacementPolicy == ReplacementPolicy.CLOCK) {
+            
+            int bucket = firstSlot / PROBES_COUNT;
+            int probe = clockHands[bucket];
+            while (referenced[firstSlot + probe]) {
+                
+                referenced[firstSlot + probe] = false;
+                probe = (probe + 1) % PROBES_COUNT;
+            }
+            replacedSlot = firstSlot + probe;
+            clockHands[bucket] = (byte)((probe + 1) % PROBES_COUNT);
+        }
+        else {
+            
+            replacedSlot = firstSlot;
+            for (int slot = firstSlot + 1; slot < firstSlot + PROBES_COUNT; slot++) {
+                
+                if (values[slot] > values[replacedSlot])
+                    replacedSlot = slot;
+            }
+            if (values[replacedSlot] < value) {
+                
+                onEntryEvicted();
+                return false;
+            }
+        }
+        
+        onEntryEvicted();
+        keys[replacedSlot] = storedKey;
+        values[replacedSlot] = value;
+        referenced[replacedSlot] = true;
+        return true;
+    }
+    
+    /**
+     * Stores a value for a key unless the key is already stored
+     * with a value not greater than specified one.
+     * 
+     * @param key
+     *      State's hash.
+     * @param value
+     *      Non-negative value.
+     * @return
+     *      {@code true} if the key is new or has been stored with a greater value
+     *      and the value has been stored, {@code false} otherwise.
+     */
+    public boolean offer(long key, int value) {
+        
+        int storedValue = get(key);
+        if (storedValue != NOT_FOUND && storedValue <= value)
+            return false;
+        return put(key, value);
+    }
+    
+    /**
+     * Counts an entry stored to an empty slot.
+     */
+    protected void onEntryAdded() {
+        
+        size++;
+    }
+    
+    /**
+     * Counts an entry replaced or rejected because of table's overflow.
+     */
+    protected void onEntryEvicted() {
+        
+        evictionsCount++;
+    }
+    
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        
+        Arrays.fill(keys, 0);
+        Arrays.fill(referenced, false);
+        Arrays.fill(clockHands, (byte)0);
+        size = 0;
+    }
+    
+    /**
+     * Retrieves count of stored entries.
+     * 
+     * @return
+     *      Entries' count.
+     */
+    public int size() {
+        
+        return size;
+    }
+    
+    /**
+     * Retrieves maximal count of entries.
+     * 
+     * @return
+     *      Table's capacity.
+     */
+    public int getCapacity() {
+        
+        return keys.length;
+    }
+    
+    /**
+     * Retrieves count of entries replaced or rejected because of table's overflow.
+     * 
+     * @return
+     *      Evictions' count.
+     */
+    public long getEvictionsCount() {
+        
+        return evictionsCount;
+    }
+    
+    /**
+     * Retrieves memory occupied by table's entries.
+     * 
+     * @return
+     *      Memory size in bytes.
+     */
+    public long getMemorySize() {
+        
+        return (long)keys.length * SLOT_SIZE + clockHands.length;
+    }
+    
+    /**
+     * Retrieves replacement policy.
+     * 
+     * @return
+     *      Replacement policy.
+     */
+    public ReplacementPolicy getReplacementPolicy() {
+        
+        return replacementPolicy;
+    }
+}
\ No newline at end of file
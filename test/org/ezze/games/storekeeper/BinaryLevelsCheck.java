@@ -0,0 +1,154 @@
+package org.ezze.games.storekeeper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * This class checks that levels' sets saved to binary files are read back unchanged.
+ * 
+ * The checked set contains runs longer than {@link BinaryLevelsReader#MAXIMAL_RUN_LENGTH}
+ * items, rows wider than a single run, empty levels and levels without
+ * name or author. Fixtures of other checks are saved and read back as well.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ */
+public class BinaryLevelsCheck {
+    
+    /**
+     * Fixtures saved to binary files.
+     */
+    protected static final String[] FIXTURES = { "sliced.sok", "sliced.xml", "named.xml" };
+    
+    /**
+     * Runs the check.
+     * 
+     * @param args
+     *      Command line's arguments, they're ignored.
+     * @throws IOException
+     *      If a fixture can't be prepared.
+     */
+    public static void main(String[] args) throws IOException {
+        
+        File directory = LevelsSetAssert.createDirectory();
+        checkRoundTrip(directory, "generated", createLevelsSet());
+        for (String fixtureName : FIXTURES) {
+            
+            String fileName = LevelsSetAssert.writeFile(directory, fixtureName, LevelsSetAssert.readFixture(fixtureName));
+            checkRoundTrip(directory, fixtureName, new LevelsSet(fileName));
+        }
+        checkTooLargeLevel(directory);
+        System.out.println("BinaryLevelsCheck passed");
+    }
+    
+    /**
+     * Creates a set of levels which are hard to encode.
+     * 
+     * @return
+     *      Set's instance.
+     */
+    protected static LevelsSet createLevelsSet() {
+        
+        char[] longRun = new char[3 * BinaryLevelsReader.MAXIMAL_RUN_LENGTH + 5];
+        Arrays.fill(longRun, '#');
+        String wall = new String(longRun);
+        String floor = "#" + wall.substring(2).replace('#', ' ') + "#";
+        String goals = "#@" + wall.substring(6).replace('#', ' ') + "$*.#";
+        
+        LevelsSet levelsSet = new LevelsSet();
+        levelsSet.setName("Binary levels' set");
+        levelsSet.addLevel(createLevel("Wide level", "Author", wall, floor, goals, floor, wall));
+        levelsSet.addLevel(Level.createFromBoard(null, createLevelInfo("Empty level", "Author")));
+        levelsSet.addLevel(createLevel(null, null, "#####", "#+*$#", "#####"));
+        levelsSet.addLevel(Level.createFromBoard(null, createLevelInfo(null, null)));
+        levelsSet.addLevel(createLevel("Short rows", null, wall, "#@$.", "", wall.substring(1)));
+        levelsSet.addLevel(createLevel("Single item", "", "@"));
+        return levelsSet;
+    }
+    
+    /**
+     * Creates a level from its rows.
+     * 
+     * @param name
+     *      Level's name or {@code null}.
+     * @param author
+     *      Level's author or {@code null}.
+     * @param rows
+     *      Level's rows.
+     * @return
+     *      Level's instance.
+     */
+    protected static Level createLevel(String name, String author, String... rows) {
+        
+        return new Level(new ArrayList<String>(Arrays.asList(rows)), createLevelInfo(name, author));
+    }
+    
+    /**
+     * Creates level's information.
+     * 
+     * @param name
+     *      Level's name or {@code null}.
+     * @param author
+     *      Level's author or {@code null}.
+     * @return
+     *      Level's information.
+     */
+    protected static HashMap<String, Object> createLevelInfo(String name, String author) {
+        
+        HashMap<String, Object> levelInfo = new HashMap<String, Object>();
+        if (name != null)
+            levelInfo.put("name", name);
+        if (author != null)
+            levelInfo.put("author", author);
+        return levelInfo;
+    }
+    
+    /**
+     * Saves a set to binary file and compares the set read back with the original one.
+     * 
+     * @param directory
+     *      Directory of binary file.
+     * @param context
+     *      Description of the set.
+     * @param levelsSet
+     *      Set to save.
+     */
+    protected static void checkRoundTrip(File directory, String context, LevelsSet levelsSet) {
+        
+        if (levelsSet.isEmpty())
+            LevelsSetAssert.fail(context, "no levels are loaded");
+        
+        File binaryFile = new File(directory, context + LevelsSet.BINARY_FILE_EXTENSION);
+        binaryFile.deleteOnExit();
+        if (!levelsSet.saveToBinaryFile(binaryFile.getPath()))
+            LevelsSetAssert.fail(context, "the set is not saved");
+        
+        LevelsSet binarySet = new LevelsSet();
+        binarySet.loadFromBinaryFile(binaryFile.getPath());
+        LevelsSetAssert.assertSameLevels(context + " (binary)", levelsSet, binarySet);
+    }
+    
+    /**
+     * Checks that a level whose size doesn't fit binary format is rejected.
+     * 
+     * @param directory
+     *      Directory of binary file.
+     */
+    protected static void checkTooLargeLevel(File directory) {
+        
+        char[] row = new char[BinaryLevelsWriter.MAXIMAL_LEVEL_SIZE + 1];
+        Arrays.fill(row, '#');
+        LevelsSet levelsSet = new LevelsSet();
+        levelsSet.addLevel(createLevel("Too wide level", null, new String(row)));
+        
+        File binaryFile = new File(directory, "too-wide" + LevelsSet.BINARY_FILE_EXTENSION);
+        binaryFile.deleteOnExit();
+        if (levelsSet.saveToBinaryFile(binaryFile.getPath()))
+            LevelsSetAssert.fail("too-wide", "the level is saved with truncated width");
+        if (binaryFile.exists())
+            LevelsSetAssert.fail("too-wide", "incomplete binary file is left");
+    }
+}
\ No newline at end of file
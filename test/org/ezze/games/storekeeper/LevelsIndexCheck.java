@@ -0,0 +1,143 @@
+package org.ezze.games.storekeeper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * This class checks that levels' sets loaded through {@link LevelsIndex}
+ * are the same as sets loaded directly.
+ * 
+ * Fixtures cover the rules of slicing files into levels' regions: SOK levels
+ * named by a preceding line or by information lines, a line naming the next
+ * level, a block cut off at the end of file, XML comments, CDATA sections,
+ * empty level elements and set's name following the levels. Each fixture
+ * is also checked with CRLF line endings, XML ones with a byte order mark too.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ */
+public class LevelsIndexCheck {
+    
+    /**
+     * SOK fixtures.
+     */
+    protected static final String[] SOK_FIXTURES = { "sliced.sok" };
+    
+    /**
+     * XML fixtures.
+     */
+    protected static final String[] XML_FIXTURES = { "sliced.xml", "named.xml" };
+    
+    /**
+     * Byte order mark of UTF-8.
+     */
+    protected static final byte[] UTF8_BOM = { (byte)0xEF, (byte)0xBB, (byte)0xBF };
+    
+    /**
+     * Runs the check.
+     * 
+     * @param args
+     *      Command line's arguments, they're ignored.
+     * @throws IOException
+     *      If a fixture can't be prepared.
+     */
+    public static void main(String[] args) throws IOException {
+        
+        File directory = LevelsSetAssert.createDirectory();
+        for (String fixtureName : SOK_FIXTURES) {
+            
+            byte[] content = LevelsSetAssert.readFixture(fixtureName);
+            checkSOKFile(LevelsSetAssert.writeFile(directory, fixtureName, content));
+            checkSOKFile(LevelsSetAssert.writeFile(directory, "crlf-" + fixtureName, toCRLF(content)));
+        }
+        for (String fixtureName : XML_FIXTURES) {
+            
+            byte[] content = LevelsSetAssert.readFixture(fixtureName);
+            checkXMLFile(LevelsSetAssert.writeFile(directory, fixtureName, content));
+            checkXMLFile(LevelsSetAssert.writeFile(directory, "crlf-" + fixtureName, toCRLF(content)));
+            checkXMLFile(LevelsSetAssert.writeFile(directory, "bom-" + fixtureName, withBOM(content)));
+        }
+        System.out.println("LevelsIndexCheck passed");
+    }
+    
+    /**
+     * Compares SOK file loaded directly and through the index.
+     * 
+     * @param fileName
+     *      SOK file's name.
+     */
+    protected static void checkSOKFile(String fileName) {
+        
+        LevelsSet directSet = new LevelsSet();
+        directSet.loadFromSOKFile(fileName);
+        checkIndexedFile(fileName, directSet);
+    }
+    
+    /**
+     * Compares XML file loaded directly and through the index.
+     * 
+     * @param fileName
+     *      XML file's name.
+     */
+    protected static void checkXMLFile(String fileName) {
+        
+        LevelsSet directSet = new LevelsSet();
+        directSet.loadFromXMLFile(fileName);
+        checkIndexedFile(fileName, directSet);
+    }
+    
+    /**
+     * Compares a set loaded directly with the same file loaded through a built and a stored index.
+     * 
+     * @param fileName
+     *      Levels' set file's name.
+     * @param directSet
+     *      Set loaded directly.
+     */
+    protected static void checkIndexedFile(String fileName, LevelsSet directSet) {
+        
+        String context = new File(fileName).getName();
+        if (directSet.isEmpty())
+            LevelsSetAssert.fail(context, "no levels are loaded directly");
+        
+        // The index is built by the first loading and is read from index file by the second one
+        for (String indexSource : new String[] { "built index", "stored index" }) {
+            
+            LevelsSet indexedSet = new LevelsSet();
+            if (!indexedSet.loadFromIndex(fileName))
+                LevelsSetAssert.fail(context, "the file is not indexed");
+            LevelsSetAssert.assertSameLevels(context + " (" + indexSource + ")", directSet, indexedSet);
+        }
+    }
+    
+    /**
+     * Converts line endings of a fixture to CRLF.
+     * 
+     * @param content
+     *      Fixture's content with LF line endings.
+     * @return
+     *      Converted content.
+     */
+    protected static byte[] toCRLF(byte[] content) {
+        
+        Charset charset = Charset.forName("ISO-8859-1");
+        return new String(content, charset).replace("\n", "\r\n").getBytes(charset);
+    }
+    
+    /**
+     * Prepends UTF-8 byte order mark to a fixture.
+     * 
+     * @param content
+     *      Fixture's content.
+     * @return
+     *      Content starting with byte order mark.
+     */
+    protected static byte[] withBOM(byte[] content) {
+        
+        byte[] bomContent = new byte[UTF8_BOM.length + content.length];
+        System.arraycopy(UTF8_BOM, 0, bomContent, 0, UTF8_BOM.length);
+        System.arraycopy(content, 0, bomContent, UTF8_BOM.length, content.length);
+        return bomContent;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,184 @@
+package org.ezze.games.storekeeper;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * This class compares levels' sets loaded in different ways and prepares
+ * fixture files for the checks.
+ * 
+ * @author Dmitriy Pushkov
+ * @version 0.0.1
+ */
+class LevelsSetAssert {
+    
+    /**
+     * Fails a check.
+     * 
+     * @param context
+     *      Description of compared sets.
+     * @param message
+     *      Failure's description.
+     * @throws AssertionError
+     *      Always.
+     */
+    static void fail(String context, String message) {
+        
+        throw new AssertionError(context + ": " + message);
+    }
+    
+    /**
+     * Checks whether two values are equal.
+     * 
+     * @param context
+     *      Description of compared sets.
+     * @param subject
+     *      Description of compared values.
+     * @param expected
+     *      Expected value.
+     * @param actual
+     *      Actual value.
+     * @throws AssertionError
+     *      If the values differ.
+     */
+    static void assertEquals(String context, String subject, Object expected, Object actual) {
+        
+        if (expected == null ? actual != null : !expected.equals(actual))
+            fail(context, String.format("%s differs, expected <%s> but was <%s>", subject, expected, actual));
+    }
+    
+    /**
+     * Checks whether two sets have the same name and the same levels.
+     * 
+     * Levels are compared by their names, authors, states and initial boards.
+     * 
+     * @param context
+     *      Description of compared sets.
+     * @param expected
+     *      Expected set.
+     * @param actual
+     *      Actual set.
+     * @throws AssertionError
+     *      If the sets differ.
+     */
+    static void assertSameLevels(String context, LevelsSet expected, LevelsSet actual) {
+        
+        assertEquals(context, "set's name", expected.getName(), actual.getName());
+        assertEquals(context, "levels' count", expected.getLevelsCount(), actual.getLevelsCount());
+        for (int levelIndex = 0; levelIndex < expected.getLevelsCount(); levelIndex++) {
+            
+            Level expectedLevel = expected.getLevelByIndex(levelIndex);
+            Level actualLevel = actual.getLevelByIndex(levelIndex);
+            String levelSubject = String.format("level #%d", levelIndex + 1);
+            assertEquals(context, levelSubject + " name", expectedLevel.getName(), actualLevel.getName());
+            assertEquals(context, levelSubject + " author", expectedLevel.getAuthor(), actualLevel.getAuthor());
+            assertEquals(context, levelSubject + " state", expectedLevel.getState(), actualLevel.getState());
+            assertEquals(context, levelSubject + " board", toString(expectedLevel.getInitialBoard()),
+                    toString(actualLevel.getInitialBoard()));
+        }
+    }
+    
+    /**
+     * Describes level's board for comparison.
+     * 
+     * @param levelBoard
+     *      Level's board or {@code null}.
+     * @return
+     *      Board's size and items.
+     */
+    static String toString(LevelBoard levelBoard) {
+        
+        if (levelBoard == null)
+            return "empty";
+        
+        return levelBoard.getWidth() + "x" + levelBoard.getHeight() + " " + Arrays.toString(levelBoard.getItems());
+    }
+    
+    /**
+     * Creates an empty temporary directory for fixture files.
+     * 
+     * The directory is removed on exit along with the files it contains.
+     * 
+     * @return
+     *      Directory's instance.
+     * @throws IOException
+     *      If the directory can't be created.
+     */
+    static File createDirectory() throws IOException {
+        
+        File directory = File.createTempFile("storekeeper", "");
+        if (!directory.delete() || !directory.mkdir())
+            throw new IOException("Unable to create directory " + directory.getPath());
+        directory.deleteOnExit();
+        return directory;
+    }
+    
+    /**
+     * Reads a fixture file.
+     * 
+     * @param fixtureName
+     *      File's name in {@code fixtures} package.
+     * @return
+     *      File's content.
+     * @throws IOException
+     *      If the file can't be read.
+     */
+    static byte[] readFixture(String fixtureName) throws IOException {
+        
+        InputStream inputStream = LevelsSetAssert.class.getResourceAsStream("fixtures/" + fixtureName);
+        if (inputStream == null)
+            throw new IOException("Fixture is not found " + fixtureName);
+        
+        try {
+            
+            byte[] content = new byte[0];
+            byte[] buffer = new byte[4096];
+            int readLength = 0;
+            while ((readLength = inputStream.read(buffer)) >= 0) {
+                
+                content = Arrays.copyOf(content, content.length + readLength);
+                System.arraycopy(buffer, 0, content, content.length - readLength, readLength);
+            }
+            return content;
+        }
+        finally {
+            
+            inputStream.close();
+        }
+    }
+    
+    /**
+     * Writes a fixture's copy to a directory.
+     * 
+     * @param directory
+     *      Directory to write to.
+     * @param fileName
+     *      Copy's file name.
+     * @param content
+     *      Copy's content.
+     * @return
+     *      Copy's file name including the directory.
+     * @throws IOException
+     *      If the file can't be written.
+     */
+    static String writeFile(File directory, String fileName, byte[] content) throws IOException {
+        
+        File file = new File(directory, fileName);
+        file.deleteOnExit();
+        new File(file.getPath() + LevelsIndex.INDEX_FILE_EXTENSION).deleteOnExit();
+        OutputStream outputStream = new FileOutputStream(file);
+        try {
+            
+            outputStream.write(content);
+        }
+        finally {
+            
+            outputStream.close();
+        }
+        return file.getPath();
+    }
+}
\ No newline at end of file